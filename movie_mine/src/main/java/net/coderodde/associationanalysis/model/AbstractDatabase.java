@@ -1,6 +1,12 @@
 package net.coderodde.associationanalysis.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -24,10 +30,149 @@ public abstract class AbstractDatabase<O, I> {
      */
     public abstract List<Set<I>> select(final Predicate<O>... predicates);
     
+    /**
+     * Returns a read-only view of the transactions whose owners pass all the 
+     * predicates. The view contains the same transactions in the same order 
+     * as the list returned by {@link #select}, but implementations may 
+     * evaluate the predicates lazily while the view is being iterated instead
+     * of building a list.
+     * <p>
+     * This implementation wraps the list returned by {@link #select}.
+     * 
+     * @param  predicates an array of predicates.
+     * @return a collection of transactions.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<Set<I>> view(final Predicate<O>... predicates) {
+        // The predicate array is only read, so it cannot pollute the heap.
+        return Collections.unmodifiableCollection(select(predicates));
+    }
+    
     /**
      * Returns the amount of transactions in this database.
      * 
      * @return the size of this database.
      */
     public abstract int size();
+    
+    /**
+     * Returns the vertical index of this database. The index maps each item to
+     * the bitmap of the transactions containing it, where the transactions are
+     * numbered by their position in the list returned by {@link #select} 
+     * without predicates. Items contained in no transaction are not mapped.
+     * <p>
+     * This implementation builds the index from scratch on every call; 
+     * databases that can afford it should override this method and return a
+     * precomputed index.
+     * 
+     * @return the map from items to their transaction bitmaps.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<I, CompressedBitmap> getVerticalIndex() {
+        // The empty predicate array is never written, so it cannot pollute 
+        // the heap.
+        final List<Set<I>> transactionList = select();
+        final Map<I, List<Integer>> ownerMap = new HashMap<>();
+        
+        for (int i = 0; i < transactionList.size(); ++i) {
+            for (final I item : transactionList.get(i)) {
+                List<Integer> owners = ownerMap.get(item);
+                
+                if (owners == null) {
+                    owners = new ArrayList<>();
+                    ownerMap.put(item, owners);
+                }
+                
+                owners.add(i);
+            }
+        }
+        
+        final Map<I, CompressedBitmap> index = new HashMap<>(ownerMap.size());
+        
+        for (final Map.Entry<I, List<Integer>> e : ownerMap.entrySet()) {
+            final int[] owners = new int[e.getValue().size()];
+            
+            for (int i = 0; i < owners.length; ++i) {
+                owners[i] = e.getValue().get(i);
+            }
+            
+            index.put(e.getKey(), 
+                      CompressedBitmap.fromSortedArray(owners, owners.length));
+        }
+        
+        return Collections.unmodifiableMap(index);
+    }
+    
+    /**
+     * Returns the amount of transactions containing all the items in 
+     * <code>itemset</code>. The count is computed by intersecting the bitmaps
+     * of the vertical index.
+     * 
+     * @param  itemset the itemset.
+     * @return the support count of the itemset.
+     */
+    public int getSupportCount(final Set<I> itemset) {
+        if (itemset.isEmpty()) {
+            return size();
+        }
+        
+        return getSupportCount(itemset, getVerticalIndex());
+    }
+    
+    /**
+     * Returns the amount of transactions containing all the items in 
+     * <code>itemset</code> using the vertical index <code>index</code>. The
+     * bitmaps are intersected from the smallest one up, so that intermediate
+     * results stay small.
+     * 
+     * @param  <I>     the item type.
+     * @param  itemset the non-empty itemset.
+     * @param  index   the vertical index.
+     * @return the support count of the itemset.
+     */
+    protected static <I> int getSupportCount(
+            final Set<I> itemset,
+            final Map<I, CompressedBitmap> index) {
+        final List<CompressedBitmap> bitmapList = 
+                new ArrayList<>(itemset.size());
+        
+        for (final I item : itemset) {
+            final CompressedBitmap bitmap = index.get(item);
+            
+            if (bitmap == null) {
+                return 0;
+            }
+            
+            bitmapList.add(bitmap);
+        }
+        
+        Collections.sort(bitmapList, BITMAP_CARDINALITY_COMPARATOR);
+        
+        if (bitmapList.size() == 1) {
+            return bitmapList.get(0).cardinality();
+        }
+        
+        CompressedBitmap intersection = bitmapList.get(0);
+        
+        for (int i = 1; i < bitmapList.size() - 1; ++i) {
+            intersection = intersection.and(bitmapList.get(i));
+        }
+        
+        return intersection.andCardinality(
+                bitmapList.get(bitmapList.size() - 1));
+    }
+    
+    /**
+     * Orders bitmaps by their cardinality.
+     */
+    private static final Comparator<CompressedBitmap> 
+            BITMAP_CARDINALITY_COMPARATOR = 
+            new Comparator<CompressedBitmap>() {
+        
+        @Override
+        public int compare(final CompressedBitmap o1, 
+                           final CompressedBitmap o2) {
+            return Integer.compare(o1.cardinality(), o2.cardinality());
+        }
+    };
 }
@@ -1,12 +1,16 @@
 package net.coderodde.associationanalysis.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import static net.coderodde.util.Validation.checkNotNull;
 
 
 /**
@@ -38,18 +42,140 @@ public abstract class
     /**
      * The algorithm for generation of frequent itemsets.
      * 
-     * @param  transactionList the list of transactions to mine.
-     * @param  minimumSupport  the minimum support for mining task.
+     * The transactions may be any collection, such as a lazy view returned by
+     * {@link AbstractDatabase#view}; implementations iterate them as many 
+     * times as they need and never modify them.
+     * 
+     * @param  transactions   the transactions to mine.
+     * @param  minimumSupport the minimum support for mining task.
      * @return the object describing the frequent itemsets and support count
      *         function.
      */
     public abstract FrequentItemsetData<I>
-        findFrequentItemsets(final List<Set<I>> transactionList,
+        findFrequentItemsets(final Collection<Set<I>> transactions,
                              final double minimumSupport);
         
+    /**
+     * Mines approximate frequent itemsets from a uniform random sample of 
+     * <code>transactions</code>. The sample size 
+     * <tt>n = ceil(ln(2 / delta) / (2 epsilon^2))</tt> follows from the 
+     * Hoeffding bound, so that the support of any single itemset in the 
+     * sample is within <code>epsilon</code> of its true support with 
+     * probability at least <tt>1 - delta</tt>. The sample is mined with the 
+     * threshold lowered to <tt>minimumSupport - epsilon</tt>, so that an 
+     * itemset whose true support reaches <code>minimumSupport</code> is 
+     * missed with probability at most <code>delta</code>.
+     * <p>
+     * If the sample would not be smaller than the input, the input is mined 
+     * exactly.
+     * 
+     * @param  transactions   the transactions to mine.
+     * @param  minimumSupport the minimum support for mining task.
+     * @param  epsilon        the target error of supports.
+     * @param  delta          the probability of exceeding the error.
+     * @param  random         the random number generator for sampling.
+     * @return the object describing the frequent itemsets and the estimated
+     *         support count function of the sample, together with the error
+     *         bounds.
+     */
+    public FrequentItemsetData<I> 
+        findApproximateFrequentItemsets(final Collection<Set<I>> transactions,
+                                        final double minimumSupport,
+                                        final double epsilon,
+                                        final double delta,
+                                        final Random random) {
+        checkNotNull(random, "The random number generator is null.");
+        
+        if (!(epsilon > 0.0 && epsilon < 1.0)) {
+            throw new IllegalArgumentException(
+                    "The error must be within (0, 1): " + epsilon);
+        }
+        
+        if (!(delta > 0.0 && delta < 1.0)) {
+            throw new IllegalArgumentException(
+                    "The failure probability must be within (0, 1): " + 
+                    delta);
+        }
+        
+        final int sampleSize = getSampleSize(epsilon, delta);
+        final List<Set<I>> sample = new ArrayList<>();
+        int seen = 0;
+        
+        // Reservoir sampling: a single pass, which suits lazy views.
+        for (final Set<I> transaction : transactions) {
+            if (seen < sampleSize) {
+                sample.add(transaction);
+            } else {
+                final int index = random.nextInt(seen + 1);
+                
+                if (index < sampleSize) {
+                    sample.set(index, transaction);
+                }
+            }
+            
+            ++seen;
+        }
+        
+        if (seen <= sampleSize) {
+            return findFrequentItemsets(sample, minimumSupport);
+        }
+        
+        final FrequentItemsetData<I> data = 
+                findFrequentItemsets(sample, 
+                                     Math.max(0.0, minimumSupport - epsilon));
+        
+        return new FrequentItemsetData<>(data.getFrequentItemsets(),
+                                         data.getSupportCountFunction(),
+                                         data.getTransactionAmount(),
+                                         epsilon,
+                                         delta);
+    }
+    
+    /**
+     * Mines approximate frequent itemsets from a uniform random sample of 
+     * <code>transactions</code>.
+     * 
+     * @param  transactions   the transactions to mine.
+     * @param  minimumSupport the minimum support for mining task.
+     * @param  epsilon        the target error of supports.
+     * @param  delta          the probability of exceeding the error.
+     * @return the approximate frequent itemset data.
+     * @see    #findApproximateFrequentItemsets(Collection, double, double, 
+     *         double, Random)
+     */
+    public FrequentItemsetData<I> 
+        findApproximateFrequentItemsets(final Collection<Set<I>> transactions,
+                                        final double minimumSupport,
+                                        final double epsilon,
+                                        final double delta) {
+        return findApproximateFrequentItemsets(transactions, 
+                                               minimumSupport, 
+                                               epsilon, 
+                                               delta, 
+                                               new Random());
+    }
+    
+    /**
+     * Returns the sample size guaranteeing a support error of at most 
+     * <code>epsilon</code> with probability at least <tt>1 - delta</tt>.
+     * 
+     * @param  epsilon the target error of supports.
+     * @param  delta   the probability of exceeding the error.
+     * @return the sample size.
+     */
+    public static int getSampleSize(final double epsilon, final double delta) {
+        final double size = 
+                Math.ceil(Math.log(2.0 / delta) / (2.0 * epsilon * epsilon));
+        return size >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+    
     /**
      * Generates k+1 -itemset candidate from k-itemsets. This is so called
-     * <tt>F_{k - 1} x F_{k - 1}</tt> routine.
+     * <tt>F_{k - 1} x F_{k - 1}</tt> routine. The itemsets are sorted once, 
+     * after which itemsets sharing the same <tt>k - 1</tt>-prefix occupy a 
+     * contiguous group, and only pairs within a group are joined. A joined
+     * candidate is kept only if all of its <tt>k</tt>-subsets are in 
+     * <code>itemsetList</code>, which therefore should be a hashed set.
      * 
      * @param  itemsetList the list of itemsets.
      * @return the list of next itemsets.
@@ -63,23 +189,104 @@ public abstract class
             list.add(l);
         }
         
+        Collections.sort(list, new Comparator<List<I>>() {
+            
+            @Override
+            public int compare(final List<I> o1, final List<I> o2) {
+                for (int i = 0; i < o1.size(); ++i) {
+                    final int cmp = itemComparator.compare(o1.get(i), 
+                                                           o2.get(i));
+                    
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                
+                return 0;
+            }
+        });
+        
         final int N = list.size();
         final Set<Set<I>> ret = new HashSet<>(N);
+        int groupStart = 0;
         
-        for (int i = 0; i < N; ++i) {
-            for (int j = i + 1; j < N; ++j) {
-                final Set<I> candidate =
-                        tryMergeItemsets(list.get(i), list.get(j));
-                
-                if (candidate != null) {
-                    ret.add(candidate);
+        while (groupStart < N) {
+            int groupEnd = groupStart + 1;
+            
+            while (groupEnd < N 
+                    && haveSamePrefix(list.get(groupStart), 
+                                      list.get(groupEnd))) {
+                ++groupEnd;
+            }
+            
+            for (int i = groupStart; i < groupEnd; ++i) {
+                for (int j = i + 1; j < groupEnd; ++j) {
+                    final List<I> candidate = new ArrayList<>(list.get(i));
+                    final List<I> itemset2 = list.get(j);
+                    candidate.add(itemset2.get(itemset2.size() - 1));
+                    
+                    if (hasFrequentSubsets(candidate, itemsetList)) {
+                        ret.add(new HashSet<>(candidate));
+                    }
                 }
             }
+            
+            groupStart = groupEnd;
         }
         
         return ret;
     }
     
+    /**
+     * Checks whether two sorted itemsets of equal size agree on all but their
+     * last items.
+     * 
+     * @param  itemset1 the first itemset.
+     * @param  itemset2 the second itemset.
+     * @return <code>true</code> if the two itemsets share the prefix.
+     */
+    private boolean haveSamePrefix(final List<I> itemset1, 
+                                   final List<I> itemset2) {
+        for (int i = 0; i < itemset1.size() - 1; ++i) {
+            if (!itemset1.get(i).equals(itemset2.get(i))) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Checks the downward closure of a sorted candidate: all its subsets one 
+     * item smaller must be in <code>itemsetList</code>. The two subsets 
+     * missing one of the last two items are the joined itemsets, so they are
+     * not checked.
+     * 
+     * @param  candidate   the sorted candidate.
+     * @param  itemsetList the set of smaller frequent itemsets.
+     * @return <code>true</code> if no subset of the candidate is infrequent.
+     */
+    private boolean hasFrequentSubsets(final List<I> candidate,
+                                       final Set<Set<I>> itemsetList) {
+        final int length = candidate.size();
+        
+        for (int skip = 0; skip < length - 2; ++skip) {
+            final Set<I> subset = new HashSet<>(length);
+            
+            for (int i = 0; i < length; ++i) {
+                if (i != skip) {
+                    subset.add(candidate.get(i));
+                }
+            }
+            
+            if (!itemsetList.contains(subset)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
     /**
      * Tries to merge two <tt>k</tt>-itemsets into one <tt>k + 1</tt>-itemset.
      * It does this only if <tt>N - 1</tt> first elements in both itemsets are
@@ -89,7 +296,10 @@ public abstract class
      * @param  itemset2 the second itemset.
      * @return <code>null</code> if the two input itemsets cannot be merged into
      *         one. Otherwise the merged itemset is returned.
+     * @deprecated {@link #generateCandidates(Set)} no longer merges itemsets
+     *             pairwise; this method is kept for subclasses only.
      */
+    @Deprecated
     protected Set<I> tryMergeItemsets(final List<I> itemset1, 
                                       final List<I> itemset2) {
         final int length = itemset1.size();
@@ -168,6 +378,66 @@ public abstract class
         return ret;
     }
     
+    /**
+     * Returns the smallest support count reaching <code>minimumSupport</code>
+     * among <code>transactionAmount</code> transactions, but at least one.
+     * 
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return the minimum support count.
+     */
+    protected static int getMinimumSupportCount(final double minimumSupport,
+                                                final int transactionAmount) {
+        // Start below the product so that its rounding does not matter.
+        int count = Math.max(
+                0,
+                (int) Math.floor(minimumSupport * transactionAmount) - 1);
+        
+        while (1.0 * count / transactionAmount < minimumSupport) {
+            ++count;
+        }
+        
+        return Math.max(count, 1);
+    }
+    
+    /**
+     * Projects each transaction onto <code>frequentItems</code> and collapses
+     * identical projections into a single transaction weighted by its 
+     * multiplicity. Projections that become empty are dropped. Since no 
+     * frequent itemset contains an infrequent item, counting the weighted
+     * transactions yields the same support counts as counting the original 
+     * ones, while the amount of distinct baskets is often much smaller.
+     * 
+     * @param  transactions  the transactions.
+     * @param  frequentItems the set of frequent items.
+     * @return the map from distinct projected transactions to their weights,
+     *         in order of first occurrence.
+     */
+    protected Map<Set<I>, Integer> 
+        collapseTransactions(final Collection<Set<I>> transactions,
+                             final Set<I> frequentItems) {
+        final Map<Set<I>, Integer> ret = new LinkedHashMap<>();
+        
+        for (final Set<I> transaction : transactions) {
+            final Set<I> projection = new HashSet<>(transaction.size());
+            
+            for (final I item : transaction) {
+                if (frequentItems.contains(item)) {
+                    projection.add(item);
+                }
+            }
+            
+            if (projection.isEmpty()) {
+                continue;
+            }
+            
+            final Integer weight = ret.get(projection);
+            ret.put(projection, weight == null ? 1 : weight + 1);
+        }
+        
+        return ret;
+    }
+    
     /**
      * Extracts all the frequent itemsets.
      * 
@@ -54,6 +54,17 @@ public abstract class AbstractSupportCountFunction<I> {
         putSupportCount(itemset, getSupportCount(itemset) + 1);
     }
     
+    /**
+     * Increments the support count of <code>itemset</code> by 
+     * <code>amount</code>. Used when counting weighted transactions.
+     * 
+     * @param itemset the target itemset.
+     * @param amount  the amount to add to the support count.
+     */
+    public void increaseSupportCount(final Set<I> itemset, final int amount) {
+        putSupportCount(itemset, getSupportCount(itemset) + amount);
+    }
+    
     /**
      * Returns the support of the input itemset.
      * 
@@ -0,0 +1,389 @@
+package net.coderodde.associationanalysis.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements an immutable set of non-negative integers. A sparse
+ * set is stored as a sorted array of its members, and a dense set as an array
+ * of 64-bit words; the representation taking less memory is chosen whenever a
+ * bitmap is created. Intersections work on either representation, so the
+ * support of an itemset in a vertical index is just a chain of
+ * {@link #and(CompressedBitmap)} calls followed by
+ * {@link #andCardinality(CompressedBitmap)}.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public final class CompressedBitmap {
+    
+    /**
+     * The empty bitmap.
+     */
+    public static final CompressedBitmap EMPTY =
+            new CompressedBitmap(new int[0], null, 0);
+    
+    /**
+     * The sorted members of a sparse bitmap, or <code>null</code> if this
+     * bitmap is dense.
+     */
+    private final int[] values;
+    
+    /**
+     * The words of a dense bitmap, or <code>null</code> if this bitmap is
+     * sparse.
+     */
+    private final long[] words;
+    
+    /**
+     * The amount of members in this bitmap.
+     */
+    private final int cardinality;
+    
+    private CompressedBitmap(final int[] values,
+                             final long[] words,
+                             final int cardinality) {
+        this.values = values;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+    
+    /**
+     * Creates a bitmap holding the first <code>length</code> entries of
+     * <code>values</code>, which must be non-negative, distinct and sorted in
+     * ascending order.
+     * 
+     * @param  values the array of members.
+     * @param  length the amount of members.
+     * @return the bitmap.
+     */
+    public static CompressedBitmap fromSortedArray(final int[] values,
+                                                   final int length) {
+        checkNotNull(values, "The value array is null.");
+        
+        if (length < 0 || length > values.length) {
+            throw new IllegalArgumentException(
+                    "Invalid length: " + length +
+                    ", array length: " + values.length);
+        }
+        
+        for (int i = 0; i < length; ++i) {
+            if (values[i] < 0 || (i > 0 && values[i] <= values[i - 1])) {
+                throw new IllegalArgumentException(
+                        "The values are not distinct, non-negative and " +
+                        "sorted.");
+            }
+        }
+        
+        return create(Arrays.copyOf(values, length), length);
+    }
+    
+    /**
+     * Creates a bitmap holding the members of <code>bitSet</code>.
+     * 
+     * @param  bitSet the bit set.
+     * @return the bitmap.
+     */
+    public static CompressedBitmap fromBitSet(final BitSet bitSet) {
+        checkNotNull(bitSet, "The bit set is null.");
+        return create(bitSet.toLongArray(), bitSet.cardinality());
+    }
+    
+    /**
+     * Returns the amount of members in this bitmap.
+     * 
+     * @return the cardinality of this bitmap.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+    
+    /**
+     * Checks whether <code>value</code> is a member of this bitmap.
+     * 
+     * @param  value the value to check.
+     * @return <code>true</code> if <code>value</code> is in this bitmap.
+     */
+    public boolean contains(final int value) {
+        if (value < 0) {
+            return false;
+        }
+        
+        if (values != null) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+        
+        return testBit(words, value);
+    }
+    
+    /**
+     * Returns the intersection of this bitmap and <code>other</code>.
+     * 
+     * @param  other the other bitmap.
+     * @return the intersection.
+     */
+    public CompressedBitmap and(final CompressedBitmap other) {
+        if (values != null && other.values != null) {
+            final int[] small = cardinality <= other.cardinality ?
+                                values :
+                                other.values;
+            final int[] large = small == values ? other.values : values;
+            final int smallLength = Math.min(cardinality, other.cardinality);
+            final int largeLength = Math.max(cardinality, other.cardinality);
+            final int[] result = new int[smallLength];
+            int length = 0;
+            int j = 0;
+            
+            for (int i = 0; i < smallLength && j < largeLength; ++i) {
+                while (j < largeLength && large[j] < small[i]) {
+                    ++j;
+                }
+                
+                if (j < largeLength && large[j] == small[i]) {
+                    result[length++] = small[i];
+                }
+            }
+            
+            return create(result, length);
+        }
+        
+        if (values != null || other.values != null) {
+            final int[] sparse = values != null ? values : other.values;
+            final int sparseLength = values != null ?
+                                     cardinality :
+                                     other.cardinality;
+            final long[] dense = values != null ? other.words : words;
+            final int[] result = new int[sparseLength];
+            int length = 0;
+            
+            for (int i = 0; i < sparseLength; ++i) {
+                if (testBit(dense, sparse[i])) {
+                    result[length++] = sparse[i];
+                }
+            }
+            
+            return create(result, length);
+        }
+        
+        final long[] result = new long[Math.min(words.length,
+                                                other.words.length)];
+        int resultCardinality = 0;
+        
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = words[i] & other.words[i];
+            resultCardinality += Long.bitCount(result[i]);
+        }
+        
+        return create(result, resultCardinality);
+    }
+    
+    /**
+     * Returns the cardinality of the intersection of this bitmap and
+     * <code>other</code> without creating the intersection.
+     * 
+     * @param  other the other bitmap.
+     * @return the size of the intersection.
+     */
+    public int andCardinality(final CompressedBitmap other) {
+        if (values != null && other.values != null) {
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    ++i;
+                } else if (values[i] > other.values[j]) {
+                    ++j;
+                } else {
+                    ++count;
+                    ++i;
+                    ++j;
+                }
+            }
+            
+            return count;
+        }
+        
+        if (values != null || other.values != null) {
+            final int[] sparse = values != null ? values : other.values;
+            final int sparseLength = values != null ?
+                                     cardinality :
+                                     other.cardinality;
+            final long[] dense = values != null ? other.words : words;
+            int count = 0;
+            
+            for (int i = 0; i < sparseLength; ++i) {
+                if (testBit(dense, sparse[i])) {
+                    ++count;
+                }
+            }
+            
+            return count;
+        }
+        
+        final int length = Math.min(words.length, other.words.length);
+        int count = 0;
+        
+        for (int i = 0; i < length; ++i) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Returns the members of this bitmap in ascending order.
+     * 
+     * @return the array of members.
+     */
+    public int[] toArray() {
+        if (values != null) {
+            return Arrays.copyOf(values, cardinality);
+        }
+        
+        final int[] result = new int[cardinality];
+        int length = 0;
+        
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            
+            while (word != 0L) {
+                result[length++] = 64 * i + Long.numberOfTrailingZeros(word);
+                word &= word - 1L;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Returns a bit set holding the members of this bitmap.
+     * 
+     * @return the bit set.
+     */
+    public BitSet toBitSet() {
+        if (words != null) {
+            return BitSet.valueOf(words);
+        }
+        
+        final BitSet bitSet = new BitSet();
+        
+        for (int i = 0; i < cardinality; ++i) {
+            bitSet.set(values[i]);
+        }
+        
+        return bitSet;
+    }
+    
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof CompressedBitmap)) {
+            return false;
+        }
+        
+        final CompressedBitmap other = (CompressedBitmap) obj;
+        return cardinality == other.cardinality
+                && andCardinality(other) == cardinality;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+    
+    /**
+     * Creates a bitmap from a sorted array of members, choosing the smaller
+     * representation.
+     * 
+     * @param  values the array of members.
+     * @param  length the amount of members.
+     * @return the bitmap.
+     */
+    private static CompressedBitmap create(final int[] values,
+                                           final int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        
+        final int wordAmount = values[length - 1] / 64 + 1;
+        
+        if (length <= 2 * wordAmount) {
+            return new CompressedBitmap(values.length == length ?
+                                        values :
+                                        Arrays.copyOf(values, length),
+                                        null,
+                                        length);
+        }
+        
+        final long[] words = new long[wordAmount];
+        
+        for (int i = 0; i < length; ++i) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        
+        return new CompressedBitmap(null, words, length);
+    }
+    
+    /**
+     * Creates a bitmap from an array of words, choosing the smaller
+     * representation.
+     * 
+     * @param  words       the array of words.
+     * @param  cardinality the amount of set bits in <code>words</code>.
+     * @return the bitmap.
+     */
+    private static CompressedBitmap create(final long[] words,
+                                           final int cardinality) {
+        if (cardinality == 0) {
+            return EMPTY;
+        }
+        
+        int wordAmount = words.length;
+        
+        while (words[wordAmount - 1] == 0L) {
+            --wordAmount;
+        }
+        
+        if (cardinality > 2 * wordAmount) {
+            return new CompressedBitmap(null,
+                                        wordAmount == words.length ?
+                                        words :
+                                        Arrays.copyOf(words, wordAmount),
+                                        cardinality);
+        }
+        
+        final int[] values = new int[cardinality];
+        int length = 0;
+        
+        for (int i = 0; i < wordAmount; ++i) {
+            long word = words[i];
+            
+            while (word != 0L) {
+                values[length++] = 64 * i + Long.numberOfTrailingZeros(word);
+                word &= word - 1L;
+            }
+        }
+        
+        return new CompressedBitmap(values, null, cardinality);
+    }
+    
+    /**
+     * Checks whether the bit <code>index</code> is set in <code>words</code>.
+     * 
+     * @param  words the array of words.
+     * @param  index the bit index.
+     * @return <code>true</code> if the bit is set.
+     */
+    private static boolean testBit(final long[] words, final int index) {
+        final int wordIndex = index >>> 6;
+        return wordIndex < words.length
+                && (words[wordIndex] & (1L << index)) != 0L;
+    }
+}
@@ -28,6 +28,18 @@ public class FrequentItemsetData<I> {
      */
     private final int transactionAmount;
     
+    /**
+     * The maximum absolute error of the reported supports, or zero if the 
+     * supports are exact.
+     */
+    private final double supportErrorBound;
+    
+    /**
+     * The probability with which the error bound of a single support may be 
+     * exceeded, or zero if the supports are exact.
+     */
+    private final double failureProbability;
+    
     /**
      * Constructs this data holder.
      * 
@@ -39,9 +51,31 @@ public class FrequentItemsetData<I> {
             final List<Set<I>> frequentItemsets,
             final AbstractSupportCountFunction<I> supportCountFunction,
             final int transactionAmount) {
+        this(frequentItemsets, supportCountFunction, transactionAmount, 0, 0);
+    }
+    
+    /**
+     * Constructs this data holder for approximate results. Each reported 
+     * support is within <code>supportErrorBound</code> of the true support 
+     * with probability at least <code>1 - failureProbability</code>.
+     * 
+     * @param frequentItemsets     the list of frequent itemsets.
+     * @param supportCountFunction the support count function.
+     * @param transactionAmount    the amount of transactions.
+     * @param supportErrorBound    the error bound of supports.
+     * @param failureProbability   the probability of exceeding the bound.
+     */
+    public FrequentItemsetData(
+            final List<Set<I>> frequentItemsets,
+            final AbstractSupportCountFunction<I> supportCountFunction,
+            final int transactionAmount,
+            final double supportErrorBound,
+            final double failureProbability) {
         this.frequentItemsets = frequentItemsets;
         this.supportCountFunction = supportCountFunction;
         this.transactionAmount = transactionAmount;
+        this.supportErrorBound = supportErrorBound;
+        this.failureProbability = failureProbability;
         Collections.sort(this.frequentItemsets,
                          new Utilities.ItemsetComparatorBySupport
                          (supportCountFunction));
@@ -98,4 +132,33 @@ public class FrequentItemsetData<I> {
     public int getTransactionAmount() {
         return transactionAmount;
     }
+    
+    /**
+     * Checks whether the supports of this data are estimates.
+     * 
+     * @return <code>true</code> if the supports are approximate.
+     */
+    public boolean isApproximate() {
+        return supportErrorBound > 0.0;
+    }
+    
+    /**
+     * Returns the maximum absolute error of the supports reported by the 
+     * support count function, or zero if they are exact.
+     * 
+     * @return the support error bound.
+     */
+    public double getSupportErrorBound() {
+        return supportErrorBound;
+    }
+    
+    /**
+     * Returns the probability with which the support of a single itemset may
+     * be off by more than {@link #getSupportErrorBound()}.
+     * 
+     * @return the failure probability.
+     */
+    public double getFailureProbability() {
+        return failureProbability;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package net.coderodde.associationanalysis.model;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a lazy, read-only view of the transactions of a
+ * database. The view is defined over two parallel lists: the owner list and
+ * the transaction list, where the transaction at index <code>i</code> belongs
+ * to the owner at index <code>i</code>. A transaction is visible if it is
+ * neither <code>null</code> nor empty and its owner passes all the predicates.
+ * Predicates are evaluated on the fly while iterating, so no intermediate list
+ * of transactions is ever built; as a consequence, each pass over the view
+ * evaluates them anew.
+ * <p>
+ * The spliterator of a view splits the index range in halves, so the view can
+ * be consumed by parallel streams and fork-join tasks.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <O> the type of transaction owner.
+ * @param <I> the type of an item.
+ */
+public class TransactionView<O, I> extends AbstractCollection<Set<I>> {
+    
+    /**
+     * The list of owners.
+     */
+    private final List<O> ownerList;
+    
+    /**
+     * The list of transactions. The lists must support fast random access.
+     */
+    private final List<Set<I>> transactionList;
+    
+    /**
+     * The predicates a transaction owner must pass.
+     */
+    private final Predicate<O>[] predicates;
+    
+    /**
+     * The amount of visible transactions, or -1 if not yet computed.
+     */
+    private volatile int size = -1;
+    
+    /**
+     * Constructs a view over the given lists. The lists must have equal size
+     * and support fast random access.
+     * 
+     * @param ownerList       the list of owners.
+     * @param transactionList the list of transactions.
+     * @param predicates      the predicates owners must pass.
+     */
+    @SuppressWarnings("unchecked")
+    public TransactionView(final List<O> ownerList,
+                           final List<Set<I>> transactionList,
+                           final Predicate<O>... predicates) {
+        // The view keeps a private copy of the predicate array and only reads
+        // it, so the array cannot pollute the heap.
+        checkNotNull(ownerList, "The owner list is null.");
+        checkNotNull(transactionList, "The transaction list is null.");
+        checkNotNull(predicates, "The predicate array is null.");
+        
+        if (ownerList.size() != transactionList.size()) {
+            throw new IllegalArgumentException(
+                    "The owner list and the transaction list have different " +
+                    "sizes: " + ownerList.size() + " and " +
+                    transactionList.size() + ".");
+        }
+        
+        this.ownerList = ownerList;
+        this.transactionList = transactionList;
+        this.predicates = predicates.clone();
+    }
+    
+    /**
+     * Returns an iterator over the visible transactions in index order.
+     * 
+     * @return an iterator.
+     */
+    @Override
+    public Iterator<Set<I>> iterator() {
+        return new Iterator<Set<I>>() {
+            
+            /**
+             * The index of the next visible transaction, or the size of the
+             * lists if there is none.
+             */
+            private int index = nextVisibleIndex(0, transactionList.size());
+            
+            @Override
+            public boolean hasNext() {
+                return index < transactionList.size();
+            }
+            
+            @Override
+            public Set<I> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException(
+                            "No more transactions in the view.");
+                }
+                
+                final Set<I> transaction = transactionList.get(index);
+                index = nextVisibleIndex(index + 1, transactionList.size());
+                return transaction;
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException(
+                        "The view is read-only.");
+            }
+        };
+    }
+    
+    /**
+     * Returns a spliterator over the visible transactions.
+     * 
+     * @return a spliterator.
+     */
+    @Override
+    public Spliterator<Set<I>> spliterator() {
+        return new RangeSpliterator(0, transactionList.size());
+    }
+    
+    /**
+     * Returns the amount of visible transactions. The amount is counted on the
+     * first call, which takes a pass over the transactions.
+     * 
+     * @return the size of this view.
+     */
+    @Override
+    public int size() {
+        int s = size;
+        
+        if (s < 0) {
+            s = 0;
+            
+            for (int i = nextVisibleIndex(0, transactionList.size());
+                    i < transactionList.size();
+                    i = nextVisibleIndex(i + 1, transactionList.size())) {
+                ++s;
+            }
+            
+            size = s;
+        }
+        
+        return s;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size < 0 ?
+               nextVisibleIndex(0, transactionList.size())
+                       == transactionList.size() :
+               size == 0;
+    }
+    
+    /**
+     * Returns the smallest index of a visible transaction within
+     * <code>[from, to)</code>, or <code>to</code> if there is none.
+     * 
+     * @param  from the first index to consider.
+     * @param  to   the index one past the last one to consider.
+     * @return the index of the next visible transaction.
+     */
+    private int nextVisibleIndex(int from, final int to) {
+        outer:
+        for (; from < to; ++from) {
+            final Set<I> transaction = transactionList.get(from);
+            
+            if (transaction == null || transaction.isEmpty()) {
+                continue;
+            }
+            
+            for (final Predicate<O> predicate : predicates) {
+                if (!predicate.test(ownerList.get(from))) {
+                    continue outer;
+                }
+            }
+            
+            return from;
+        }
+        
+        return to;
+    }
+    
+    /**
+     * This class implements a spliterator over an index range of the view.
+     */
+    private final class RangeSpliterator implements Spliterator<Set<I>> {
+        
+        /**
+         * The next index to consider.
+         */
+        private int index;
+        
+        /**
+         * The index one past the last one to consider.
+         */
+        private final int end;
+        
+        RangeSpliterator(final int index, final int end) {
+            this.index = index;
+            this.end = end;
+        }
+        
+        @Override
+        public boolean tryAdvance(final Consumer<? super Set<I>> action) {
+            index = nextVisibleIndex(index, end);
+            
+            if (index == end) {
+                return false;
+            }
+            
+            action.accept(transactionList.get(index++));
+            return true;
+        }
+        
+        @Override
+        public void forEachRemaining(final Consumer<? super Set<I>> action) {
+            for (index = nextVisibleIndex(index, end);
+                    index < end;
+                    index = nextVisibleIndex(index + 1, end)) {
+                action.accept(transactionList.get(index));
+            }
+        }
+        
+        @Override
+        public Spliterator<Set<I>> trySplit() {
+            final int middle = (index + end) >>> 1;
+            
+            if (middle <= index) {
+                return null;
+            }
+            
+            final Spliterator<Set<I>> prefix =
+                    new RangeSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package net.coderodde.associationanalysis.model.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
 import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import static net.coderodde.util.Validation.checkIntegerNotNegative;
 
 /**
  * This class implements the Apriori algorithm for frequent itemsets generation.
@@ -20,6 +30,45 @@ import net.coderodde.associationanalysis.model.FrequentItemsetData;
 public class AprioriFrequentItemsetGenerator<I> 
 extends AbstractFrequentItemsetGenerator<I> {
 
+    /**
+     * Indicates whether identical transactions are collapsed before the 
+     * counting passes.
+     */
+    private boolean transactionDeduplication;
+    
+    /**
+     * The fork-join pool counting the candidates, or <code>null</code> if 
+     * they are counted in the calling thread.
+     */
+    private ForkJoinPool pool;
+    
+    /**
+     * Indicates whether the pairs are counted in a triangular matrix.
+     */
+    private boolean triangularPairCounting;
+    
+    /**
+     * Indicates whether the transactions are trimmed between the passes.
+     */
+    private boolean transactionTrimming;
+    
+    /**
+     * The amount of buckets in the pair hash table of the DHP filter, or zero
+     * if the filter is off.
+     */
+    private int dhpBucketAmount;
+    
+    /**
+     * The share of the pairs of frequent items pruned by the DHP filter in 
+     * the last run.
+     */
+    private double dhpPruningRatio;
+    
+    /**
+     * The amount of counting passes over the transactions the last run took.
+     */
+    private int passAmount;
+    
     /**
      * Constructs this itemset generator. The underlying algorithm is 
      * "Apriori algorithm".
@@ -30,21 +79,171 @@ extends AbstractFrequentItemsetGenerator<I> {
         super(comparator);
     }
     
+    /**
+     * Returns <code>true</code> if the transactions are projected onto the 
+     * frequent items and identical projections are counted once with a 
+     * weight.
+     * 
+     * @return <code>true</code> if transaction deduplication is on.
+     */
+    public boolean isTransactionDeduplication() {
+        return transactionDeduplication;
+    }
+    
+    /**
+     * Turns transaction deduplication on or off. When on, the passes for
+     * <tt>k &gt;= 2</tt> iterate the distinct baskets over the frequent items
+     * instead of all transactions. The results are the same either way.
+     * 
+     * @param transactionDeduplication whether to deduplicate transactions.
+     */
+    public void setTransactionDeduplication(
+            final boolean transactionDeduplication) {
+        this.transactionDeduplication = transactionDeduplication;
+    }
+    
+    /**
+     * Returns <code>true</code> if the 2-itemsets are counted in a 
+     * triangular matrix.
+     * 
+     * @return <code>true</code> if triangular pair counting is on.
+     */
+    public boolean isTriangularPairCounting() {
+        return triangularPairCounting;
+    }
+    
+    /**
+     * Turns triangular pair counting on or off. When on, the pass for 
+     * <tt>k = 2</tt> generates no candidates; instead, every pair of frequent
+     * items in each transaction is counted in a {@link TriangularPairCounter}
+     * indexed by the ranks of the frequent items. The matrix takes 
+     * <tt>2 n (n - 1)</tt> bytes for <tt>n</tt> frequent items, and is not 
+     * used if <tt>n</tt> exceeds 
+     * {@link TriangularPairCounter#MAXIMUM_ITEM_AMOUNT}. The results are the
+     * same either way, except that the support count function knows the 
+     * counts of the frequent pairs only.
+     * 
+     * @param triangularPairCounting whether to count pairs in a matrix.
+     */
+    public void setTriangularPairCounting(
+            final boolean triangularPairCounting) {
+        this.triangularPairCounting = triangularPairCounting;
+    }
+    
+    /**
+     * Returns <code>true</code> if the transactions are trimmed between the
+     * passes.
+     * 
+     * @return <code>true</code> if transaction trimming is on.
+     */
+    public boolean isTransactionTrimming() {
+        return transactionTrimming;
+    }
+    
+    /**
+     * Turns transaction trimming on or off. When on, the transactions are 
+     * rewritten before each pass <tt>k</tt>: the items appearing in no 
+     * frequent <tt>(k - 1)</tt>-itemset are removed, since no candidate 
+     * contains them, and the transactions left with less than <tt>k</tt> 
+     * items are dropped, since they contain no candidate. Later passes thus
+     * scan a shrinking set of transactions. The results are the same either
+     * way.
+     * 
+     * @param transactionTrimming whether to trim transactions.
+     */
+    public void setTransactionTrimming(final boolean transactionTrimming) {
+        this.transactionTrimming = transactionTrimming;
+    }
+    
+    /**
+     * Returns the amount of buckets of the DHP filter.
+     * 
+     * @return the amount of buckets, or zero if the DHP filter is off.
+     */
+    public int getDhpBucketAmount() {
+        return dhpBucketAmount;
+    }
+    
+    /**
+     * Sets the amount of buckets of the DHP (direct hashing and pruning) 
+     * filter; zero turns the filter off. When on, the first pass also hashes
+     * every pair of items in each transaction to a bucket and counts the 
+     * buckets. As the count of a bucket bounds the support counts of all the
+     * pairs hashed to it, a pair of frequent items is made a candidate only 
+     * if its bucket reaches the minimum support. If pairs are counted in a 
+     * triangular matrix, which needs no candidates, the filter only serves 
+     * when there are too many frequent items for the matrix, and the hashing
+     * is wasted otherwise. The results are the same either way.
+     * 
+     * @param dhpBucketAmount the amount of buckets.
+     */
+    public void setDhpBucketAmount(final int dhpBucketAmount) {
+        checkIntegerNotNegative(dhpBucketAmount,
+                                "The amount of buckets is negative: " +
+                                dhpBucketAmount);
+        this.dhpBucketAmount = dhpBucketAmount;
+    }
+    
+    /**
+     * Returns the share of the pairs of frequent items the DHP filter pruned
+     * in the last run, or zero if the filter was not used.
+     * 
+     * @return the pruning ratio.
+     */
+    public double getDhpPruningRatio() {
+        return dhpPruningRatio;
+    }
+    
+    /**
+     * Returns the amount of counting passes over the transactions the last
+     * run took: one for the items and one for each level of candidates.
+     * 
+     * @return the amount of passes.
+     */
+    public int getPassAmount() {
+        return passAmount;
+    }
+    
+    /**
+     * Returns the fork-join pool counting the candidates.
+     * 
+     * @return the pool, or <code>null</code> if counting is sequential.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Sets the fork-join pool counting the candidates. With a pool, the 
+     * transactions of each pass are split into up to as many partitions as the
+     * pool has parallelism by splitting their spliterator, so a lazy view is 
+     * not copied; each task counts its partition into a private array indexed
+     * by candidate, and the arrays are summed when all the tasks are done. 
+     * Passing <code>null</code> makes counting sequential again.
+     * 
+     * @param pool the fork-join pool, or <code>null</code>.
+     */
+    public void setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
     /**
      * Mines frequent patterns from the transaction list. A frequent pattern is
      * any itemset having support at least <code>minimumSupport</code>.
      * 
-     * @param transactionList the list of target transactions.
-     * @param minimumSupport  the minimum support.
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
      * @return a data object describing the frequent patterns and their support
      *         counts.
      */
     @Override
     public FrequentItemsetData<I> 
-        findFrequentItemsets(final List<Set<I>> transactionList,
+        findFrequentItemsets(final Collection<Set<I>> transactions,
                              final double minimumSupport) {
+        // The size of a lazy view may take a pass to compute, so ask it once.
+        final int transactionAmount = transactions.size();
         final AprioriSupportCountFunction<I> supportCountFunction = 
-                new AprioriSupportCountFunction<>(transactionList.size());
+                new AprioriSupportCountFunction<>(transactionAmount);
         
         final Map<Integer, Set<Set<I>>> map = new HashMap<>();
         
@@ -52,7 +251,19 @@ extends AbstractFrequentItemsetGenerator<I> {
         
         int line = 0;
         
-        for (final Set<I> itemset : transactionList) {
+        // The pair bucket counts of the DHP filter, or null if it is off.
+        final int[] bucketCounts = dhpBucketAmount > 0 ?
+                                   new int[dhpBucketAmount] :
+                                   null;
+        dhpPruningRatio = 0.0;
+        passAmount = 1;
+        
+        for (final Set<I> itemset : transactions) {
+            if (bucketCounts != null) {
+                hashPairs(itemset, bucketCounts);
+            }
+            
+            
             for (final I item : itemset) {
                 final Set<I> oneItemset = new HashSet<>(1);
                 oneItemset.add(item);
@@ -60,7 +271,7 @@ extends AbstractFrequentItemsetGenerator<I> {
                 
                 final double support = 
                         1.0 * supportCountFunction.getSupportCount(oneItemset)
-                            / transactionList.size();
+                            / transactionAmount;
                 
                 if (support >= minimumSupport) {
                     map.get(1).add(oneItemset);
@@ -74,34 +285,528 @@ extends AbstractFrequentItemsetGenerator<I> {
             }
         }
         
+        // The weighted baskets, or null if deduplication is off.
+        Map<Set<I>, Integer> weightedTransactions = null;
+        
+        if (transactionDeduplication) {
+            final Set<I> frequentItems = new HashSet<>();
+            
+            for (final Set<I> oneItemset : map.get(1)) {
+                frequentItems.addAll(oneItemset);
+            }
+            
+            weightedTransactions = collapseTransactions(transactions, 
+                                                        frequentItems);
+        }
+        
+        // The transactions still able to contain candidates.
+        Collection<Set<I>> workingTransactions = transactions;
+        
         int k = 1;
         
         do {
             ++k;
             
             System.out.println("k = " + k);
+            ++passAmount;
+            
+            if (transactionTrimming) {
+                final Set<I> liveItems = new HashSet<>();
+                
+                for (final Set<I> itemset : map.get(k - 1)) {
+                    liveItems.addAll(itemset);
+                }
+                
+                if (weightedTransactions != null) {
+                    weightedTransactions = 
+                            trimTransactions(weightedTransactions, 
+                                             liveItems, 
+                                             k);
+                } else {
+                    workingTransactions = 
+                            trimTransactions(workingTransactions, 
+                                             liveItems, 
+                                             k);
+                }
+            }
+            
+            if (k == 2 
+                    && triangularPairCounting 
+                    && map.get(1).size() 
+                    <= TriangularPairCounter.MAXIMUM_ITEM_AMOUNT) {
+                map.put(k, countPairs(map.get(1),
+                                      workingTransactions,
+                                      weightedTransactions,
+                                      supportCountFunction,
+                                      minimumSupport,
+                                      transactionAmount));
+                continue;
+            }
             
             final Set<Set<I>> candidateList = 
+                    k == 2 && bucketCounts != null ?
+                    generatePairs(map.get(1), 
+                                  bucketCounts, 
+                                  minimumSupport, 
+                                  transactionAmount) :
                     generateCandidates(map.get(k - 1));
             
-            for (final Set<I> transaction : transactionList) {
-                final Set<Set<I>> candidateList2 = subset(candidateList,
-                                                          transaction);
-                
-                for (final Set<I> itemset : candidateList2) {
-                    supportCountFunction.increaseSupportCount(itemset);
+            // The trie visits only the candidates inside each transaction.
+            final CandidateTrie<I> candidateTrie = 
+                    new CandidateTrie<>(candidateList, itemComparator);
+            
+            if (pool != null) {
+                countInParallel(candidateTrie, 
+                                workingTransactions, 
+                                weightedTransactions);
+            } else if (weightedTransactions != null) {
+                for (final Map.Entry<Set<I>, Integer> e 
+                        : weightedTransactions.entrySet()) {
+                    candidateTrie.count(e.getKey(), e.getValue());
+                }
+            } else {
+                for (final Set<I> transaction : workingTransactions) {
+                    candidateTrie.count(transaction, 1);
+                }
+            }
+            
+            for (int i = 0; i < candidateTrie.size(); ++i) {
+                if (candidateTrie.getCount(i) > 0) {
+                    supportCountFunction.increaseSupportCount(
+                            candidateTrie.getCandidateList().get(i),
+                            candidateTrie.getCount(i));
                 }
             }
             
             map.put(k, getNextItemsets(candidateList,
                                        supportCountFunction,
                                        minimumSupport,
-                                       transactionList.size()));
+                                       transactionAmount));
             
         } while (!map.get(k).isEmpty());
         
         return new FrequentItemsetData<>(extractFrequentItemsets(map),
                                          supportCountFunction,
-                                         transactionList.size());
+                                         transactionAmount);
+    }
+    
+    /**
+     * Increments the bucket of each pair of items in <code>transaction</code>.
+     * 
+     * @param transaction  the transaction.
+     * @param bucketCounts the bucket counts.
+     */
+    private static <I> void hashPairs(final Set<I> transaction,
+                                      final int[] bucketCounts) {
+        final int[] hashes = new int[transaction.size()];
+        int length = 0;
+        
+        for (final I item : transaction) {
+            hashes[length++] = item.hashCode();
+        }
+        
+        for (int i = 0; i < length - 1; ++i) {
+            for (int j = i + 1; j < length; ++j) {
+                ++bucketCounts[getBucket(hashes[i], 
+                                         hashes[j], 
+                                         bucketCounts.length)];
+            }
+        }
+    }
+    
+    /**
+     * Returns the bucket of the pair of items with hash codes 
+     * <code>hash1</code> and <code>hash2</code>. The bucket does not depend 
+     * on the order of the items.
+     * 
+     * @param  hash1        the hash code of one item.
+     * @param  hash2        the hash code of the other item.
+     * @param  bucketAmount the amount of buckets.
+     * @return the bucket index.
+     */
+    private static int getBucket(final int hash1, 
+                                 final int hash2, 
+                                 final int bucketAmount) {
+        final int h = (Math.min(hash1, hash2) * 0x9E3779B9 
+                       + Math.max(hash1, hash2)) * 0x85EBCA6B;
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % bucketAmount;
+    }
+    
+    /**
+     * Generates the pairs of frequent items whose bucket in the DHP filter
+     * reaches the minimum support, and records the share of pairs pruned.
+     * 
+     * @param  oneItemsets       the frequent 1-itemsets.
+     * @param  bucketCounts      the bucket counts.
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return the set of 2-candidates.
+     */
+    private Set<Set<I>> generatePairs(final Set<Set<I>> oneItemsets,
+                                      final int[] bucketCounts,
+                                      final double minimumSupport,
+                                      final int transactionAmount) {
+        final List<I> itemList = new ArrayList<>(oneItemsets.size());
+        
+        for (final Set<I> oneItemset : oneItemsets) {
+            itemList.addAll(oneItemset);
+        }
+        
+        final Set<Set<I>> ret = new HashSet<>();
+        long pruned = 0L;
+        
+        for (int i = 0; i < itemList.size(); ++i) {
+            final int hash = itemList.get(i).hashCode();
+            
+            for (int j = i + 1; j < itemList.size(); ++j) {
+                final int bucket = getBucket(hash, 
+                                             itemList.get(j).hashCode(),
+                                             bucketCounts.length);
+                
+                if (1.0 * bucketCounts[bucket] / transactionAmount 
+                        < minimumSupport) {
+                    ++pruned;
+                    continue;
+                }
+                
+                final Set<I> pair = new HashSet<>(2);
+                pair.add(itemList.get(i));
+                pair.add(itemList.get(j));
+                ret.add(pair);
+            }
+        }
+        
+        final long pairAmount = 1L * itemList.size() 
+                                   * (itemList.size() - 1) / 2;
+        dhpPruningRatio = pairAmount == 0L ? 0.0 : 1.0 * pruned / pairAmount;
+        return ret;
+    }
+    
+    /**
+     * Projects each transaction onto <code>liveItems</code> and drops the 
+     * projections shorter than <code>minimumLength</code>.
+     * 
+     * @param  transactions  the transactions.
+     * @param  liveItems     the items of the frequent itemsets of the last
+     *                       pass.
+     * @param  minimumLength the size of the next candidates.
+     * @return the list of trimmed transactions.
+     */
+    private List<Set<I>> trimTransactions(
+            final Collection<Set<I>> transactions,
+            final Set<I> liveItems,
+            final int minimumLength) {
+        final List<Set<I>> ret = new ArrayList<>();
+        
+        for (final Set<I> transaction : transactions) {
+            final Set<I> projection = project(transaction, liveItems);
+            
+            if (projection.size() >= minimumLength) {
+                ret.add(projection);
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Projects each weighted basket onto <code>liveItems</code>, drops the
+     * projections shorter than <code>minimumLength</code>, and merges the 
+     * identical projections by summing their weights.
+     * 
+     * @param  weightedTransactions the weighted baskets.
+     * @param  liveItems            the items of the frequent itemsets of the
+     *                              last pass.
+     * @param  minimumLength        the size of the next candidates.
+     * @return the map of trimmed baskets to their weights.
+     */
+    private Map<Set<I>, Integer> trimTransactions(
+            final Map<Set<I>, Integer> weightedTransactions,
+            final Set<I> liveItems,
+            final int minimumLength) {
+        final Map<Set<I>, Integer> ret = new LinkedHashMap<>();
+        
+        for (final Map.Entry<Set<I>, Integer> e 
+                : weightedTransactions.entrySet()) {
+            final Set<I> projection = project(e.getKey(), liveItems);
+            
+            if (projection.size() >= minimumLength) {
+                final Integer weight = ret.get(projection);
+                ret.put(projection, weight == null ? 
+                                    e.getValue() : 
+                                    weight + e.getValue());
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Returns the items of <code>transaction</code> in <code>liveItems</code>.
+     * The transaction itself is returned if all its items are live.
+     * 
+     * @param  transaction the transaction.
+     * @param  liveItems   the set of live items.
+     * @return the projection of the transaction.
+     */
+    private static <I> Set<I> project(final Set<I> transaction,
+                                      final Set<I> liveItems) {
+        if (liveItems.containsAll(transaction)) {
+            return transaction;
+        }
+        
+        final Set<I> ret = new HashSet<>(transaction.size());
+        
+        for (final I item : transaction) {
+            if (liveItems.contains(item)) {
+                ret.add(item);
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Counts all pairs of frequent items in a triangular matrix and returns 
+     * the frequent ones.
+     * 
+     * @param  oneItemsets          the frequent 1-itemsets.
+     * @param  transactions         the transactions.
+     * @param  weightedTransactions the weighted baskets, or <code>null</code>
+     *                              if deduplication is off.
+     * @param  supportCountFunction the support count function receiving the
+     *                              counts of the frequent pairs.
+     * @param  minimumSupport       the minimum support.
+     * @param  transactionAmount    the amount of transactions.
+     * @return the set of frequent 2-itemsets.
+     */
+    private Set<Set<I>> 
+        countPairs(final Set<Set<I>> oneItemsets,
+                   final Collection<Set<I>> transactions,
+                   final Map<Set<I>, Integer> weightedTransactions,
+                   final AprioriSupportCountFunction<I> supportCountFunction,
+                   final double minimumSupport,
+                   final int transactionAmount) {
+        final List<I> itemList = new ArrayList<>(oneItemsets.size());
+        
+        for (final Set<I> oneItemset : oneItemsets) {
+            itemList.addAll(oneItemset);
+        }
+        
+        Collections.sort(itemList, itemComparator);
+        
+        final Map<I, Integer> rankMap = new HashMap<>(itemList.size());
+        
+        for (int rank = 0; rank < itemList.size(); ++rank) {
+            rankMap.put(itemList.get(rank), rank);
+        }
+        
+        final TriangularPairCounter pairCounter = 
+                new TriangularPairCounter(itemList.size());
+        
+        if (weightedTransactions != null) {
+            for (final Map.Entry<Set<I>, Integer> e 
+                    : weightedTransactions.entrySet()) {
+                countPairs(pairCounter, rankMap, e.getKey(), e.getValue());
+            }
+        } else {
+            for (final Set<I> transaction : transactions) {
+                countPairs(pairCounter, rankMap, transaction, 1);
+            }
+        }
+        
+        final Set<Set<I>> ret = new HashSet<>();
+        
+        for (int i = 0; i < itemList.size(); ++i) {
+            for (int j = i + 1; j < itemList.size(); ++j) {
+                final int count = pairCounter.getCount(i, j);
+                
+                if (1.0 * count / transactionAmount >= minimumSupport) {
+                    final Set<I> pair = new HashSet<>(2);
+                    pair.add(itemList.get(i));
+                    pair.add(itemList.get(j));
+                    supportCountFunction.increaseSupportCount(pair, count);
+                    ret.add(pair);
+                }
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Counts the pairs of frequent items in <code>transaction</code>.
+     * 
+     * @param pairCounter the pair counter.
+     * @param rankMap     the map from frequent items to their ranks.
+     * @param transaction the transaction.
+     * @param weight      the weight of the transaction.
+     */
+    private static <I> void countPairs(final TriangularPairCounter pairCounter,
+                                       final Map<I, Integer> rankMap,
+                                       final Set<I> transaction,
+                                       final int weight) {
+        final int[] ranks = new int[transaction.size()];
+        int length = 0;
+        
+        for (final I item : transaction) {
+            final Integer rank = rankMap.get(item);
+            
+            if (rank != null) {
+                ranks[length++] = rank;
+            }
+        }
+        
+        Arrays.sort(ranks, 0, length);
+        pairCounter.count(ranks, length, weight);
+    }
+    
+    /**
+     * Counts the candidates in <code>candidateTrie</code> in the fork-join 
+     * pool. The transactions are partitioned by splitting their spliterator,
+     * so a lazy view is split by index ranges instead of being copied.
+     * 
+     * @param candidateTrie        the candidates.
+     * @param transactions         the transactions.
+     * @param weightedTransactions the weighted baskets, or <code>null</code>
+     *                             if deduplication is off.
+     */
+    private void countInParallel(
+            final CandidateTrie<I> candidateTrie,
+            final Collection<Set<I>> transactions,
+            final Map<Set<I>, Integer> weightedTransactions) {
+        final int partitionAmount = pool.getParallelism();
+        final List<CountTask<I>> taskList = new ArrayList<>(partitionAmount);
+        
+        if (weightedTransactions != null) {
+            for (final Spliterator<Map.Entry<Set<I>, Integer>> spliterator
+                    : split(weightedTransactions.entrySet().spliterator(),
+                            partitionAmount)) {
+                taskList.add(new CountTask<>(candidateTrie, 
+                                             null, 
+                                             spliterator));
+            }
+        } else {
+            for (final Spliterator<Set<I>> spliterator 
+                    : split(transactions.spliterator(), partitionAmount)) {
+                taskList.add(new CountTask<>(candidateTrie, 
+                                             spliterator, 
+                                             null));
+            }
+        }
+        
+        pool.invoke(new RecursiveAction() {
+            
+            @Override
+            protected void compute() {
+                invokeAll(taskList);
+            }
+        });
+        
+        for (final CountTask<I> task : taskList) {
+            candidateTrie.addCounts(task.counts);
+        }
+    }
+    
+    /**
+     * Splits <code>spliterator</code> into at most <code>amount</code> 
+     * spliterators by splitting the largest one as long as it splits.
+     * 
+     * @param  spliterator the spliterator to split.
+     * @param  amount      the maximum amount of spliterators.
+     * @return the list of spliterators covering the elements.
+     */
+    private static <T> List<Spliterator<T>> split(
+            final Spliterator<T> spliterator,
+            final int amount) {
+        final List<Spliterator<T>> ret = new ArrayList<>(amount);
+        ret.add(spliterator);
+        
+        while (ret.size() < amount) {
+            int largest = 0;
+            
+            for (int i = 1; i < ret.size(); ++i) {
+                if (ret.get(i).estimateSize() 
+                        > ret.get(largest).estimateSize()) {
+                    largest = i;
+                }
+            }
+            
+            final Spliterator<T> prefix = ret.get(largest).trySplit();
+            
+            if (prefix == null) {
+                break;
+            }
+            
+            ret.add(prefix);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * This task counts the candidates over a part of the transactions or of 
+     * the weighted baskets.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class CountTask<I> extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The candidates.
+         */
+        private final CandidateTrie<I> candidateTrie;
+        
+        /**
+         * The transactions of this task, or <code>null</code> if it counts 
+         * weighted baskets.
+         */
+        private final Spliterator<Set<I>> transactions;
+        
+        /**
+         * The weighted baskets of this task, or <code>null</code> if it counts
+         * transactions.
+         */
+        private final Spliterator<Map.Entry<Set<I>, Integer>> 
+                weightedTransactions;
+        
+        /**
+         * The counts of this task indexed by candidate.
+         */
+        private final int[] counts;
+        
+        CountTask(final CandidateTrie<I> candidateTrie,
+                  final Spliterator<Set<I>> transactions,
+                  final Spliterator<Map.Entry<Set<I>, Integer>> 
+                          weightedTransactions) {
+            this.candidateTrie = candidateTrie;
+            this.transactions = transactions;
+            this.weightedTransactions = weightedTransactions;
+            this.counts = new int[candidateTrie.size()];
+        }
+        
+        @Override
+        protected void compute() {
+            if (weightedTransactions != null) {
+                weightedTransactions.forEachRemaining(
+                        new Consumer<Map.Entry<Set<I>, Integer>>() {
+                    
+                    @Override
+                    public void accept(final Map.Entry<Set<I>, Integer> e) {
+                        candidateTrie.count(e.getKey(), e.getValue(), counts);
+                    }
+                });
+            } else {
+                transactions.forEachRemaining(new Consumer<Set<I>>() {
+                    
+                    @Override
+                    public void accept(final Set<I> transaction) {
+                        candidateTrie.count(transaction, 1, counts);
+                    }
+                });
+            }
+        }
     }
 }
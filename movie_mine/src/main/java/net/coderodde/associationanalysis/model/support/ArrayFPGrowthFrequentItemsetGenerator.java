@@ -0,0 +1,504 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements the FPGrowth* variant of the FP-growth algorithm for
+ * frequent itemset generation. The FP-trees are stored in flat integer arrays
+ * over item ranks, and the conditional tree of an item is built directly
+ * from its conditional pattern base by walking the parent pointers of its
+ * nodes, so no tree is ever cloned or pruned. While a tree is built, an
+ * FP-array counts the support of each pair of its items, which gives the
+ * frequent items of each conditional tree without scanning its pattern base.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class ArrayFPGrowthFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * Indicates whether the trees count the pairs of their items in an
+     * FP-array.
+     */
+    private boolean fpArrayCounting = true;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     */
+    public ArrayFPGrowthFrequentItemsetGenerator(
+            final Comparator<I> comparator) {
+        super(comparator);
+    }
+    
+    /**
+     * Returns <code>true</code> if the trees count the pairs of their items
+     * in an FP-array.
+     * 
+     * @return <code>true</code> if FP-arrays are used.
+     */
+    public boolean isFPArrayCounting() {
+        return fpArrayCounting;
+    }
+    
+    /**
+     * Sets whether the trees count the pairs of their items in an FP-array.
+     * Without it, the frequent items of each conditional tree are counted
+     * from its conditional pattern base, which saves the quadratic memory of
+     * the arrays on trees with many items. Trees with more than
+     * {@link TriangularPairCounter#MAXIMUM_ITEM_AMOUNT} items never use an
+     * FP-array.
+     * 
+     * @param fpArrayCounting whether to use FP-arrays.
+     */
+    public void setFPArrayCounting(final boolean fpArrayCounting) {
+        this.fpArrayCounting = fpArrayCounting;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final Map<I, Integer> countMap = new HashMap<>();
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            for (final I item : transaction) {
+                final Integer count = countMap.get(item);
+                countMap.put(item, count == null ? 1 : count + 1);
+            }
+            
+            ++transactionAmount;
+        }
+        
+        final int minimumCount = getMinimumSupportCount(minimumSupport,
+                                                        transactionAmount);
+        final List<I> itemList = new ArrayList<>();
+        
+        for (final Map.Entry<I, Integer> e : countMap.entrySet()) {
+            if (e.getValue() >= minimumCount) {
+                itemList.add(e.getKey());
+            }
+        }
+        
+        // The most frequent items get the smallest ranks, which places them
+        // near the root and maximizes the sharing of prefixes.
+        Collections.sort(itemList, new Comparator<I>() {
+            
+            @Override
+            public int compare(final I o1, final I o2) {
+                final int count1 = countMap.get(o1);
+                final int count2 = countMap.get(o2);
+                return count1 != count2 ?
+                       Integer.compare(count2, count1) :
+                       itemComparator.compare(o1, o2);
+            }
+        });
+        
+        final Map<I, Integer> rankMap = new HashMap<>();
+        
+        for (int rank = 0; rank < itemList.size(); ++rank) {
+            rankMap.put(itemList.get(rank), rank);
+        }
+        
+        final ArrayFPTree tree = new ArrayFPTree(itemList.size(),
+                                                 fpArrayCounting);
+        final int[] ranks = new int[itemList.size()];
+        
+        for (final Map.Entry<Set<I>, Integer> e
+                : collapseTransactions(transactions,
+                                       rankMap.keySet()).entrySet()) {
+            int length = 0;
+            
+            for (final I item : e.getKey()) {
+                ranks[length++] = rankMap.get(item);
+            }
+            
+            Arrays.sort(ranks, 0, length);
+            tree.addTransaction(ranks, length, e.getValue());
+        }
+        
+        final int[] itemIndices = new int[itemList.size()];
+        
+        for (int rank = 0; rank < itemIndices.length; ++rank) {
+            itemIndices[rank] = rank;
+        }
+        
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        final List<Set<I>> frequentItemsetList = new ArrayList<>();
+        
+        fpGrowth(tree,
+                 itemIndices,
+                 itemList,
+                 new ArrayList<I>(),
+                 minimumCount,
+                 frequentItemsetList,
+                 supportCountFunction);
+        
+        return new FrequentItemsetData<>(frequentItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Reports each frequent item of <code>tree</code> appended to
+     * <code>prefix</code> and mines the conditional tree of the item
+     * recursively.
+     * 
+     * @param tree                 the (conditional) FP-tree.
+     * @param itemIndices          maps the ranks of the tree to the indices
+     *                             of <code>itemList</code>.
+     * @param itemList             the list of all frequent items.
+     * @param prefix               the items the tree is conditioned on.
+     * @param minimumCount         the minimum support count.
+     * @param frequentItemsetList  the list of frequent itemsets.
+     * @param supportCountFunction the support count function.
+     */
+    private void fpGrowth(final ArrayFPTree tree,
+                          final int[] itemIndices,
+                          final List<I> itemList,
+                          final List<I> prefix,
+                          final int minimumCount,
+                          final List<Set<I>> frequentItemsetList,
+                          final AprioriSupportCountFunction<I>
+                                  supportCountFunction) {
+        for (int rank = tree.itemAmount - 1; rank >= 0; --rank) {
+            if (tree.itemCounts[rank] < minimumCount) {
+                continue;
+            }
+            
+            final I item = itemList.get(itemIndices[rank]);
+            final Set<I> itemset = new HashSet<>(prefix);
+            itemset.add(item);
+            frequentItemsetList.add(itemset);
+            supportCountFunction.putSupportCount(itemset,
+                                                 tree.itemCounts[rank]);
+            
+            final int[] conditionalCounts = tree.getConditionalCounts(rank);
+            final int[] conditionalRanks = new int[rank];
+            int conditionalItemAmount = 0;
+            
+            for (int r = 0; r < rank; ++r) {
+                conditionalRanks[r] = conditionalCounts[r] >= minimumCount ?
+                                      conditionalItemAmount++ :
+                                      -1;
+            }
+            
+            if (conditionalItemAmount == 0) {
+                continue;
+            }
+            
+            final int[] conditionalItemIndices =
+                    new int[conditionalItemAmount];
+            
+            for (int r = 0; r < rank; ++r) {
+                if (conditionalRanks[r] >= 0) {
+                    conditionalItemIndices[conditionalRanks[r]] =
+                            itemIndices[r];
+                }
+            }
+            
+            final ArrayFPTree conditionalTree =
+                    tree.getConditionalTree(rank,
+                                            conditionalRanks,
+                                            conditionalItemAmount);
+            prefix.add(item);
+            fpGrowth(conditionalTree,
+                     conditionalItemIndices,
+                     itemList,
+                     prefix,
+                     minimumCount,
+                     frequentItemsetList,
+                     supportCountFunction);
+            prefix.remove(prefix.size() - 1);
+        }
+    }
+    
+    /**
+     * This class implements an FP-tree over the item ranks
+     * <tt>0, 1, ..., n - 1</tt> whose nodes are stored in parallel arrays.
+     * The ranks along each path from the root increase.
+     */
+    private static final class ArrayFPTree {
+        
+        /**
+         * Marks a missing node.
+         */
+        private static final int NONE = -1;
+        
+        /**
+         * The amount of items.
+         */
+        private final int itemAmount;
+        
+        /**
+         * The support count of each item.
+         */
+        private final int[] itemCounts;
+        
+        /**
+         * The first node of each item in the header table.
+         */
+        private final int[] heads;
+        
+        /**
+         * The child of the root for each item.
+         */
+        private final int[] rootChildren;
+        
+        /**
+         * The FP-array counting the pairs of items, or <code>null</code> if
+         * there are too many items to count all their pairs.
+         */
+        private final TriangularPairCounter pairCounter;
+        
+        /**
+         * The item rank of each node.
+         */
+        private int[] nodeItems;
+        
+        /**
+         * The count of each node.
+         */
+        private int[] nodeCounts;
+        
+        /**
+         * The parent of each node.
+         */
+        private int[] nodeParents;
+        
+        /**
+         * The first child of each node.
+         */
+        private int[] nodeChildren;
+        
+        /**
+         * The next sibling of each node.
+         */
+        private int[] nodeSiblings;
+        
+        /**
+         * The next node of the same item.
+         */
+        private int[] nodeLinks;
+        
+        /**
+         * The amount of nodes.
+         */
+        private int nodeAmount;
+        
+        ArrayFPTree(final int itemAmount, final boolean fpArrayCounting) {
+            this.itemAmount = itemAmount;
+            this.itemCounts = new int[itemAmount];
+            this.heads = new int[itemAmount];
+            this.rootChildren = new int[itemAmount];
+            this.pairCounter =
+                    fpArrayCounting
+                    && itemAmount > 1
+                    && itemAmount <= TriangularPairCounter.MAXIMUM_ITEM_AMOUNT ?
+                    new TriangularPairCounter(itemAmount) :
+                    null;
+            
+            Arrays.fill(heads, NONE);
+            Arrays.fill(rootChildren, NONE);
+            
+            final int capacity = 16;
+            nodeItems = new int[capacity];
+            nodeCounts = new int[capacity];
+            nodeParents = new int[capacity];
+            nodeChildren = new int[capacity];
+            nodeSiblings = new int[capacity];
+            nodeLinks = new int[capacity];
+        }
+        
+        /**
+         * Inserts the path of the first <code>length</code> ranks in
+         * <code>ranks</code>, sorted in ascending order, with the given
+         * weight.
+         * 
+         * @param ranks  the sorted item ranks of the transaction.
+         * @param length the amount of ranks.
+         * @param weight the weight of the transaction.
+         */
+        void addTransaction(final int[] ranks,
+                            final int length,
+                            final int weight) {
+            int parent = NONE;
+            
+            for (int i = 0; i < length; ++i) {
+                final int rank = ranks[i];
+                int node = parent == NONE ?
+                           rootChildren[rank] :
+                           findChild(parent, rank);
+                
+                if (node == NONE) {
+                    node = addNode(rank, parent);
+                }
+                
+                nodeCounts[node] += weight;
+                itemCounts[rank] += weight;
+                parent = node;
+            }
+            
+            if (pairCounter != null) {
+                pairCounter.count(ranks, length, weight);
+            }
+        }
+        
+        /**
+         * Returns, for each rank below <code>rank</code>, the support count of
+         * the pair of it and <code>rank</code>. The counts are read from the
+         * FP-array if there is one, and are otherwise collected from the
+         * conditional pattern base of <code>rank</code>.
+         * 
+         * @param  rank the item rank.
+         * @return the conditional support counts.
+         */
+        int[] getConditionalCounts(final int rank) {
+            final int[] counts = new int[rank];
+            
+            if (pairCounter != null) {
+                for (int r = 0; r < rank; ++r) {
+                    counts[r] = pairCounter.getCount(r, rank);
+                }
+                
+                return counts;
+            }
+            
+            for (int node = heads[rank]; node != NONE; node = nodeLinks[node]) {
+                for (int p = nodeParents[node]; p != NONE; p = nodeParents[p]) {
+                    counts[nodeItems[p]] += nodeCounts[node];
+                }
+            }
+            
+            return counts;
+        }
+        
+        /**
+         * Builds the conditional tree of <code>rank</code> from its
+         * conditional pattern base: the path above each node of the item,
+         * restricted to the conditionally frequent items and weighted by the
+         * count of the node.
+         * 
+         * @param  rank                  the item rank.
+         * @param  conditionalRanks      maps each rank below <code>rank</code>
+         *                               to its rank in the conditional tree,
+         *                               or to <tt>-1</tt> if it is
+         *                               infrequent.
+         * @param  conditionalItemAmount the amount of conditionally frequent
+         *                               items.
+         * @return the conditional tree.
+         */
+        ArrayFPTree getConditionalTree(final int rank,
+                                       final int[] conditionalRanks,
+                                       final int conditionalItemAmount) {
+            final ArrayFPTree tree = new ArrayFPTree(conditionalItemAmount,
+                                                     pairCounter != null);
+            final int[] path = new int[conditionalItemAmount];
+            
+            for (int node = heads[rank]; node != NONE; node = nodeLinks[node]) {
+                int length = 0;
+                
+                for (int p = nodeParents[node]; p != NONE; p = nodeParents[p]) {
+                    final int conditionalRank = conditionalRanks[nodeItems[p]];
+                    
+                    if (conditionalRank != NONE) {
+                        path[length++] = conditionalRank;
+                    }
+                }
+                
+                // The walk visits the ranks in descending order.
+                for (int i = 0, j = length - 1; i < j; ++i, --j) {
+                    final int tmp = path[i];
+                    path[i] = path[j];
+                    path[j] = tmp;
+                }
+                
+                tree.addTransaction(path, length, nodeCounts[node]);
+            }
+            
+            return tree;
+        }
+        
+        /**
+         * Returns the child of <code>parent</code> holding <code>rank</code>.
+         * 
+         * @param  parent the parent node.
+         * @param  rank   the item rank.
+         * @return the child, or {@link #NONE} if there is none.
+         */
+        private int findChild(final int parent, final int rank) {
+            for (int child = nodeChildren[parent];
+                    child != NONE;
+                    child = nodeSiblings[child]) {
+                if (nodeItems[child] == rank) {
+                    return child;
+                }
+            }
+            
+            return NONE;
+        }
+        
+        /**
+         * Adds a node of <code>rank</code> under <code>parent</code> and links
+         * it to the header table.
+         * 
+         * @param  rank   the item rank.
+         * @param  parent the parent node, or {@link #NONE} for the root.
+         * @return the new node.
+         */
+        private int addNode(final int rank, final int parent) {
+            if (nodeAmount == nodeItems.length) {
+                final int capacity = 2 * nodeAmount;
+                nodeItems = Arrays.copyOf(nodeItems, capacity);
+                nodeCounts = Arrays.copyOf(nodeCounts, capacity);
+                nodeParents = Arrays.copyOf(nodeParents, capacity);
+                nodeChildren = Arrays.copyOf(nodeChildren, capacity);
+                nodeSiblings = Arrays.copyOf(nodeSiblings, capacity);
+                nodeLinks = Arrays.copyOf(nodeLinks, capacity);
+            }
+            
+            final int node = nodeAmount++;
+            nodeItems[node] = rank;
+            nodeCounts[node] = 0;
+            nodeParents[node] = parent;
+            nodeChildren[node] = NONE;
+            
+            if (parent == NONE) {
+                nodeSiblings[node] = NONE;
+                rootChildren[rank] = node;
+            } else {
+                nodeSiblings[node] = nodeChildren[parent];
+                nodeChildren[parent] = node;
+            }
+            
+            nodeLinks[node] = heads[rank];
+            heads[rank] = node;
+            return node;
+        }
+    }
+}
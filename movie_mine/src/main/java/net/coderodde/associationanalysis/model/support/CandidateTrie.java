@@ -0,0 +1,254 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a prefix trie over candidate itemsets of equal size.
+ * Each candidate is stored as the path of its items sorted by the item
+ * comparator, and the leaf at the end of the path holds the index of the
+ * candidate. Counting a transaction walks only the paths spelled by the
+ * sorted items of the transaction, so only the candidates actually contained
+ * in the transaction are ever visited, instead of testing every candidate
+ * against every transaction.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class CandidateTrie<I> {
+    
+    /**
+     * This class implements a node of a candidate trie.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class TrieNode<I> {
+        
+        /**
+         * Maps each item to the child node reached through it.
+         */
+        private final Map<I, TrieNode<I>> childMap = new HashMap<>(4);
+        
+        /**
+         * The index of the candidate ending at this node, or -1 if this node
+         * is not a leaf.
+         */
+        private int candidateIndex = -1;
+    }
+    
+    /**
+     * The root of this trie.
+     */
+    private final TrieNode<I> root;
+    
+    /**
+     * The candidates in order of their indices.
+     */
+    private final List<Set<I>> candidateList;
+    
+    /**
+     * The support count of each candidate.
+     */
+    private final int[] counts;
+    
+    /**
+     * The items appearing in at least one candidate.
+     */
+    private final Set<I> itemSet;
+    
+    /**
+     * The size of each candidate.
+     */
+    private final int candidateSize;
+    
+    /**
+     * The item comparator.
+     */
+    private final Comparator<I> itemComparator;
+    
+    /**
+     * Constructs a trie holding <code>candidates</code>, which all must have
+     * the same size.
+     * 
+     * @param candidates     the candidate itemsets.
+     * @param itemComparator the item comparator.
+     */
+    public CandidateTrie(final Collection<Set<I>> candidates,
+                         final Comparator<I> itemComparator) {
+        checkNotNull(candidates, "The candidate collection is null.");
+        checkNotNull(itemComparator, "The item comparator is null.");
+        this.root = new TrieNode<>();
+        this.candidateList = new ArrayList<>(candidates);
+        this.counts = new int[candidateList.size()];
+        this.itemSet = new HashSet<>();
+        this.itemComparator = itemComparator;
+        this.candidateSize = candidateList.isEmpty() ?
+                             0 :
+                             candidateList.get(0).size();
+        
+        for (int i = 0; i < candidateList.size(); ++i) {
+            final Set<I> candidate = candidateList.get(i);
+            
+            if (candidate.size() != candidateSize || candidateSize == 0) {
+                throw new IllegalArgumentException(
+                        "The candidates must be non-empty and of equal " +
+                        "size.");
+            }
+            
+            final List<I> items = new ArrayList<>(candidate);
+            Collections.sort(items, itemComparator);
+            TrieNode<I> node = root;
+            
+            for (final I item : items) {
+                TrieNode<I> child = node.childMap.get(item);
+                
+                if (child == null) {
+                    child = new TrieNode<>();
+                    node.childMap.put(item, child);
+                }
+                
+                node = child;
+            }
+            
+            node.candidateIndex = i;
+            itemSet.addAll(candidate);
+        }
+    }
+    
+    /**
+     * Adds <code>weight</code> to the count of every candidate contained in
+     * <code>transaction</code>.
+     * 
+     * @param transaction the transaction.
+     * @param weight      the weight of the transaction.
+     */
+    public void count(final Set<I> transaction, final int weight) {
+        count(transaction, weight, counts);
+    }
+    
+    /**
+     * Adds <code>weight</code> to the entry of <code>counts</code> of every 
+     * candidate contained in <code>transaction</code>, leaving the counts of
+     * this trie intact. Since the trie itself is not modified, several 
+     * threads may count into their own arrays concurrently.
+     * 
+     * @param transaction the transaction.
+     * @param weight      the weight of the transaction.
+     * @param counts      the array of counts indexed by candidate index.
+     */
+    @SuppressWarnings("unchecked")
+    public void count(final Set<I> transaction, 
+                      final int weight, 
+                      final int[] counts) {
+        if (transaction.size() < candidateSize || candidateSize == 0) {
+            return;
+        }
+        
+        // Items outside of all candidates cannot start or extend any path.
+        final Object[] items = new Object[transaction.size()];
+        int length = 0;
+        
+        for (final I item : transaction) {
+            if (itemSet.contains(item)) {
+                items[length++] = item;
+            }
+        }
+        
+        if (length < candidateSize) {
+            return;
+        }
+        
+        Arrays.sort(items, 0, length, (Comparator<Object>) itemComparator);
+        count(root, items, 0, length, candidateSize, weight, counts);
+    }
+    
+    /**
+     * Adds <code>counts</code>, indexed by candidate index, to the counts of
+     * this trie.
+     * 
+     * @param counts the array of counts to add.
+     */
+    public void addCounts(final int[] counts) {
+        for (int i = 0; i < this.counts.length; ++i) {
+            this.counts[i] += counts[i];
+        }
+    }
+    
+    /**
+     * Returns the candidates in order of their indices.
+     * 
+     * @return the unmodifiable list of candidates.
+     */
+    public List<Set<I>> getCandidateList() {
+        return Collections.unmodifiableList(candidateList);
+    }
+    
+    /**
+     * Returns the count of the <code>index</code>th candidate.
+     * 
+     * @param  index the index of the candidate.
+     * @return the count of the candidate.
+     */
+    public int getCount(final int index) {
+        return counts[index];
+    }
+    
+    /**
+     * Returns the amount of candidates in this trie.
+     * 
+     * @return the amount of candidates.
+     */
+    public int size() {
+        return candidateList.size();
+    }
+    
+    /**
+     * Walks all the paths below <code>node</code> spelled by the items
+     * <code>items[from], ..., items[length - 1]</code> in ascending order,
+     * descending <code>remaining</code> more levels.
+     * 
+     * @param node      the current node.
+     * @param items     the sorted items of the transaction.
+     * @param from      the index of the first item to try.
+     * @param length    the amount of items.
+     * @param remaining the amount of levels left to descend.
+     * @param weight    the weight of the transaction.
+     * @param counts    the array of counts.
+     */
+    @SuppressWarnings("unchecked")
+    private void count(final TrieNode<I> node,
+                       final Object[] items,
+                       final int from,
+                       final int length,
+                       final int remaining,
+                       final int weight,
+                       final int[] counts) {
+        // Leave room for the remaining - 1 deeper items.
+        final int last = length - remaining;
+        
+        for (int i = from; i <= last; ++i) {
+            final TrieNode<I> child = node.childMap.get((I) items[i]);
+            
+            if (child == null) {
+                continue;
+            }
+            
+            if (remaining == 1) {
+                counts[child.candidateIndex] += weight;
+            } else {
+                count(child, items, i + 1, length, remaining - 1, weight, 
+                      counts);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements the CHARM algorithm for closed frequent itemset
+ * generation. An itemset is closed if none of its proper supersets has the
+ * same support. The search runs over tidsets like Eclat, but whenever the
+ * tidset of an itemset <tt>X</tt> is contained in that of a sibling
+ * <tt>Y</tt>, every closed itemset containing <tt>X</tt> contains <tt>Y</tt>
+ * too, so <tt>Y</tt> is merged into <tt>X</tt> instead of spawning its own
+ * branch. A closed itemset found in a later branch may still be contained in
+ * an earlier one with the same support, which is checked before reporting.
+ * <p>
+ * The returned data lists the closed itemsets only. Its support count
+ * function is a {@link ClosedSupportCountFunction}, which still gives the
+ * support count of any frequent itemset.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class CharmFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * This class represents an itemset with its tidset.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class Node<I> {
+        
+        /**
+         * The items of the itemset.
+         */
+        private final Set<I> itemset;
+        
+        /**
+         * The sorted tids of the itemset.
+         */
+        private final int[] tids;
+        
+        /**
+         * Whether the itemset was merged into a sibling.
+         */
+        private boolean removed;
+        
+        Node(final Set<I> itemset, final int[] tids) {
+            this.itemset = itemset;
+            this.tids = tids;
+        }
+    }
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     */
+    public CharmFrequentItemsetGenerator(final Comparator<I> comparator) {
+        super(comparator);
+    }
+    
+    /**
+     * Mines the closed frequent itemsets from the transaction list. A frequent
+     * itemset is any itemset having support at least
+     * <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the closed frequent itemsets and the
+     *         support counts of all frequent itemsets.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final Map<I, int[]> tidMap = new HashMap<>();
+        final Map<I, Integer> lengthMap = new HashMap<>();
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            for (final I item : transaction) {
+                int[] tids = tidMap.get(item);
+                final Integer length = lengthMap.get(item);
+                final int n = length == null ? 0 : length;
+                
+                if (tids == null) {
+                    tids = new int[4];
+                    tidMap.put(item, tids);
+                } else if (n == tids.length) {
+                    tids = Arrays.copyOf(tids, 2 * n);
+                    tidMap.put(item, tids);
+                }
+                
+                tids[n] = transactionAmount;
+                lengthMap.put(item, n + 1);
+            }
+            
+            ++transactionAmount;
+        }
+        
+        final int minimumCount = getMinimumSupportCount(minimumSupport,
+                                                        transactionAmount);
+        final List<Node<I>> nodeList = new ArrayList<>();
+        
+        for (final Map.Entry<I, int[]> e : tidMap.entrySet()) {
+            final int length = lengthMap.get(e.getKey());
+            
+            if (length >= minimumCount) {
+                final Set<I> itemset = new HashSet<>();
+                itemset.add(e.getKey());
+                nodeList.add(new Node<>(itemset,
+                                        Arrays.copyOf(e.getValue(), length)));
+            }
+        }
+        
+        final ClosedSupportCountFunction<I> supportCountFunction =
+                new ClosedSupportCountFunction<>(transactionAmount);
+        final List<Set<I>> closedItemsetList = new ArrayList<>();
+        
+        charmExtend(nodeList,
+                    minimumCount,
+                    new HashMap<Long, List<Node<I>>>(),
+                    closedItemsetList,
+                    supportCountFunction);
+        
+        return new FrequentItemsetData<>(closedItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Extends each itemset in <code>nodeList</code> by its siblings after it
+     * and reports the closed itemsets found.
+     * 
+     * @param nodeList             the sibling itemsets sharing a prefix.
+     * @param minimumCount         the minimum support count.
+     * @param closedMap            maps the tid sums of the closed itemsets
+     *                             found so far to their nodes.
+     * @param closedItemsetList    the list of closed itemsets.
+     * @param supportCountFunction the support count function.
+     */
+    private void charmExtend(final List<Node<I>> nodeList,
+                             final int minimumCount,
+                             final Map<Long, List<Node<I>>> closedMap,
+                             final List<Set<I>> closedItemsetList,
+                             final ClosedSupportCountFunction<I>
+                                     supportCountFunction) {
+        sortNodes(nodeList);
+        
+        for (int i = 0; i < nodeList.size(); ++i) {
+            final Node<I> node = nodeList.get(i);
+            
+            if (node.removed) {
+                continue;
+            }
+            
+            final Set<I> itemset = new HashSet<>(node.itemset);
+            final List<Node<I>> childList = new ArrayList<>();
+            final int[] buffer = new int[node.tids.length];
+            
+            for (int j = i + 1; j < nodeList.size(); ++j) {
+                final Node<I> other = nodeList.get(j);
+                
+                if (other.removed) {
+                    continue;
+                }
+                
+                final int length =
+                        EclatFrequentItemsetGenerator.intersect(
+                                node.tids,
+                                node.tids.length,
+                                other.tids,
+                                other.tids.length,
+                                buffer);
+                
+                if (length < minimumCount) {
+                    continue;
+                }
+                
+                final boolean nodeCovered = length == node.tids.length;
+                final boolean otherCovered = length == other.tids.length;
+                
+                if (nodeCovered) {
+                    // Every transaction of the itemset contains the other one.
+                    itemset.addAll(other.itemset);
+                    other.removed = otherCovered;
+                } else {
+                    // If the other itemset only occurs with this one, it
+                    // lives on in the child alone.
+                    other.removed = otherCovered;
+                    childList.add(new Node<>(new HashSet<>(other.itemset),
+                                             Arrays.copyOf(buffer, length)));
+                }
+            }
+            
+            if (!childList.isEmpty()) {
+                // The prefix is final only now, so prepend it to the children.
+                for (final Node<I> child : childList) {
+                    child.itemset.addAll(itemset);
+                }
+                
+                charmExtend(childList,
+                            minimumCount,
+                            closedMap,
+                            closedItemsetList,
+                            supportCountFunction);
+            }
+            
+            addIfClosed(new Node<>(itemset, node.tids),
+                        closedMap,
+                        closedItemsetList,
+                        supportCountFunction);
+        }
+    }
+    
+    /**
+     * Reports <code>node</code>'s itemset unless a closed itemset found
+     * earlier contains it and has the same tidset.
+     * 
+     * @param node                 the candidate closed itemset.
+     * @param closedMap            maps the tid sums of the closed itemsets
+     *                             found so far to their nodes.
+     * @param closedItemsetList    the list of closed itemsets.
+     * @param supportCountFunction the support count function.
+     */
+    private void addIfClosed(final Node<I> node,
+                             final Map<Long, List<Node<I>>> closedMap,
+                             final List<Set<I>> closedItemsetList,
+                             final ClosedSupportCountFunction<I>
+                                     supportCountFunction) {
+        long tidSum = 0L;
+        
+        for (final int tid : node.tids) {
+            tidSum += tid;
+        }
+        
+        // Equal tidsets have equal sums, so the sum buckets the candidates.
+        List<Node<I>> bucket = closedMap.get(tidSum);
+        
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            closedMap.put(tidSum, bucket);
+        }
+        
+        for (final Node<I> closed : bucket) {
+            if (closed.tids.length == node.tids.length
+                    && closed.itemset.containsAll(node.itemset)) {
+                return;
+            }
+        }
+        
+        bucket.add(node);
+        closedItemsetList.add(node.itemset);
+        supportCountFunction.putSupportCount(node.itemset, node.tids.length);
+    }
+    
+    /**
+     * Sorts the nodes by ascending support, which lets the rarer itemsets
+     * absorb the more frequent ones as early as possible.
+     * 
+     * @param nodeList the nodes to sort.
+     */
+    private void sortNodes(final List<Node<I>> nodeList) {
+        final Map<Node<I>, List<I>> itemListMap = new HashMap<>();
+        
+        for (final Node<I> node : nodeList) {
+            final List<I> itemList = new ArrayList<>(node.itemset);
+            Collections.sort(itemList, itemComparator);
+            itemListMap.put(node, itemList);
+        }
+        
+        Collections.sort(nodeList, new Comparator<Node<I>>() {
+            
+            @Override
+            public int compare(final Node<I> o1, final Node<I> o2) {
+                if (o1.tids.length != o2.tids.length) {
+                    return Integer.compare(o1.tids.length, o2.tids.length);
+                }
+                
+                final List<I> list1 = itemListMap.get(o1);
+                final List<I> list2 = itemListMap.get(o2);
+                
+                for (int i = 0; i < Math.min(list1.size(), list2.size()); ++i) {
+                    final int cmp = itemComparator.compare(list1.get(i),
+                                                           list2.get(i));
+                    
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                
+                return Integer.compare(list1.size(), list2.size());
+            }
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractSupportCountFunction;
+
+/**
+ * This class implements a support count function over closed itemsets. Only
+ * the support counts of the closed itemsets are stored. The support count of
+ * any other itemset is the largest support count of its closed supersets, or
+ * zero if it has none, that is, if it is not frequent.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class ClosedSupportCountFunction<I>
+extends AbstractSupportCountFunction<I> {
+    
+    /**
+     * The map mapping each closed itemset to its support count.
+     */
+    private final Map<Set<I>, Integer> map;
+    
+    /**
+     * The map mapping each item to the closed itemsets containing it.
+     */
+    private final Map<I, List<Set<I>>> itemMap;
+    
+    /**
+     * Constructs this support count function.
+     * 
+     * @param transactionAmount the amount of transactions covered.
+     */
+    public ClosedSupportCountFunction(final int transactionAmount) {
+        super(transactionAmount);
+        this.map = new HashMap<>();
+        this.itemMap = new HashMap<>();
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @param  itemset the target itemset.
+     * @return the support count of the target itemset.
+     */
+    @Override
+    public int getSupportCount(final Set<I> itemset) {
+        final Integer supportCount = map.get(itemset);
+        
+        if (supportCount != null) {
+            return supportCount;
+        }
+        
+        if (itemset.isEmpty()) {
+            return transactionAmount;
+        }
+        
+        // Every closed superset contains each item of the itemset, so it is
+        // enough to scan the shortest list.
+        List<Set<I>> closedList = null;
+        
+        for (final I item : itemset) {
+            final List<Set<I>> list = itemMap.get(item);
+            
+            if (list == null) {
+                return 0;
+            }
+            
+            if (closedList == null || closedList.size() > list.size()) {
+                closedList = list;
+            }
+        }
+        
+        int ret = 0;
+        
+        for (final Set<I> closed : closedList) {
+            final int count = map.get(closed);
+            
+            if (count > ret && closed.containsAll(itemset)) {
+                ret = count;
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @param itemset      the closed itemset.
+     * @param supportCount the support count of the closed itemset.
+     */
+    @Override
+    public void putSupportCount(final Set<I> itemset,
+                                final int supportCount) {
+        if (map.put(itemset, supportCount) != null) {
+            return;
+        }
+        
+        for (final I item : itemset) {
+            List<Set<I>> list = itemMap.get(item);
+            
+            if (list == null) {
+                list = new ArrayList<>();
+                itemMap.put(item, list);
+            }
+            
+            list.add(itemset);
+        }
+    }
+}
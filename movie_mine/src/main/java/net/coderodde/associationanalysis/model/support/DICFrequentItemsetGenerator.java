@@ -0,0 +1,410 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements the Dynamic Itemset Counting (DIC) algorithm for
+ * frequent itemset generation. The transactions are scanned cyclically in
+ * blocks of a given size, and a checkpoint follows each block. An itemset
+ * whose count reaches the minimum support count at a checkpoint is suspected
+ * frequent, and each superset one item larger whose subsets are all suspected
+ * frequent starts being counted right away instead of waiting for the next
+ * scan. An itemset is complete once it has been counted over all the
+ * transactions, and the mining ends when no itemset is being counted. Hence
+ * itemsets of several sizes are counted during the same scan, and the total
+ * amount of scans is usually much smaller than the amount of levels Apriori
+ * needs.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class DICFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * This class holds the counting state of an itemset.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class Counter<I> {
+        
+        /**
+         * The itemset being counted.
+         */
+        private final Set<I> itemset;
+        
+        /**
+         * The support count so far.
+         */
+        private int count;
+        
+        /**
+         * The amount of transactions counted so far.
+         */
+        private int seen;
+        
+        /**
+         * Indicates whether the itemset is suspected or known to be frequent.
+         */
+        private boolean boxed;
+        
+        Counter(final Set<I> itemset, final int seen) {
+            this.itemset = itemset;
+            this.seen = seen;
+        }
+    }
+    
+    /**
+     * The amount of transactions between two checkpoints.
+     */
+    private final int blockSize;
+    
+    /**
+     * The amount of scans over the transactions the last run took.
+     */
+    private double passAmount;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     * @param blockSize  the amount of transactions between two checkpoints.
+     */
+    public DICFrequentItemsetGenerator(final Comparator<I> comparator,
+                                       final int blockSize) {
+        super(comparator);
+        
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(
+                    "The block size must be positive: " + blockSize);
+        }
+        
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * Returns the amount of scans over the transactions the last run took.
+     * The amount is fractional, since the last scan usually stops at a
+     * checkpoint.
+     * 
+     * @return the amount of passes.
+     */
+    public double getPassAmount() {
+        return passAmount;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final List<Set<I>> transactionList =
+                transactions instanceof List
+                && transactions instanceof RandomAccess ?
+                (List<Set<I>>) transactions :
+                new ArrayList<>(transactions);
+        final int transactionAmount = transactionList.size();
+        final Map<Set<I>, Counter<I>> counterMap = new HashMap<>();
+        final Map<I, Counter<I>> itemCounterMap = new HashMap<>();
+        final List<Counter<I>> boxedItemList = new ArrayList<>();
+        List<Counter<I>> activeList = new ArrayList<>();
+        final List<List<Counter<I>>> counterLists = new ArrayList<>();
+        final List<CandidateTrie<I>> trieList = new ArrayList<>();
+        long processed = 0L;
+        int position = 0;
+        
+        // New items only appear during the first scan, where every item is
+        // counted from the first transaction on.
+        while (transactionAmount > 0
+                && (processed < transactionAmount || !activeList.isEmpty())) {
+            final int end = Math.min(position + blockSize, transactionAmount);
+            
+            countBlock(transactionList,
+                       position,
+                       end,
+                       processed < transactionAmount,
+                       activeList,
+                       counterLists,
+                       trieList,
+                       counterMap,
+                       itemCounterMap);
+            
+            processed += end - position;
+            position = end == transactionAmount ? 0 : end;
+            
+            // The checkpoint.
+            final List<Counter<I>> newBoxList = new ArrayList<>();
+            final List<Counter<I>> nextActiveList = new ArrayList<>();
+            boolean trieChanged = false;
+            
+            for (final Counter<I> counter : activeList) {
+                if (!counter.boxed
+                        && isFrequent(counter.count,
+                                      minimumSupport,
+                                      transactionAmount)) {
+                    counter.boxed = true;
+                    newBoxList.add(counter);
+                    
+                    if (counter.itemset.size() == 1) {
+                        boxedItemList.add(counter);
+                    }
+                }
+                
+                if (counter.seen < transactionAmount) {
+                    nextActiveList.add(counter);
+                } else {
+                    trieChanged |= counter.itemset.size() > 1;
+                }
+            }
+            
+            activeList = nextActiveList;
+            
+            for (final Counter<I> counter : newBoxList) {
+                trieChanged |= addSupersets(counter,
+                                            boxedItemList,
+                                            counterMap,
+                                            activeList);
+            }
+            
+            if (trieChanged) {
+                buildTries(activeList, counterLists, trieList);
+            }
+        }
+        
+        passAmount = transactionAmount == 0 ?
+                     0.0 :
+                     1.0 * processed / transactionAmount;
+        
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        final List<Set<I>> frequentItemsetList = new ArrayList<>();
+        
+        for (final Counter<I> counter : counterMap.values()) {
+            if (isFrequent(counter.count, minimumSupport, transactionAmount)) {
+                frequentItemsetList.add(counter.itemset);
+                supportCountFunction.putSupportCount(counter.itemset,
+                                                     counter.count);
+            }
+        }
+        
+        return new FrequentItemsetData<>(frequentItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Rebuilds the {@link CandidateTrie} of each size over the active
+     * itemsets with more than one item. The tries are kept between the
+     * checkpoints and only rebuilt when such itemsets are added or retired.
+     * 
+     * @param activeList   the counters of the itemsets being counted.
+     * @param counterLists the counters of each trie, in candidate order.
+     * @param trieList     the tries.
+     */
+    private void buildTries(final List<Counter<I>> activeList,
+                            final List<List<Counter<I>>> counterLists,
+                            final List<CandidateTrie<I>> trieList) {
+        final Map<Integer, List<Counter<I>>> sizeMap = new HashMap<>();
+        
+        for (final Counter<I> counter : activeList) {
+            if (counter.itemset.size() > 1) {
+                List<Counter<I>> counterList =
+                        sizeMap.get(counter.itemset.size());
+                
+                if (counterList == null) {
+                    counterList = new ArrayList<>();
+                    sizeMap.put(counter.itemset.size(), counterList);
+                }
+                
+                counterList.add(counter);
+            }
+        }
+        
+        counterLists.clear();
+        trieList.clear();
+        
+        for (final List<Counter<I>> counterList : sizeMap.values()) {
+            final List<Set<I>> itemsetList =
+                    new ArrayList<>(counterList.size());
+            
+            for (final Counter<I> counter : counterList) {
+                itemsetList.add(counter.itemset);
+            }
+            
+            counterLists.add(counterList);
+            trieList.add(new CandidateTrie<>(itemsetList, itemComparator));
+        }
+    }
+    
+    /**
+     * Counts the active itemsets over the transactions
+     * <code>transactionList[from], ..., transactionList[to - 1]</code>. The
+     * itemsets with more than one item are counted in the tries. During the
+     * first scan, every item is counted as well, and a counter is created for
+     * each item when it is first seen.
+     * 
+     * @param transactionList the transactions.
+     * @param from            the index of the first transaction.
+     * @param to              the index one past the last transaction.
+     * @param firstScan       whether the block belongs to the first scan.
+     * @param activeList      the counters of the itemsets being counted.
+     * @param counterLists    the counters of each trie, in candidate order.
+     * @param trieList        the tries.
+     * @param counterMap      the map from itemsets to their counters.
+     * @param itemCounterMap  the map from items to their counters.
+     */
+    private void countBlock(final List<Set<I>> transactionList,
+                            final int from,
+                            final int to,
+                            final boolean firstScan,
+                            final List<Counter<I>> activeList,
+                            final List<List<Counter<I>>> counterLists,
+                            final List<CandidateTrie<I>> trieList,
+                            final Map<Set<I>, Counter<I>> counterMap,
+                            final Map<I, Counter<I>> itemCounterMap) {
+        // The counts of this block only, as the tries outlive it.
+        final int[][] blockCounts = new int[trieList.size()][];
+        
+        for (int t = 0; t < trieList.size(); ++t) {
+            blockCounts[t] = new int[trieList.get(t).size()];
+        }
+        
+        for (int i = from; i < to; ++i) {
+            final Set<I> transaction = transactionList.get(i);
+            
+            if (firstScan) {
+                for (final I item : transaction) {
+                    Counter<I> counter = itemCounterMap.get(item);
+                    
+                    if (counter == null) {
+                        final Set<I> itemset = new HashSet<>(1);
+                        itemset.add(item);
+                        counter = new Counter<>(itemset, from);
+                        itemCounterMap.put(item, counter);
+                        counterMap.put(itemset, counter);
+                        activeList.add(counter);
+                    }
+                    
+                    ++counter.count;
+                }
+            }
+            
+            for (int t = 0; t < trieList.size(); ++t) {
+                trieList.get(t).count(transaction, 1, blockCounts[t]);
+            }
+        }
+        
+        for (final Counter<I> counter : activeList) {
+            counter.seen += to - from;
+        }
+        
+        for (int t = 0; t < trieList.size(); ++t) {
+            final List<Counter<I>> counterList = counterLists.get(t);
+            
+            for (int i = 0; i < counterList.size(); ++i) {
+                counterList.get(i).count += blockCounts[t][i];
+            }
+        }
+    }
+    
+    /**
+     * Starts counting each superset of <code>counter</code>'s itemset one item
+     * larger, whose subsets of the same size as the itemset are all suspected
+     * or known to be frequent.
+     * 
+     * @param counter       the counter of a newly boxed itemset.
+     * @param boxedItemList the counters of the boxed items.
+     * @param counterMap    the map from itemsets to their counters.
+     * @param activeList    the counters of the itemsets being counted.
+     * @return <code>true</code> if any superset started being counted.
+     */
+    private boolean addSupersets(final Counter<I> counter,
+                                 final List<Counter<I>> boxedItemList,
+                                 final Map<Set<I>, Counter<I>> counterMap,
+                                 final List<Counter<I>> activeList) {
+        boolean added = false;
+        
+        for (final Counter<I> itemCounter : boxedItemList) {
+            final I item = itemCounter.itemset.iterator().next();
+            
+            if (counter.itemset.contains(item)) {
+                continue;
+            }
+            
+            final Set<I> superset = new HashSet<>(counter.itemset);
+            superset.add(item);
+            
+            if (counterMap.containsKey(superset)
+                    || !hasBoxedSubsets(superset, counterMap)) {
+                continue;
+            }
+            
+            final Counter<I> supersetCounter = new Counter<>(superset, 0);
+            counterMap.put(superset, supersetCounter);
+            activeList.add(supersetCounter);
+            added = true;
+        }
+        
+        return added;
+    }
+    
+    /**
+     * Checks that all subsets of <code>itemset</code> one item smaller are
+     * suspected or known to be frequent.
+     * 
+     * @param  itemset    the itemset.
+     * @param  counterMap the map from itemsets to their counters.
+     * @return <code>true</code> if all the subsets are boxed.
+     */
+    private static <I> boolean
+        hasBoxedSubsets(final Set<I> itemset,
+                        final Map<Set<I>, Counter<I>> counterMap) {
+        final Set<I> subset = new HashSet<>(itemset);
+        
+        for (final I item : itemset) {
+            subset.remove(item);
+            final Counter<I> counter = counterMap.get(subset);
+            subset.add(item);
+            
+            if (counter == null || !counter.boxed) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Checks whether <code>count</code> reaches the minimum support.
+     * 
+     * @param  count             the support count.
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return <code>true</code> if the count is frequent.
+     */
+    private static boolean isFrequent(final int count,
+                                      final double minimumSupport,
+                                      final int transactionAmount) {
+        return 1.0 * count / transactionAmount >= minimumSupport;
+    }
+}
@@ -0,0 +1,593 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements the Eclat algorithm for frequent itemset generation.
+ * A single scan turns the transactions into a vertical layout: for each item,
+ * the sorted array of the indices (tids) of the transactions containing it.
+ * The support of an itemset is then the length of the intersection of the
+ * tid arrays of its items. The itemsets are enumerated depth first by
+ * equivalence classes: the class of a prefix holds the frequent extensions
+ * of the prefix by one item, and the class of each extension is obtained by
+ * intersecting its tid array with those of the extensions after it. Without
+ * a pool, the classes are built and mined one at a time and their itemsets
+ * are written out as soon as they are found. As the classes are independent
+ * of each other, each class is mined by a fork-join task if a pool is set;
+ * each task then collects the itemsets of its class and the task joining it
+ * takes them over.
+ * <p>
+ * On dense data the tid arrays barely shrink with the depth, so a class whose
+ * itemsets contain on average at least a given fraction of the tids of its
+ * prefix switches to diffsets (dEclat): each itemset <tt>PXY</tt> stores the
+ * tids of its prefix <tt>PX</tt> missing from it, its support is the support
+ * of the prefix minus the length of the diffset, and the diffset of
+ * <tt>PXYZ</tt> is the diffset of <tt>PXZ</tt> minus that of <tt>PXY</tt>.
+ * All the subclasses of a diffset class use diffsets as well.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class EclatFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * The default density at which a class switches to diffsets.
+     */
+    public static final double DEFAULT_DIFFSET_THRESHOLD = 0.5;
+    
+    /**
+     * This class represents an itemset of an equivalence class: the item
+     * extending the prefix, the tidset or the diffset of the extended itemset,
+     * and its support count.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class Atom<I> {
+        
+        /**
+         * The item extending the prefix.
+         */
+        final I item;
+        
+        /**
+         * The sorted tids or diffset of the extended itemset.
+         */
+        final int[] tids;
+        
+        /**
+         * The amount of tids.
+         */
+        final int length;
+        
+        /**
+         * The support count of the extended itemset.
+         */
+        final int support;
+        
+        Atom(final I item,
+             final int[] tids,
+             final int length,
+             final int support) {
+            this.item = item;
+            this.tids = tids;
+            this.length = length;
+            this.support = support;
+        }
+    }
+    
+    /**
+     * The fork-join pool mining the equivalence classes, or
+     * <code>null</code> if they are mined in the calling thread.
+     */
+    private ForkJoinPool pool;
+    
+    /**
+     * The density at which a class switches to diffsets.
+     */
+    private double diffsetThreshold = DEFAULT_DIFFSET_THRESHOLD;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     */
+    public EclatFrequentItemsetGenerator(final Comparator<I> comparator) {
+        super(comparator);
+    }
+    
+    /**
+     * Returns the fork-join pool mining the equivalence classes.
+     * 
+     * @return the pool, or <code>null</code> if mining is sequential.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Sets the fork-join pool mining the equivalence classes. Passing
+     * <code>null</code> makes mining sequential again.
+     * 
+     * @param pool the fork-join pool, or <code>null</code>.
+     */
+    public void setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Returns the density at which a class switches to diffsets.
+     * 
+     * @return the diffset threshold.
+     */
+    public double getDiffsetThreshold() {
+        return diffsetThreshold;
+    }
+    
+    /**
+     * Sets the density at which a class switches to diffsets. The density of
+     * a class is the average support of its itemsets relative to the support
+     * of its prefix. Zero switches every class below the single items, and a
+     * threshold above one keeps tidsets throughout.
+     * 
+     * @param diffsetThreshold the diffset threshold.
+     */
+    public void setDiffsetThreshold(final double diffsetThreshold) {
+        if (!(diffsetThreshold >= 0.0)) {
+            throw new IllegalArgumentException(
+                    "The diffset threshold must be non-negative: " +
+                    diffsetThreshold);
+        }
+        
+        this.diffsetThreshold = diffsetThreshold;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final Map<I, int[]> tidMap = new HashMap<>();
+        final Map<I, Integer> lengthMap = new HashMap<>();
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            for (final I item : transaction) {
+                int[] tids = tidMap.get(item);
+                final Integer length = lengthMap.get(item);
+                final int n = length == null ? 0 : length;
+                
+                if (tids == null) {
+                    tids = new int[4];
+                    tidMap.put(item, tids);
+                } else if (n == tids.length) {
+                    tids = Arrays.copyOf(tids, 2 * n);
+                    tidMap.put(item, tids);
+                }
+                
+                tids[n] = transactionAmount;
+                lengthMap.put(item, n + 1);
+            }
+            
+            ++transactionAmount;
+        }
+        
+        final int minimumCount = getMinimumSupportCount(minimumSupport,
+                                                        transactionAmount);
+        final List<Atom<I>> atomList = new ArrayList<>();
+        
+        for (final Map.Entry<I, int[]> e : tidMap.entrySet()) {
+            final int length = lengthMap.get(e.getKey());
+            
+            if (length >= minimumCount) {
+                atomList.add(new Atom<>(e.getKey(),
+                                        e.getValue(),
+                                        length,
+                                        length));
+            }
+        }
+        
+        // The atoms own the tid arrays from now on.
+        tidMap.clear();
+        lengthMap.clear();
+        
+        // Rare items first keeps the tid arrays of the deep classes short.
+        Collections.sort(atomList, new Comparator<Atom<I>>() {
+            
+            @Override
+            public int compare(final Atom<I> o1, final Atom<I> o2) {
+                return o1.support != o2.support ?
+                       Integer.compare(o1.support, o2.support) :
+                       itemComparator.compare(o1.item, o2.item);
+            }
+        });
+        
+        final List<Set<I>> frequentItemsetList = new ArrayList<>();
+        final List<Integer> supportCountList = new ArrayList<>();
+        final ClassTask<I> rootTask =
+                new ClassTask<>(Collections.<I>emptyList(),
+                                atomList,
+                                false,
+                                minimumCount,
+                                diffsetThreshold,
+                                pool != null,
+                                frequentItemsetList,
+                                supportCountList);
+        
+        if (pool == null) {
+            rootTask.compute();
+        } else {
+            pool.invoke(rootTask);
+        }
+        
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        
+        for (int i = 0; i < frequentItemsetList.size(); ++i) {
+            supportCountFunction.putSupportCount(frequentItemsetList.get(i),
+                                                 supportCountList.get(i));
+        }
+        
+        return new FrequentItemsetData<>(frequentItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Intersects the first <code>length1</code> entries of
+     * <code>tids1</code> with the first <code>length2</code> entries of
+     * <code>tids2</code>, both sorted, into <code>result</code>.
+     * 
+     * @param  tids1   the first array.
+     * @param  length1 the length of the first array.
+     * @param  tids2   the second array.
+     * @param  length2 the length of the second array.
+     * @param  result  the array receiving the intersection.
+     * @return the length of the intersection.
+     */
+    static int intersect(final int[] tids1,
+                         final int length1,
+                         final int[] tids2,
+                         final int length2,
+                         final int[] result) {
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        
+        while (i < length1 && j < length2) {
+            if (tids1[i] < tids2[j]) {
+                ++i;
+            } else if (tids1[i] > tids2[j]) {
+                ++j;
+            } else {
+                result[length++] = tids1[i];
+                ++i;
+                ++j;
+            }
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Writes the first <code>length1</code> entries of <code>tids1</code>
+     * missing from the first <code>length2</code> entries of
+     * <code>tids2</code>, both sorted, into <code>result</code>.
+     * 
+     * @param  tids1   the first array.
+     * @param  length1 the length of the first array.
+     * @param  tids2   the second array.
+     * @param  length2 the length of the second array.
+     * @param  result  the array receiving the difference.
+     * @return the length of the difference.
+     */
+    private static int subtract(final int[] tids1,
+                                final int length1,
+                                final int[] tids2,
+                                final int length2,
+                                final int[] result) {
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        
+        while (i < length1) {
+            if (j == length2 || tids1[i] < tids2[j]) {
+                result[length++] = tids1[i++];
+            } else if (tids1[i] > tids2[j]) {
+                ++j;
+            } else {
+                ++i;
+                ++j;
+            }
+        }
+        
+        return length;
+    }
+    
+    /**
+     * This task mines an equivalence class: it reports each atom extending
+     * the prefix, and mines the class of each atom. Sequentially, the class
+     * of each atom is mined before the class of the next one is built, and
+     * all the tasks report into the same lists. In parallel, each task
+     * reports into lists of its own, which its parent takes over once it has
+     * joined it. The tidset or diffset of an atom is released as soon as the
+     * class of the atom is built.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class ClassTask<I> extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The prefix of the class.
+         */
+        private final List<I> prefix;
+        
+        /**
+         * The atoms of the class.
+         */
+        private final List<Atom<I>> atomList;
+        
+        /**
+         * Whether the atoms hold diffsets instead of tidsets.
+         */
+        private final boolean diffset;
+        
+        /**
+         * The minimum support count.
+         */
+        private final int minimumCount;
+        
+        /**
+         * The density at which a subclass switches to diffsets.
+         */
+        private final double diffsetThreshold;
+        
+        /**
+         * Whether the subclasses are forked.
+         */
+        private final boolean parallel;
+        
+        /**
+         * The list receiving the itemsets found.
+         */
+        private final List<Set<I>> itemsetList;
+        
+        /**
+         * The list receiving the support counts of the itemsets found.
+         */
+        private final List<Integer> supportCountList;
+        
+        ClassTask(final List<I> prefix,
+                  final List<Atom<I>> atomList,
+                  final boolean diffset,
+                  final int minimumCount,
+                  final double diffsetThreshold,
+                  final boolean parallel,
+                  final List<Set<I>> itemsetList,
+                  final List<Integer> supportCountList) {
+            this.prefix = prefix;
+            this.atomList = atomList;
+            this.diffset = diffset;
+            this.minimumCount = minimumCount;
+            this.diffsetThreshold = diffsetThreshold;
+            this.parallel = parallel;
+            this.itemsetList = itemsetList;
+            this.supportCountList = supportCountList;
+        }
+        
+        @Override
+        protected void compute() {
+            int bufferLength = 0;
+            
+            for (final Atom<I> atom : atomList) {
+                final Set<I> itemset = new HashSet<>(prefix);
+                itemset.add(atom.item);
+                itemsetList.add(itemset);
+                supportCountList.add(atom.support);
+                bufferLength = Math.max(bufferLength, atom.length);
+            }
+            
+            final int[] buffer = new int[bufferLength];
+            final List<ClassTask<I>> childList = new ArrayList<>();
+            
+            for (int i = 0; i < atomList.size(); ++i) {
+                final List<Atom<I>> childAtomList =
+                        diffset ?
+                        getDiffsetChildren(i, buffer) :
+                        getTidsetChildren(i, buffer);
+                final ClassTask<I> child =
+                        childAtomList.isEmpty() ?
+                        null :
+                        createChild(i, childAtomList);
+                
+                // Only the classes of the atoms before this one read its
+                // tidset or diffset, and they are all built by now.
+                atomList.set(i, null);
+                
+                if (child == null) {
+                    continue;
+                }
+                
+                if (parallel) {
+                    childList.add(child);
+                } else {
+                    child.compute();
+                }
+            }
+            
+            if (parallel) {
+                invokeAll(childList);
+                
+                for (final ClassTask<I> child : childList) {
+                    itemsetList.addAll(child.itemsetList);
+                    supportCountList.addAll(child.supportCountList);
+                }
+            }
+        }
+        
+        /**
+         * Creates the task mining the class of the <code>i</code>th atom.
+         * 
+         * @param  i             the index of the atom.
+         * @param  childAtomList the atoms of the class.
+         * @return the task of the class.
+         */
+        private ClassTask<I> createChild(final int i,
+                                         final List<Atom<I>> childAtomList) {
+            final Atom<I> atom = atomList.get(i);
+            final List<I> childPrefix = new ArrayList<>(prefix);
+            childPrefix.add(atom.item);
+            return new ClassTask<>(childPrefix,
+                                   childAtomList,
+                                   diffset || isDense(atom, childAtomList),
+                                   minimumCount,
+                                   diffsetThreshold,
+                                   parallel,
+                                   parallel ?
+                                   new ArrayList<Set<I>>() :
+                                   itemsetList,
+                                   parallel ?
+                                   new ArrayList<Integer>() :
+                                   supportCountList);
+        }
+        
+        /**
+         * Returns the frequent extensions of the <code>i</code>th atom by the
+         * atoms after it, computed by intersecting tidsets. If the resulting
+         * class is dense, the extensions hold their diffsets relative to the
+         * atom instead.
+         * 
+         * @param  i      the index of the atom.
+         * @param  buffer the scratch array.
+         * @return the atoms of the class of the <code>i</code>th atom.
+         */
+        private List<Atom<I>> getTidsetChildren(final int i,
+                                                final int[] buffer) {
+            final Atom<I> atom = atomList.get(i);
+            final List<Atom<I>> childAtomList = new ArrayList<>();
+            final List<Atom<I>> otherList = new ArrayList<>();
+            
+            for (int j = i + 1; j < atomList.size(); ++j) {
+                final Atom<I> other = atomList.get(j);
+                final int length = intersect(atom.tids,
+                                             atom.length,
+                                             other.tids,
+                                             other.length,
+                                             buffer);
+                
+                if (length >= minimumCount) {
+                    childAtomList.add(new Atom<>(other.item,
+                                                 Arrays.copyOf(buffer,
+                                                               length),
+                                                 length,
+                                                 length));
+                    otherList.add(other);
+                }
+            }
+            
+            if (!isDense(atom, childAtomList)) {
+                return childAtomList;
+            }
+            
+            // d(PXY) = t(PX) - t(PY).
+            for (int c = 0; c < childAtomList.size(); ++c) {
+                final Atom<I> other = otherList.get(c);
+                final int length = subtract(atom.tids,
+                                            atom.length,
+                                            other.tids,
+                                            other.length,
+                                            buffer);
+                childAtomList.set(c, new Atom<>(other.item,
+                                                Arrays.copyOf(buffer, length),
+                                                length,
+                                                atom.support - length));
+            }
+            
+            return childAtomList;
+        }
+        
+        /**
+         * Returns the frequent extensions of the <code>i</code>th atom by the
+         * atoms after it, computed by subtracting diffsets.
+         * 
+         * @param  i      the index of the atom.
+         * @param  buffer the scratch array.
+         * @return the atoms of the class of the <code>i</code>th atom.
+         */
+        private List<Atom<I>> getDiffsetChildren(final int i,
+                                                 final int[] buffer) {
+            final Atom<I> atom = atomList.get(i);
+            final List<Atom<I>> childAtomList = new ArrayList<>();
+            
+            for (int j = i + 1; j < atomList.size(); ++j) {
+                final Atom<I> other = atomList.get(j);
+                
+                // d(PXY) = d(PY) - d(PX).
+                final int length = subtract(other.tids,
+                                            other.length,
+                                            atom.tids,
+                                            atom.length,
+                                            buffer);
+                final int support = atom.support - length;
+                
+                if (support >= minimumCount) {
+                    childAtomList.add(new Atom<>(other.item,
+                                                 Arrays.copyOf(buffer,
+                                                               length),
+                                                 length,
+                                                 support));
+                }
+            }
+            
+            return childAtomList;
+        }
+        
+        /**
+         * Checks whether the class of <code>atom</code> is dense enough to
+         * switch to diffsets.
+         * 
+         * @param  atom          the prefix atom of the class.
+         * @param  childAtomList the atoms of the class.
+         * @return <code>true</code> if the class should use diffsets.
+         */
+        private boolean isDense(final Atom<I> atom,
+                                final List<Atom<I>> childAtomList) {
+            if (childAtomList.isEmpty()) {
+                return false;
+            }
+            
+            long supportSum = 0L;
+            
+            for (final Atom<I> child : childAtomList) {
+                supportSum += child.support;
+            }
+            
+            return 1.0 * supportSum / childAtomList.size() / atom.support
+                    >= diffsetThreshold;
+        }
+    }
+}
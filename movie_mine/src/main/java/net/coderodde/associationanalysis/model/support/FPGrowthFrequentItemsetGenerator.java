@@ -2,7 +2,7 @@ package net.coderodde.associationanalysis.model.support;
 
 import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -27,33 +27,32 @@ extends AbstractFrequentItemsetGenerator<I> {
     
     @Override
     public FrequentItemsetData<I> 
-        findFrequentItemsets(List<Set<I>> transactionList,
+        findFrequentItemsets(Collection<Set<I>> transactions,
                              double minimumSupport) {
+        // The size of a lazy view may take a pass to compute, so ask it once.
+        final int transactionAmount = transactions.size();
+        
         // FP-growth uses support counts instead of supports.
         final int minimumSupportCount = 
-                (int) Math.ceil(transactionList.size() * minimumSupport);
+                (int) Math.ceil(transactionAmount * minimumSupport);
         
         // Find infrequent items (not itemsets!).
         final ItemCategories<I> categories = 
-                splitItems(transactionList,
-                                    minimumSupport);
+                splitItems(transactions,
+                           transactionAmount,
+                           minimumSupport);
         
         // The initial FP-tree.
-        final FPTree<I> tree = new FPTree<>(transactionList.size(), 
+        final FPTree<I> tree = new FPTree<>(transactionAmount, 
                                             minimumSupportCount,
                                             categories.map);
         
-        final Set<I> infrequentSet = categories.infrequentItems;
-        
-        // Build the FP-tree.
-        for (final Set<I> itemset : transactionList) {
-            if (!Collections.disjoint(infrequentSet, itemset)) {
-                // 'itemset' contains an infrequent item. Cannot be frequent.
-                continue;
-            }
-            
-            // The second argument is ignored by FPTree.
-            tree.putSupportCount(itemset, Integer.MIN_VALUE);
+        // Build the FP-tree out of the distinct transactions projected onto 
+        // the frequent items, each inserted once with its multiplicity.
+        for (final Map.Entry<Set<I>, Integer> e 
+                : collapseTransactions(transactions, 
+                                       categories.frequentItems).entrySet()) {
+            tree.addTransaction(e.getKey(), e.getValue());
         }
         
         // Copy the tree since it will be modified.
@@ -69,7 +68,7 @@ extends AbstractFrequentItemsetGenerator<I> {
         // Return the results of the computation.
         return new FrequentItemsetData<>(frequentItemsetList, 
                                          supportCountFunction, 
-                                         transactionList.size());
+                                         transactionAmount);
     }
     
     /**
@@ -92,20 +91,22 @@ extends AbstractFrequentItemsetGenerator<I> {
     }
     
     /**
-     * Splits the items contained in <code>transactionList</code> into two sets:
+     * Splits the items contained in <code>transactions</code> into two sets:
      * one for frequent items and another for infrequent items.
      * 
-     * @param <I>             the actual item type.
-     * @param transactionList the list of transactions to mine.
-     * @param minimumSupport  the minimum support.
+     * @param <I>               the actual item type.
+     * @param transactions      the transactions to mine.
+     * @param transactionAmount the amount of transactions.
+     * @param minimumSupport    the minimum support.
      * @return two sets.
      */
     private static <I> ItemCategories<I> 
-    splitItems(List<Set<I>> transactionList, 
+    splitItems(Collection<Set<I>> transactions, 
+               int transactionAmount,
                double minimumSupport) {
         final Map<I, Integer> map = new HashMap<>();
         
-        for (final Set<I> transaction : transactionList) {
+        for (final Set<I> transaction : transactions) {
             for (final I item : transaction) {
                 if (!map.containsKey(item)) {
                     map.put(item, 1);
@@ -119,7 +120,7 @@ extends AbstractFrequentItemsetGenerator<I> {
         final Set<I> infrequentSet = new HashSet<>();
         
         for (final I item : map.keySet()) {
-            final double support = 1.0 * map.get(item) / transactionList.size();
+            final double support = 1.0 * map.get(item) / transactionAmount;
             (support < minimumSupport ? infrequentSet : frequentSet).add(item);
         }
         
@@ -190,10 +190,6 @@ extends AbstractSupportCountFunction<I> {
             
             for (node = map.get(item); node != null; node = node.next) {
                 count += node.count;
-                
-                if (count >= 2000) {
-                    System.exit(-1);
-                }
             }
             
             countMap.put(item, count);
@@ -262,16 +258,17 @@ extends AbstractSupportCountFunction<I> {
             workSet.remove(node.item);
         }
         
-        if (workSet.isEmpty()) {
-            return node.count;
-        }
-        
         int count = 0;
         
-        for (final FPTreeNode<I> child : node.childMap.values()) {
-            count += countFrom(child, workSet);
+        if (workSet.isEmpty()) {
+            count = node.count;
+        } else {
+            for (final FPTreeNode<I> child : node.childMap.values()) {
+                count += countFrom(child, workSet);
+            }
         }
         
+        // Restore the work set for the next node in the chain.
         if (nodeInWorkSet) {
             workSet.add(node.item);
         }
@@ -287,6 +284,23 @@ extends AbstractSupportCountFunction<I> {
      */
     @Override
     public void putSupportCount(Set<I> itemset, int supportCount) {
+        addTransaction(itemset, 1);
+    }
+    
+    /**
+     * Adds the transaction <code>itemset</code> with multiplicity 
+     * <code>weight</code> to this FP-tree. Adding a transaction with weight
+     * <tt>w</tt> is equivalent to adding it <tt>w</tt> times.
+     * 
+     * @param itemset the transaction to add.
+     * @param weight  the multiplicity of the transaction.
+     */
+    public void addTransaction(Set<I> itemset, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException(
+                    "The weight must be positive: " + weight);
+        }
+        
         final List<I> itemlist = new ArrayList<>(itemset);
         Collections.sort(itemlist, supportCountComparator);
         
@@ -301,7 +315,7 @@ extends AbstractSupportCountFunction<I> {
                 && (child = current.getChildNode(itemlist.get(itemIndex))) 
                 != null) {
             current = child;
-            current.count++;
+            current.count += weight;
             itemIndex++;
             
             if (!map.containsKey(current.item)) {
@@ -325,6 +339,7 @@ extends AbstractSupportCountFunction<I> {
         while (itemIndex < itemAmount) {
             final I item = itemlist.get(itemIndex++);
             final FPTreeNode<I> node = new FPTreeNode<>(item);
+            node.count = weight;
             
             current.childMap.put(item, node);
             current = node;
@@ -338,24 +353,6 @@ extends AbstractSupportCountFunction<I> {
         }
     }
     
-    private boolean hasCycle() {
-        for (final FPTreeNode<I> node : map.values()) {
-            FPTreeNode<I> tmp = node;
-            
-            Set<FPTreeNode<I>> set = new HashSet<>();
-            
-            while (tmp != null) {
-                if (set.contains(tmp)) {
-                    return true;
-                }
-                
-                set.add(tmp);
-            }
-        }
-        
-        return false;
-    }
-    
     /**
      * Generates and returns a conditional FP-tree from <code>item</code>.
      * 
@@ -367,70 +364,95 @@ extends AbstractSupportCountFunction<I> {
         
         // Update the counts of 'tree'.
         tree.updateCounts(item);
-
+        
+        // Remove all nodes with zero count. A node has zero count if and only
+        // if its subtree contains no node holding 'item', so this leaves the 
+        // nodes holding 'item' as leaves.
+        tree.pruneZeroCountNodes();
+        
         // Remove all nodes containing 'item'.
         tree.removeItem(item);
         
         // Remove all linked lists with small total count.
         tree.pruneLists();
-                
-        // Remove all nodes with zero count.
-        tree.pruneZeroCountNodes();
         return tree;
     }
     
+    /**
+     * Removes all the subtrees rooted at a node with zero count, and unlinks
+     * their nodes from the linked lists.
+     */
     private void pruneZeroCountNodes() {
-        final Map<FPTreeNode<I>, FPTreeNode<I>> parentMap = getParentMap();
+        final Set<FPTreeNode<I>> removedSet = new HashSet<>();
+        pruneZeroCountNodes(root, removedSet);
         
-        for (final FPTreeNode<I> start : map.values()) {
-            final Map<FPTreeNode<I>, FPTreeNode<I>> precedenceMap =
-                    getPrecedenceMap(start.item);
-            
-            final List<FPTreeNode<I>> list = new ArrayList<>();
+        if (removedSet.isEmpty()) {
+            return;
+        }
+        
+        for (final I item : new ArrayList<>(map.keySet())) {
+            FPTreeNode<I> first = null;
+            FPTreeNode<I> last = null;
             
-            for (FPTreeNode<I> node = start; node != null; node = node.next) {
-                if (node.count == 0) {
-                    list.add(node);
+            for (FPTreeNode<I> node = map.get(item); 
+                    node != null; 
+                    node = node.next) {
+                if (removedSet.contains(node)) {
+                    continue;
                 }
-            }
-            
-            for (final FPTreeNode<I> node : list) {
-                omit(node, parentMap.get(node));
-                
-                final FPTreeNode<I> predecessor = precedenceMap.get(node);
                 
-                if (predecessor == null) {
-                    map.put(start.item, node.next);
-                    precedenceMap.put(node.next, null);
+                if (last == null) {
+                    first = node;
                 } else {
-                    predecessor.next = node.next;
-                    precedenceMap.put(node.next, predecessor);
+                    last.next = node;
                 }
+                
+                last = node;
+            }
+            
+            if (first == null) {
+                map.remove(item);
+            } else {
+                last.next = null;
+                map.put(item, first);
             }
         }
     }
     
     /**
-     * Creates the precedence map for a particular linked list of 
-     * <code>item</code>. The result map maps each FP-tree node to its 
-     * predecessor FP-tree node.
+     * Implements the removal of zero count subtrees.
      * 
-     * @param  item the linked list selector.
-     * @return precedence map.
+     * @param node       the node whose children to process.
+     * @param removedSet the set for accumulating the removed nodes.
      */
-    private Map<FPTreeNode<I>, FPTreeNode<I>> getPrecedenceMap(I item) {
-        final Map<FPTreeNode<I>, FPTreeNode<I>> ret = new HashMap<>();
-        
-        FPTreeNode<I> prev = null;
-        FPTreeNode<I> current = map.get(item);
-        
-        while (current != null) {
-            ret.put(current, prev);
-            prev = current;
-            current = current.next;
+    private void pruneZeroCountNodes(FPTreeNode<I> node,
+                                     Set<FPTreeNode<I>> removedSet) {
+        final List<FPTreeNode<I>> childList = 
+                new ArrayList<>(node.childMap.values());
+        
+        for (final FPTreeNode<I> child : childList) {
+            if (child.count == 0) {
+                node.childMap.remove(child.item);
+                addSubtree(child, removedSet);
+            } else {
+                pruneZeroCountNodes(child, removedSet);
+            }
         }
+    }
+    
+    /**
+     * Adds all the nodes of the subtree rooted at <code>node</code> to 
+     * <code>set</code>.
+     * 
+     * @param node the root of the subtree.
+     * @param set  the set for accumulating the nodes.
+     */
+    private void addSubtree(FPTreeNode<I> node, Set<FPTreeNode<I>> set) {
+        set.add(node);
         
-        return ret;
+        for (final FPTreeNode<I> child : node.childMap.values()) {
+            addSubtree(child, set);
+        }
     }
     
     private void pruneLists() {
@@ -516,6 +538,13 @@ extends AbstractSupportCountFunction<I> {
         return sum;
     }
     
+    /**
+     * Removes <code>node</code> from the tree and moves its children to 
+     * <code>parent</code>.
+     * 
+     * @param node   the node to remove.
+     * @param parent the parent of <code>node</code>.
+     */
     private void omit(FPTreeNode<I> node, FPTreeNode<I> parent) {
         if (parent == null) {
             return;
@@ -524,10 +553,55 @@ extends AbstractSupportCountFunction<I> {
         parent.childMap.remove(node.item);
         
         for (final FPTreeNode<I> childOfNode : node.childMap.values()) {
-            parent.childMap.put(childOfNode.item, childOfNode);
+            merge(childOfNode, parent);
         }
     }
     
+    /**
+     * Makes the subtree rooted at <code>node</code> a subtree of 
+     * <code>parent</code>. If <code>parent</code> already has a child holding
+     * the same item, the two subtrees are merged, as otherwise the counts of
+     * the existing child would be lost.
+     * 
+     * @param node   the root of the subtree to move.
+     * @param parent the new parent.
+     */
+    private void merge(FPTreeNode<I> node, FPTreeNode<I> parent) {
+        final FPTreeNode<I> existing = parent.getChildNode(node.item);
+        
+        if (existing == null) {
+            parent.childMap.put(node.item, node);
+            return;
+        }
+        
+        existing.count += node.count;
+        unlink(node);
+        
+        for (final FPTreeNode<I> child : node.childMap.values()) {
+            merge(child, existing);
+        }
+    }
+    
+    /**
+     * Removes <code>node</code> from the linked list of its item.
+     * 
+     * @param node the node to unlink.
+     */
+    private void unlink(FPTreeNode<I> node) {
+        FPTreeNode<I> current = map.get(node.item);
+        
+        if (current == node) {
+            map.put(node.item, node.next);
+            return;
+        }
+        
+        while (current.next != node) {
+            current = current.next;
+        }
+        
+        current.next = node.next;
+    }
+    
     /**
      * Computes a map which maps each FP-tree node to its parent FP-tree node.
      * 
@@ -577,8 +651,12 @@ extends AbstractSupportCountFunction<I> {
      * @return <code>true</code> if this tree consists of a single path.
      */
     private boolean isPath() {
-        for (final Map.Entry<I, FPTreeNode<I>> entry : map.entrySet()) {
-            if (entry.getValue().next != null) {
+        // Each item occurring once is not enough, as the root may still have
+        // several children.
+        for (FPTreeNode<I> node = root; 
+                !node.childMap.isEmpty();
+                node = node.childMap.values().iterator().next()) {
+            if (node.childMap.size() > 1) {
                 return false;
             }
         }
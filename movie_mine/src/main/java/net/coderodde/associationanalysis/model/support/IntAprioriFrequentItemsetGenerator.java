@@ -0,0 +1,522 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements the Apriori algorithm over items encoded as dense
+ * integers. After the first pass, each frequent item gets a code following
+ * the order of the item comparator, and each transaction is encoded once as a
+ * sorted <code>int</code> array of its frequent item codes. The candidates of
+ * each level and their support counts live in an {@link IntItemsetTable}, and
+ * a transaction is counted by extending sorted prefixes of its items only as
+ * long as they are prefixes of some candidate. Hence the counting passes
+ * neither box integers nor allocate sets; the items are decoded only when
+ * the frequent itemsets are returned. By default, the pairs are counted in a
+ * {@link TriangularPairCounter} without generating any pair candidates.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class IntAprioriFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * Indicates whether the pairs are counted in a triangular matrix.
+     */
+    private boolean triangularPairCounting = true;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     */
+    public IntAprioriFrequentItemsetGenerator(final Comparator<I> comparator) {
+        super(comparator);
+    }
+    
+    /**
+     * Returns <code>true</code> if the 2-itemsets are counted in a 
+     * triangular matrix.
+     * 
+     * @return <code>true</code> if triangular pair counting is on.
+     */
+    public boolean isTriangularPairCounting() {
+        return triangularPairCounting;
+    }
+    
+    /**
+     * Turns triangular pair counting on or off. It is on by default. The 
+     * matrix takes <tt>2 n (n - 1)</tt> bytes for <tt>n</tt> frequent items, 
+     * which is about 200 MB for 10000 items, and is not used if <tt>n</tt>
+     * exceeds {@link TriangularPairCounter#MAXIMUM_ITEM_AMOUNT}. When off, the
+     * pairs are generated as candidates and counted in an 
+     * {@link IntItemsetTable} like the larger itemsets, which takes memory in
+     * proportion to the pairs of frequent items that survive the join only. 
+     * The results are the same either way.
+     * 
+     * @param triangularPairCounting whether to count pairs in a matrix.
+     */
+    public void setTriangularPairCounting(
+            final boolean triangularPairCounting) {
+        this.triangularPairCounting = triangularPairCounting;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final int transactionAmount = transactions.size();
+        final Map<I, int[]> itemCountMap = new HashMap<>();
+        
+        for (final Set<I> transaction : transactions) {
+            for (final I item : transaction) {
+                final int[] count = itemCountMap.get(item);
+                
+                if (count == null) {
+                    itemCountMap.put(item, new int[]{ 1 });
+                } else {
+                    ++count[0];
+                }
+            }
+        }
+        
+        final List<I> itemList = new ArrayList<>();
+        
+        for (final Map.Entry<I, int[]> e : itemCountMap.entrySet()) {
+            if (isFrequent(e.getValue()[0],
+                           minimumSupport,
+                           transactionAmount)) {
+                itemList.add(e.getKey());
+            }
+        }
+        
+        Collections.sort(itemList, itemComparator);
+        
+        final Map<I, Integer> codeMap = new HashMap<>(itemList.size());
+        IntItemsetTable level = new IntItemsetTable(1, itemList.size());
+        final int[] buffer = new int[1];
+        
+        for (int code = 0; code < itemList.size(); ++code) {
+            codeMap.put(itemList.get(code), code);
+            buffer[0] = code;
+            level.increment(level.add(buffer),
+                            itemCountMap.get(itemList.get(code))[0]);
+        }
+        
+        final List<int[]> encodedTransactionList =
+                encodeTransactions(transactions, codeMap);
+        final List<IntItemsetTable> levelList = new ArrayList<>();
+        levelList.add(level);
+        
+        for (int k = 2; level.size() > 1; ++k) {
+            if (k == 2 
+                    && triangularPairCounting
+                    && level.size() 
+                    <= TriangularPairCounter.MAXIMUM_ITEM_AMOUNT) {
+                level = countPairs(level.size(),
+                                   encodedTransactionList,
+                                   minimumSupport,
+                                   transactionAmount);
+                
+                if (level.size() == 0) {
+                    break;
+                }
+                
+                levelList.add(level);
+                continue;
+            }
+            
+            final IntItemsetTable candidateTable = generateCandidates(level);
+            
+            if (candidateTable.size() == 0) {
+                break;
+            }
+            
+            countCandidates(candidateTable, encodedTransactionList);
+            level = filter(candidateTable, minimumSupport, transactionAmount);
+            
+            if (level.size() == 0) {
+                break;
+            }
+            
+            levelList.add(level);
+        }
+        
+        return decode(levelList, itemList, transactionAmount);
+    }
+    
+    /**
+     * Encodes each transaction as the sorted array of the codes of its
+     * frequent items. Transactions with less than two frequent items cannot
+     * contribute to any pass but the first one and are dropped.
+     * 
+     * @param  transactions the transactions.
+     * @param  codeMap      the map from frequent items to their codes.
+     * @return the list of encoded transactions.
+     */
+    private List<int[]> encodeTransactions(
+            final Collection<Set<I>> transactions,
+            final Map<I, Integer> codeMap) {
+        final List<int[]> ret = new ArrayList<>();
+        
+        for (final Set<I> transaction : transactions) {
+            final int[] codes = new int[transaction.size()];
+            int length = 0;
+            
+            for (final I item : transaction) {
+                final Integer code = codeMap.get(item);
+                
+                if (code != null) {
+                    codes[length++] = code;
+                }
+            }
+            
+            if (length > 1) {
+                Arrays.sort(codes, 0, length);
+                ret.add(length == codes.length ?
+                        codes :
+                        Arrays.copyOf(codes, length));
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Generates the <tt>k + 1</tt>-candidates from the frequent
+     * <tt>k</tt>-itemsets in <code>level</code>. The itemsets are sorted
+     * lexicographically, only itemsets sharing the <tt>k - 1</tt>-prefix are
+     * joined, and a candidate is dropped if any of its <tt>k</tt>-subsets is
+     * not in <code>level</code>.
+     * 
+     * @param  level the frequent itemsets of the previous level.
+     * @return the table of candidates with zero counts.
+     */
+    private IntItemsetTable generateCandidates(final IntItemsetTable level) {
+        final int width = level.getWidth();
+        final Integer[] order = new Integer[level.size()];
+        
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        
+        Arrays.sort(order, new Comparator<Integer>() {
+            
+            @Override
+            public int compare(final Integer o1, final Integer o2) {
+                for (int i = 0; i < width; ++i) {
+                    final int cmp = Integer.compare(level.getItem(o1, i),
+                                                    level.getItem(o2, i));
+                    
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                
+                return 0;
+            }
+        });
+        
+        final IntItemsetTable ret = new IntItemsetTable(width + 1,
+                                                        level.size());
+        final int[] candidate = new int[width + 1];
+        final int[] subset = new int[width];
+        int groupStart = 0;
+        
+        while (groupStart < order.length) {
+            int groupEnd = groupStart + 1;
+            
+            while (groupEnd < order.length
+                    && haveSamePrefix(level,
+                                      order[groupStart],
+                                      order[groupEnd])) {
+                ++groupEnd;
+            }
+            
+            for (int i = groupStart; i < groupEnd; ++i) {
+                level.getItemset(order[i], candidate);
+                
+                for (int j = i + 1; j < groupEnd; ++j) {
+                    candidate[width] = level.getItem(order[j], width - 1);
+                    
+                    if (hasFrequentSubsets(candidate, subset, level)) {
+                        ret.add(candidate);
+                    }
+                }
+            }
+            
+            groupStart = groupEnd;
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Checks whether two itemsets in <code>level</code> agree on all but their
+     * last items.
+     * 
+     * @param  level  the table of itemsets.
+     * @param  index1 the entry index of the first itemset.
+     * @param  index2 the entry index of the second itemset.
+     * @return <code>true</code> if the two itemsets share the prefix.
+     */
+    private static boolean haveSamePrefix(final IntItemsetTable level,
+                                          final int index1,
+                                          final int index2) {
+        for (int i = 0; i < level.getWidth() - 1; ++i) {
+            if (level.getItem(index1, i) != level.getItem(index2, i)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Checks that all subsets of <code>candidate</code> one item smaller are
+     * in <code>level</code>. The two subsets missing one of the last two items
+     * are the joined itemsets and are not checked.
+     * 
+     * @param  candidate the candidate.
+     * @param  subset    the scratch array for subsets.
+     * @param  level     the frequent itemsets one item smaller.
+     * @return <code>true</code> if no subset of the candidate is infrequent.
+     */
+    private static boolean hasFrequentSubsets(final int[] candidate,
+                                              final int[] subset,
+                                              final IntItemsetTable level) {
+        for (int skip = 0; skip < candidate.length - 2; ++skip) {
+            int length = 0;
+            
+            for (int i = 0; i < candidate.length; ++i) {
+                if (i != skip) {
+                    subset[length++] = candidate[i];
+                }
+            }
+            
+            if (level.indexOf(subset) < 0) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Counts the candidates in <code>candidateTable</code> over all the
+     * encoded transactions.
+     * 
+     * @param candidateTable         the table of candidates.
+     * @param encodedTransactionList the encoded transactions.
+     */
+    private void countCandidates(final IntItemsetTable candidateTable,
+                                 final List<int[]> encodedTransactionList) {
+        final int width = candidateTable.getWidth();
+        final IntItemsetTable[] prefixTables = new IntItemsetTable[width];
+        final int[] prefix = new int[width];
+        
+        for (int depth = 1; depth < width; ++depth) {
+            prefixTables[depth] = new IntItemsetTable(depth,
+                                                      candidateTable.size());
+            
+            for (int i = 0; i < candidateTable.size(); ++i) {
+                candidateTable.getItemset(i, prefix);
+                prefixTables[depth].add(prefix);
+            }
+        }
+        
+        for (final int[] transaction : encodedTransactionList) {
+            if (transaction.length >= width) {
+                countCandidates(candidateTable,
+                                prefixTables,
+                                transaction,
+                                prefix,
+                                0,
+                                0);
+            }
+        }
+    }
+    
+    /**
+     * Places each eligible item of <code>transaction</code> at position
+     * <code>depth</code> of <code>prefix</code>, and either descends if the
+     * prefix is a prefix of some candidate or counts the completed candidate.
+     * 
+     * @param candidateTable the table of candidates.
+     * @param prefixTables   the tables of candidate prefixes by length.
+     * @param transaction    the encoded transaction.
+     * @param prefix         the prefix being built.
+     * @param depth          the position to fill.
+     * @param from           the index of the first item to try.
+     */
+    private static void countCandidates(final IntItemsetTable candidateTable,
+                                        final IntItemsetTable[] prefixTables,
+                                        final int[] transaction,
+                                        final int[] prefix,
+                                        final int depth,
+                                        final int from) {
+        final int width = candidateTable.getWidth();
+        final int last = transaction.length - (width - depth);
+        
+        for (int i = from; i <= last; ++i) {
+            prefix[depth] = transaction[i];
+            
+            if (depth + 1 == width) {
+                final int index = candidateTable.indexOf(prefix);
+                
+                if (index >= 0) {
+                    candidateTable.increment(index, 1);
+                }
+            } else if (prefixTables[depth + 1].indexOf(prefix) >= 0) {
+                countCandidates(candidateTable,
+                                prefixTables,
+                                transaction,
+                                prefix,
+                                depth + 1,
+                                i + 1);
+            }
+        }
+    }
+    
+    /**
+     * Counts all pairs of frequent items in a triangular matrix, which skips
+     * the candidate generation of the pair level altogether. Since the codes
+     * of the frequent items are <tt>0, 1, ..., n - 1</tt> and the encoded 
+     * transactions are sorted, the codes serve as the ranks directly.
+     * 
+     * @param  itemAmount             the amount of frequent items.
+     * @param  encodedTransactionList the encoded transactions.
+     * @param  minimumSupport         the minimum support.
+     * @param  transactionAmount      the amount of transactions.
+     * @return the table of frequent pairs.
+     */
+    private static IntItemsetTable countPairs(
+            final int itemAmount,
+            final List<int[]> encodedTransactionList,
+            final double minimumSupport,
+            final int transactionAmount) {
+        final TriangularPairCounter pairCounter = 
+                new TriangularPairCounter(itemAmount);
+        
+        for (final int[] transaction : encodedTransactionList) {
+            pairCounter.count(transaction, transaction.length, 1);
+        }
+        
+        final IntItemsetTable ret = new IntItemsetTable(2, itemAmount);
+        final int[] pair = new int[2];
+        
+        for (int i = 0; i < itemAmount; ++i) {
+            for (int j = i + 1; j < itemAmount; ++j) {
+                final int count = pairCounter.getCount(i, j);
+                
+                if (isFrequent(count, minimumSupport, transactionAmount)) {
+                    pair[0] = i;
+                    pair[1] = j;
+                    ret.increment(ret.add(pair), count);
+                }
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Returns the table of frequent candidates with their counts.
+     * 
+     * @param  candidateTable    the counted candidates.
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return the table of frequent itemsets.
+     */
+    private static IntItemsetTable filter(final IntItemsetTable candidateTable,
+                                          final double minimumSupport,
+                                          final int transactionAmount) {
+        final IntItemsetTable ret =
+                new IntItemsetTable(candidateTable.getWidth(),
+                                    candidateTable.size());
+        final int[] itemset = new int[candidateTable.getWidth()];
+        
+        for (int i = 0; i < candidateTable.size(); ++i) {
+            final int count = candidateTable.getCount(i);
+            
+            if (isFrequent(count, minimumSupport, transactionAmount)) {
+                candidateTable.getItemset(i, itemset);
+                ret.increment(ret.add(itemset), count);
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Decodes the frequent itemsets of all levels.
+     * 
+     * @param  levelList         the frequent itemsets by level.
+     * @param  itemList          the items by code.
+     * @param  transactionAmount the amount of transactions.
+     * @return the frequent itemset data.
+     */
+    private FrequentItemsetData<I> decode(
+            final List<IntItemsetTable> levelList,
+            final List<I> itemList,
+            final int transactionAmount) {
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        final List<Set<I>> frequentItemsetList = new ArrayList<>();
+        
+        for (final IntItemsetTable level : levelList) {
+            for (int i = 0; i < level.size(); ++i) {
+                final Set<I> itemset = new HashSet<>(level.getWidth());
+                
+                for (int position = 0;
+                        position < level.getWidth();
+                        ++position) {
+                    itemset.add(itemList.get(level.getItem(i, position)));
+                }
+                
+                frequentItemsetList.add(itemset);
+                supportCountFunction.putSupportCount(itemset,
+                                                     level.getCount(i));
+            }
+        }
+        
+        return new FrequentItemsetData<>(frequentItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Checks whether <code>count</code> reaches the minimum support.
+     * 
+     * @param  count             the support count.
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return <code>true</code> if the count is frequent.
+     */
+    private static boolean isFrequent(final int count,
+                                      final double minimumSupport,
+                                      final int transactionAmount) {
+        return 1.0 * count / transactionAmount >= minimumSupport;
+    }
+}
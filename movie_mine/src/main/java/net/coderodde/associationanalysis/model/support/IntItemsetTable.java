@@ -0,0 +1,258 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.Arrays;
+
+/**
+ * This class implements an open-addressing hash table mapping itemsets of a
+ * fixed width to support counts. An itemset is a sorted run of integer item
+ * codes; the itemsets are stored back to back in a single <code>int</code>
+ * array and the counts in another, so neither adding nor counting allocates
+ * objects. Each itemset gets an entry index in order of addition, which stays
+ * valid as the table grows.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public final class IntItemsetTable {
+    
+    /**
+     * The minimum capacity of the slot array.
+     */
+    private static final int MINIMUM_CAPACITY = 16;
+    
+    /**
+     * The amount of items in each itemset.
+     */
+    private final int width;
+    
+    /**
+     * The items of all entries, <code>width</code> ints per entry.
+     */
+    private int[] items;
+    
+    /**
+     * The support count of each entry.
+     */
+    private int[] counts;
+    
+    /**
+     * The slots of the hash table. A slot holds the entry index plus one, or
+     * zero if it is free.
+     */
+    private int[] slots;
+    
+    /**
+     * The amount of entries in this table.
+     */
+    private int size;
+    
+    /**
+     * Constructs an empty table for itemsets of <code>width</code> items.
+     * 
+     * @param width    the amount of items in each itemset.
+     * @param capacity the expected amount of itemsets.
+     */
+    public IntItemsetTable(final int width, final int capacity) {
+        if (width < 1) {
+            throw new IllegalArgumentException(
+                    "The width must be positive: " + width);
+        }
+        
+        if (capacity < 0) {
+            throw new IllegalArgumentException(
+                    "The capacity is negative: " + capacity);
+        }
+        
+        this.width = width;
+        this.items = new int[Math.max(1, capacity) * width];
+        this.counts = new int[Math.max(1, capacity)];
+        this.slots = new int[slotCapacity(capacity)];
+    }
+    
+    /**
+     * Returns the entry index of the itemset held in the first
+     * <code>width</code> entries of <code>itemset</code>, adding the itemset
+     * with count zero if it is not yet present.
+     * 
+     * @param  itemset the array holding the itemset.
+     * @return the entry index of the itemset.
+     */
+    public int add(final int[] itemset) {
+        int slot = hash(itemset) & (slots.length - 1);
+        
+        while (slots[slot] != 0) {
+            if (matches(slots[slot] - 1, itemset)) {
+                return slots[slot] - 1;
+            }
+            
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        
+        if (size == counts.length) {
+            items = Arrays.copyOf(items, 2 * items.length);
+            counts = Arrays.copyOf(counts, 2 * counts.length);
+        }
+        
+        System.arraycopy(itemset, 0, items, size * width, width);
+        slots[slot] = ++size;
+        
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        
+        return size - 1;
+    }
+    
+    /**
+     * Returns the entry index of the itemset held in the first
+     * <code>width</code> entries of <code>itemset</code>.
+     * 
+     * @param  itemset the array holding the itemset.
+     * @return the entry index, or -1 if the itemset is not in this table.
+     */
+    public int indexOf(final int[] itemset) {
+        int slot = hash(itemset) & (slots.length - 1);
+        
+        while (slots[slot] != 0) {
+            if (matches(slots[slot] - 1, itemset)) {
+                return slots[slot] - 1;
+            }
+            
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Adds <code>amount</code> to the count of the entry <code>index</code>.
+     * 
+     * @param index  the entry index.
+     * @param amount the amount to add.
+     */
+    public void increment(final int index, final int amount) {
+        counts[index] += amount;
+    }
+    
+    /**
+     * Returns the count of the entry <code>index</code>.
+     * 
+     * @param  index the entry index.
+     * @return the support count.
+     */
+    public int getCount(final int index) {
+        return counts[index];
+    }
+    
+    /**
+     * Copies the itemset of the entry <code>index</code> to the beginning of
+     * <code>itemset</code>.
+     * 
+     * @param index   the entry index.
+     * @param itemset the destination array.
+     */
+    public void getItemset(final int index, final int[] itemset) {
+        System.arraycopy(items, index * width, itemset, 0, width);
+    }
+    
+    /**
+     * Returns the item at <code>position</code> in the itemset of the entry
+     * <code>index</code>.
+     * 
+     * @param  index    the entry index.
+     * @param  position the position within the itemset.
+     * @return the item code.
+     */
+    public int getItem(final int index, final int position) {
+        return items[index * width + position];
+    }
+    
+    /**
+     * Returns the amount of items in each itemset of this table.
+     * 
+     * @return the width of this table.
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Returns the amount of itemsets in this table.
+     * 
+     * @return the size of this table.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether the entry <code>index</code> holds <code>itemset</code>.
+     * 
+     * @param  index   the entry index.
+     * @param  itemset the array holding the itemset.
+     * @return <code>true</code> if the itemsets are equal.
+     */
+    private boolean matches(final int index, final int[] itemset) {
+        final int offset = index * width;
+        
+        for (int i = 0; i < width; ++i) {
+            if (items[offset + i] != itemset[i]) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Computes the hash of the first <code>width</code> items.
+     * 
+     * @param  itemset the array holding the itemset.
+     * @return the hash code.
+     */
+    private int hash(final int[] itemset) {
+        int h = 0;
+        
+        for (int i = 0; i < width; ++i) {
+            h = (h + itemset[i]) * 0x9E3779B9;
+        }
+        
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Doubles the slot array and reinserts all the entries.
+     */
+    private void rehash() {
+        slots = new int[2 * slots.length];
+        final int[] itemset = new int[width];
+        
+        for (int index = 0; index < size; ++index) {
+            getItemset(index, itemset);
+            int slot = hash(itemset) & (slots.length - 1);
+            
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            
+            slots[slot] = index + 1;
+        }
+    }
+    
+    /**
+     * Returns the smallest power of two being at least twice
+     * <code>capacity</code>.
+     * 
+     * @param  capacity the expected amount of entries.
+     * @return the capacity of the slot array.
+     */
+    private static int slotCapacity(final int capacity) {
+        int slotCapacity = MINIMUM_CAPACITY;
+        
+        while (slotCapacity < 2 * capacity) {
+            slotCapacity <<= 1;
+        }
+        
+        return slotCapacity;
+    }
+}
@@ -0,0 +1,377 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+
+/**
+ * This class implements a MAFIA-style algorithm for maximal frequent itemset
+ * generation. An itemset is maximal if it is frequent and none of its proper
+ * supersets is. The itemsets are searched depth first over tidsets: each node
+ * consists of a head itemset and a tail of the items extending the head
+ * frequently. Three prunings keep the search close to the maximal border:
+ * <ul>
+ *   <li>tail items occurring in every transaction of the head are moved into
+ *       the head, since every maximal superset of the head contains
+ *       them,</li>
+ *   <li>if the union of the head and the tail is contained in a maximal
+ *       itemset found earlier, the whole subtree is skipped,</li>
+ *   <li>if the union of the head and the tail is frequent (lookahead), it is
+ *       maximal and the whole subtree is skipped.</li>
+ * </ul>
+ * The returned data lists the maximal itemsets only, and its support count
+ * function knows the support counts of those itemsets only.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class MaximalFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * This class represents a tail item with the tidset of the head extended
+     * by it.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class Atom<I> {
+        
+        /**
+         * The tail item.
+         */
+        private final I item;
+        
+        /**
+         * The sorted tids of the head extended by the item.
+         */
+        private final int[] tids;
+        
+        Atom(final I item, final int[] tids) {
+            this.item = item;
+            this.tids = tids;
+        }
+    }
+    
+    /**
+     * The amount of search nodes skipped by the lookahead in the last run.
+     */
+    private int lookaheadAmount;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator the comparator for items.
+     */
+    public MaximalFrequentItemsetGenerator(final Comparator<I> comparator) {
+        super(comparator);
+    }
+    
+    /**
+     * Returns the amount of search nodes whose subtree was skipped in the last
+     * run because the union of their head and tail was frequent.
+     * 
+     * @return the amount of successful lookaheads.
+     */
+    public int getLookaheadAmount() {
+        return lookaheadAmount;
+    }
+    
+    /**
+     * Mines the maximal frequent itemsets from the transaction list. A
+     * frequent itemset is any itemset having support at least
+     * <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the maximal frequent itemsets and their
+     *         support counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final Map<I, int[]> tidMap = new HashMap<>();
+        final Map<I, Integer> lengthMap = new HashMap<>();
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            for (final I item : transaction) {
+                int[] tids = tidMap.get(item);
+                final Integer length = lengthMap.get(item);
+                final int n = length == null ? 0 : length;
+                
+                if (tids == null) {
+                    tids = new int[4];
+                    tidMap.put(item, tids);
+                } else if (n == tids.length) {
+                    tids = Arrays.copyOf(tids, 2 * n);
+                    tidMap.put(item, tids);
+                }
+                
+                tids[n] = transactionAmount;
+                lengthMap.put(item, n + 1);
+            }
+            
+            ++transactionAmount;
+        }
+        
+        final Search search =
+                new Search(getMinimumSupportCount(minimumSupport,
+                                                  transactionAmount),
+                           transactionAmount);
+        final int minimumCount = search.minimumCount;
+        final List<Atom<I>> tail = new ArrayList<>();
+        
+        for (final Map.Entry<I, int[]> e : tidMap.entrySet()) {
+            final int length = lengthMap.get(e.getKey());
+            
+            if (length >= minimumCount) {
+                tail.add(new Atom<>(e.getKey(),
+                                    Arrays.copyOf(e.getValue(), length)));
+            }
+        }
+        
+        if (!tail.isEmpty()) {
+            final int[] allTids = new int[transactionAmount];
+            
+            for (int tid = 0; tid < transactionAmount; ++tid) {
+                allTids[tid] = tid;
+            }
+            
+            search.mine(new HashSet<I>(), allTids, tail);
+        }
+        
+        lookaheadAmount = search.lookaheadAmount;
+        return new FrequentItemsetData<>(search.maximalItemsetList,
+                                         search.supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * This class holds the state of a single run, so that concurrent runs of
+     * the same generator do not interfere.
+     */
+    private final class Search {
+        
+        /**
+         * The maximal itemsets found so far.
+         */
+        private final List<Set<I>> maximalItemsetList = new ArrayList<>();
+        
+        /**
+         * Maps each item to the maximal itemsets found so far containing it.
+         */
+        private final Map<I, List<Set<I>>> maximalItemMap = new HashMap<>();
+        
+        /**
+         * The support counts of the maximal itemsets found so far.
+         */
+        private final AprioriSupportCountFunction<I> supportCountFunction;
+        
+        /**
+         * The minimum support count of the run.
+         */
+        private final int minimumCount;
+        
+        /**
+         * The amount of search nodes skipped by the lookahead so far.
+         */
+        private int lookaheadAmount;
+        
+        Search(final int minimumCount, final int transactionAmount) {
+            this.minimumCount = minimumCount;
+            this.supportCountFunction =
+                    new AprioriSupportCountFunction<>(transactionAmount);
+        }
+        
+        /**
+         * Searches the subtree of the node with the given head and tail.
+         * 
+         * @param head     the head itemset.
+         * @param headTids the sorted tids of the head.
+         * @param tail     the items extending the head frequently, each with
+         *                 the tidset of the extended head.
+         */
+        private void mine(final Set<I> head,
+                          final int[] headTids,
+                          final List<Atom<I>> tail) {
+            // Parent equivalence pruning.
+            final Set<I> newHead = new HashSet<>(head);
+            final List<Atom<I>> newTail = new ArrayList<>(tail.size());
+            
+            for (final Atom<I> atom : tail) {
+                if (atom.tids.length == headTids.length) {
+                    newHead.add(atom.item);
+                } else {
+                    newTail.add(atom);
+                }
+            }
+            
+            final Set<I> union = new HashSet<>(newHead);
+            
+            for (final Atom<I> atom : newTail) {
+                union.add(atom.item);
+            }
+            
+            // Superset pruning.
+            if (isSubsumed(union)) {
+                return;
+            }
+            
+            if (newTail.isEmpty()) {
+                addMaximal(newHead, headTids.length);
+                return;
+            }
+            
+            // Lookahead: the union of the head and the tail is frequent.
+            final int unionCount = getUnionCount(newTail);
+            
+            if (unionCount >= minimumCount) {
+                ++lookaheadAmount;
+                addMaximal(union, unionCount);
+                return;
+            }
+            
+            // Rare items first leaves the longest tails to the frequent items.
+            Collections.sort(newTail, new Comparator<Atom<I>>() {
+                
+                @Override
+                public int compare(final Atom<I> o1, final Atom<I> o2) {
+                    return o1.tids.length != o2.tids.length ?
+                           Integer.compare(o1.tids.length, o2.tids.length) :
+                           itemComparator.compare(o1.item, o2.item);
+                }
+            });
+            
+            for (int i = 0; i < newTail.size(); ++i) {
+                final Atom<I> atom = newTail.get(i);
+                final List<Atom<I>> childTail = new ArrayList<>();
+                final int[] buffer = new int[atom.tids.length];
+                
+                for (int j = i + 1; j < newTail.size(); ++j) {
+                    final Atom<I> other = newTail.get(j);
+                    final int length =
+                            EclatFrequentItemsetGenerator.intersect(
+                                    atom.tids,
+                                    atom.tids.length,
+                                    other.tids,
+                                    other.tids.length,
+                                    buffer);
+                    
+                    if (length >= minimumCount) {
+                        childTail.add(new Atom<>(other.item,
+                                                 Arrays.copyOf(buffer,
+                                                               length)));
+                    }
+                }
+                
+                final Set<I> childHead = new HashSet<>(newHead);
+                childHead.add(atom.item);
+                mine(childHead, atom.tids, childTail);
+            }
+        }
+        
+        /**
+         * Returns the support count of the union of the head and all the tail
+         * items, or a smaller count once it drops below the minimum support
+         * count.
+         * 
+         * @param  tail the tail.
+         * @return the support count of the union.
+         */
+        private int getUnionCount(final List<Atom<I>> tail) {
+            int[] tids = tail.get(0).tids;
+            int length = tids.length;
+            
+            if (tail.size() > 1) {
+                tids = Arrays.copyOf(tids, length);
+            }
+            
+            for (int i = 1; i < tail.size() && length >= minimumCount; ++i) {
+                final Atom<I> atom = tail.get(i);
+                length = EclatFrequentItemsetGenerator.intersect(
+                        tids,
+                        length,
+                        atom.tids,
+                        atom.tids.length,
+                        tids);
+            }
+            
+            return length;
+        }
+        
+        /**
+         * Checks whether a maximal itemset found so far contains
+         * <code>itemset</code>.
+         * 
+         * @param  itemset the itemset to check.
+         * @return <code>true</code> if the itemset is subsumed.
+         */
+        private boolean isSubsumed(final Set<I> itemset) {
+            // Every superset contains each item of the itemset, so it is enough
+            // to scan the shortest list.
+            List<Set<I>> maximalList = null;
+            
+            for (final I item : itemset) {
+                final List<Set<I>> list = maximalItemMap.get(item);
+                
+                if (list == null) {
+                    return false;
+                }
+                
+                if (maximalList == null || maximalList.size() > list.size()) {
+                    maximalList = list;
+                }
+            }
+            
+            if (maximalList == null) {
+                return !maximalItemsetList.isEmpty();
+            }
+            
+            for (final Set<I> maximal : maximalList) {
+                if (maximal.size() >= itemset.size()
+                        && maximal.containsAll(itemset)) {
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+        
+        /**
+         * Reports a new maximal itemset.
+         * 
+         * @param itemset      the maximal itemset.
+         * @param supportCount the support count of the itemset.
+         */
+        private void addMaximal(final Set<I> itemset, final int supportCount) {
+            if (itemset.isEmpty()) {
+                return;
+            }
+            
+            maximalItemsetList.add(itemset);
+            supportCountFunction.putSupportCount(itemset, supportCount);
+            
+            for (final I item : itemset) {
+                List<Set<I>> list = maximalItemMap.get(item);
+                
+                if (list == null) {
+                    list = new ArrayList<>();
+                    maximalItemMap.put(item, list);
+                }
+                
+                list.add(itemset);
+            }
+        }
+    }
+}
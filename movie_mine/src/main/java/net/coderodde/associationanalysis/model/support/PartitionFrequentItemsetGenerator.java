@@ -0,0 +1,363 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements the Partition algorithm for frequent itemset
+ * generation. The first scan cuts the transactions into partitions of at
+ * most a given amount of transactions and mines each partition with a local
+ * generator at the same relative minimum support. An itemset frequent in the
+ * whole database is frequent in at least one partition, so the union of the
+ * local results contains all the frequent itemsets. The second scan counts
+ * the global support of that union and keeps the frequent itemsets. Only a
+ * single partition, or one partition per worker of the fork-join pool, is
+ * held in memory at a time, besides the union of the local results.
+ * <p>
+ * A partition of very few transactions makes almost every subset of its
+ * transactions locally frequent, so a short last partition is merged into
+ * the one before it.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class PartitionFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * The smallest local minimum support count a partition is mined with,
+     * unless it is the only partition.
+     */
+    public static final int MINIMUM_LOCAL_SUPPORT_COUNT = 2;
+    
+    /**
+     * The maximum amount of transactions in a partition.
+     */
+    private final int partitionSize;
+    
+    /**
+     * The generator mining each partition.
+     */
+    private final AbstractFrequentItemsetGenerator<I> localGenerator;
+    
+    /**
+     * The fork-join pool mining the partitions, or <code>null</code> if they
+     * are mined in the calling thread.
+     */
+    private ForkJoinPool pool;
+    
+    /**
+     * The amount of global candidates the last run verified.
+     */
+    private int globalCandidateAmount;
+    
+    /**
+     * Constructs this itemset generator mining each partition with
+     * {@link IntAprioriFrequentItemsetGenerator}.
+     * 
+     * @param comparator    the comparator for items.
+     * @param partitionSize the maximum amount of transactions in a partition.
+     */
+    public PartitionFrequentItemsetGenerator(final Comparator<I> comparator,
+                                             final int partitionSize) {
+        this(comparator,
+             partitionSize,
+             new IntAprioriFrequentItemsetGenerator<>(comparator));
+    }
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator     the comparator for items.
+     * @param partitionSize  the maximum amount of transactions in a
+     *                       partition.
+     * @param localGenerator the generator mining each partition. If a pool is
+     *                       set, the generator is called from several threads
+     *                       at once.
+     */
+    public PartitionFrequentItemsetGenerator(
+            final Comparator<I> comparator,
+            final int partitionSize,
+            final AbstractFrequentItemsetGenerator<I> localGenerator) {
+        super(comparator);
+        checkNotNull(localGenerator, "The local generator is null.");
+        
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException(
+                    "The partition size must be positive: " + partitionSize);
+        }
+        
+        this.partitionSize = partitionSize;
+        this.localGenerator = localGenerator;
+    }
+    
+    /**
+     * Returns the fork-join pool mining the partitions.
+     * 
+     * @return the pool, or <code>null</code> if mining is sequential.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Sets the fork-join pool mining the partitions. With a pool, as many
+     * partitions as the pool has parallelism are collected and mined at once.
+     * Passing <code>null</code> makes mining sequential again.
+     * 
+     * @param pool the fork-join pool, or <code>null</code>.
+     */
+    public void setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Returns the amount of global candidates, that is, of distinct local
+     * frequent itemsets, the last run verified in its second scan.
+     * 
+     * @return the amount of global candidates.
+     */
+    public int getGlobalCandidateAmount() {
+        return globalCandidateAmount;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        final int batchSize = pool == null ? 1 : pool.getParallelism();
+        final List<List<Set<I>>> batch = new ArrayList<>(batchSize);
+        final Set<Set<I>> candidateSet = new HashSet<>();
+        List<Set<I>> partition = new ArrayList<>();
+        
+        // The last full partition is held back until it is known whether the
+        // remainder has to be merged into it.
+        List<Set<I>> previousPartition = null;
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            partition.add(transaction);
+            ++transactionAmount;
+            
+            if (partition.size() == partitionSize) {
+                if (previousPartition != null) {
+                    batch.add(previousPartition);
+                    
+                    if (batch.size() == batchSize) {
+                        mineBatch(batch, minimumSupport, candidateSet);
+                    }
+                }
+                
+                previousPartition = partition;
+                partition = new ArrayList<>();
+            }
+        }
+        
+        if (previousPartition != null && isShort(partition, minimumSupport)) {
+            previousPartition.addAll(partition);
+            partition.clear();
+        }
+        
+        if (previousPartition != null) {
+            batch.add(previousPartition);
+        }
+        
+        if (!partition.isEmpty()) {
+            batch.add(partition);
+        }
+        
+        mineBatch(batch, minimumSupport, candidateSet);
+        globalCandidateAmount = candidateSet.size();
+        
+        return verifyCandidates(transactions,
+                                candidateSet,
+                                minimumSupport,
+                                transactionAmount);
+    }
+    
+    /**
+     * Checks whether the last partition is too short to be mined on its own:
+     * it is shorter than half the partition size, or its local minimum
+     * support count is below {@link #MINIMUM_LOCAL_SUPPORT_COUNT}.
+     * 
+     * @param  partition      the last partition.
+     * @param  minimumSupport the minimum support.
+     * @return <code>true</code> if the partition should be merged.
+     */
+    private boolean isShort(final List<Set<I>> partition,
+                            final double minimumSupport) {
+        return 2 * partition.size() < partitionSize
+                || minimumSupport * partition.size()
+                   < MINIMUM_LOCAL_SUPPORT_COUNT;
+    }
+    
+    /**
+     * Mines each partition of <code>batch</code>, adds the local frequent
+     * itemsets to <code>candidateSet</code> and clears the batch.
+     * 
+     * @param batch          the partitions to mine.
+     * @param minimumSupport the minimum support.
+     * @param candidateSet   the set of global candidates.
+     */
+    private void mineBatch(final List<List<Set<I>>> batch,
+                           final double minimumSupport,
+                           final Set<Set<I>> candidateSet) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        final List<MineTask<I>> taskList = new ArrayList<>(batch.size());
+        
+        for (final List<Set<I>> partition : batch) {
+            taskList.add(new MineTask<>(localGenerator,
+                                        partition,
+                                        minimumSupport));
+        }
+        
+        if (pool == null) {
+            for (final MineTask<I> task : taskList) {
+                task.compute();
+            }
+        } else {
+            pool.invoke(new RecursiveAction() {
+                
+                @Override
+                protected void compute() {
+                    invokeAll(taskList);
+                }
+            });
+        }
+        
+        for (final MineTask<I> task : taskList) {
+            candidateSet.addAll(task.result.getFrequentItemsets());
+        }
+        
+        batch.clear();
+    }
+    
+    /**
+     * Counts the global support of each candidate in a second scan and
+     * returns the frequent ones.
+     * 
+     * @param  transactions      the transactions.
+     * @param  candidateSet      the union of the local frequent itemsets.
+     * @param  minimumSupport    the minimum support.
+     * @param  transactionAmount the amount of transactions.
+     * @return the frequent itemset data.
+     */
+    private FrequentItemsetData<I>
+        verifyCandidates(final Collection<Set<I>> transactions,
+                         final Set<Set<I>> candidateSet,
+                         final double minimumSupport,
+                         final int transactionAmount) {
+        final Map<Integer, List<Set<I>>> candidateMap = new HashMap<>();
+        
+        for (final Set<I> candidate : candidateSet) {
+            List<Set<I>> candidateList = candidateMap.get(candidate.size());
+            
+            if (candidateList == null) {
+                candidateList = new ArrayList<>();
+                candidateMap.put(candidate.size(), candidateList);
+            }
+            
+            candidateList.add(candidate);
+        }
+        
+        final List<CandidateTrie<I>> trieList = new ArrayList<>();
+        
+        for (final List<Set<I>> candidateList : candidateMap.values()) {
+            trieList.add(new CandidateTrie<>(candidateList, itemComparator));
+        }
+        
+        for (final Set<I> transaction : transactions) {
+            for (final CandidateTrie<I> trie : trieList) {
+                trie.count(transaction, 1);
+            }
+        }
+        
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        final List<Set<I>> frequentItemsetList = new ArrayList<>();
+        
+        for (final CandidateTrie<I> trie : trieList) {
+            for (int i = 0; i < trie.size(); ++i) {
+                final int count = trie.getCount(i);
+                
+                if (1.0 * count / transactionAmount >= minimumSupport) {
+                    final Set<I> itemset = trie.getCandidateList().get(i);
+                    frequentItemsetList.add(itemset);
+                    supportCountFunction.putSupportCount(itemset, count);
+                }
+            }
+        }
+        
+        return new FrequentItemsetData<>(frequentItemsetList,
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * This task mines a single partition.
+     * 
+     * @param <I> the actual item type.
+     */
+    private static final class MineTask<I> extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The generator mining the partition.
+         */
+        private final AbstractFrequentItemsetGenerator<I> localGenerator;
+        
+        /**
+         * The transactions of the partition.
+         */
+        private final List<Set<I>> partition;
+        
+        /**
+         * The minimum support.
+         */
+        private final double minimumSupport;
+        
+        /**
+         * The local frequent itemsets once this task is done.
+         */
+        private FrequentItemsetData<I> result;
+        
+        MineTask(final AbstractFrequentItemsetGenerator<I> localGenerator,
+                 final List<Set<I>> partition,
+                 final double minimumSupport) {
+            this.localGenerator = localGenerator;
+            this.partition = partition;
+            this.minimumSupport = minimumSupport;
+        }
+        
+        @Override
+        protected void compute() {
+            result = localGenerator.findFrequentItemsets(partition,
+                                                         minimumSupport);
+        }
+    }
+}
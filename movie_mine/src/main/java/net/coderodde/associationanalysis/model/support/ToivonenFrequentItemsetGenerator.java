@@ -0,0 +1,349 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements Toivonen's sampling algorithm for exact frequent
+ * itemset generation. A uniform random sample of the transactions is mined
+ * at a lowered minimum support, which gives a set <tt>S</tt> of itemsets
+ * likely to contain all the frequent ones. Its negative border consists of
+ * the itemsets not in <tt>S</tt> whose subsets one item smaller all are in
+ * <tt>S</tt>. A single scan counts both <tt>S</tt> and its border over all
+ * the transactions. If no border itemset is frequent, the frequent itemsets
+ * of <tt>S</tt> are exactly all the frequent itemsets. Otherwise, the border
+ * of the frequent itemsets found so far is counted in further scans until no
+ * new itemsets remain to be counted.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * @param <I> the actual item type.
+ */
+public class ToivonenFrequentItemsetGenerator<I>
+extends AbstractFrequentItemsetGenerator<I> {
+    
+    /**
+     * The amount of transactions in the sample.
+     */
+    private final int sampleSize;
+    
+    /**
+     * The factor in <tt>(0, 1]</tt> lowering the minimum support of the
+     * sample.
+     */
+    private final double loweringFactor;
+    
+    /**
+     * The random number generator for sampling.
+     */
+    private final Random random;
+    
+    /**
+     * The amount of counting scans over all the transactions the last run
+     * took.
+     */
+    private int passAmount;
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator     the comparator for items.
+     * @param sampleSize     the amount of transactions in the sample.
+     * @param loweringFactor the factor lowering the minimum support of the
+     *                       sample.
+     */
+    public ToivonenFrequentItemsetGenerator(final Comparator<I> comparator,
+                                            final int sampleSize,
+                                            final double loweringFactor) {
+        this(comparator, sampleSize, loweringFactor, new Random());
+    }
+    
+    /**
+     * Constructs this itemset generator.
+     * 
+     * @param comparator     the comparator for items.
+     * @param sampleSize     the amount of transactions in the sample.
+     * @param loweringFactor the factor lowering the minimum support of the
+     *                       sample.
+     * @param random         the random number generator for sampling.
+     */
+    public ToivonenFrequentItemsetGenerator(final Comparator<I> comparator,
+                                            final int sampleSize,
+                                            final double loweringFactor,
+                                            final Random random) {
+        super(comparator);
+        checkNotNull(random, "The random number generator is null.");
+        
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException(
+                    "The sample size must be positive: " + sampleSize);
+        }
+        
+        if (!(loweringFactor > 0.0 && loweringFactor <= 1.0)) {
+            throw new IllegalArgumentException(
+                    "The lowering factor must be within (0, 1]: " +
+                    loweringFactor);
+        }
+        
+        this.sampleSize = sampleSize;
+        this.loweringFactor = loweringFactor;
+        this.random = random;
+    }
+    
+    /**
+     * Returns the amount of scans over all the transactions the last run took.
+     * Drawing the sample takes a scan of its own unless the transactions are
+     * a random access list.
+     * 
+     * @return the amount of passes.
+     */
+    public int getPassAmount() {
+        return passAmount;
+    }
+    
+    /**
+     * Mines frequent patterns from the transaction list. A frequent pattern is
+     * any itemset having support at least <code>minimumSupport</code>.
+     * 
+     * @param transactions   the target transactions.
+     * @param minimumSupport the minimum support.
+     * @return a data object describing the frequent patterns and their support
+     *         counts.
+     */
+    @Override
+    public FrequentItemsetData<I>
+        findFrequentItemsets(final Collection<Set<I>> transactions,
+                             final double minimumSupport) {
+        passAmount = 0;
+        final List<Set<I>> sample = drawSample(transactions);
+        final Set<Set<I>> sampleItemsetSet = new HashSet<>(
+                new IntAprioriFrequentItemsetGenerator<>(itemComparator)
+                        .findFrequentItemsets(sample,
+                                              loweringFactor * minimumSupport)
+                        .getFrequentItemsets());
+        final Map<Set<I>, Integer> countMap = new HashMap<>();
+        final Set<Set<I>> frequentSet = new HashSet<>();
+        
+        // The single items outside the sample itemsets belong to the negative
+        // border as well, and the first scan counts all single items.
+        Set<Set<I>> candidateSet = new HashSet<>(sampleItemsetSet);
+        candidateSet.addAll(getNegativeBorder(sampleItemsetSet));
+        final int transactionAmount =
+                count(transactions, candidateSet, countMap, true);
+        final Set<Set<I>> countedSet = new HashSet<>(countMap.keySet());
+        ++passAmount;
+        
+        while (true) {
+            boolean borderFrequent = false;
+            
+            for (final Set<I> itemset : countedSet) {
+                if (1.0 * countMap.get(itemset) / transactionAmount
+                        >= minimumSupport) {
+                    frequentSet.add(itemset);
+                    borderFrequent |= !sampleItemsetSet.contains(itemset);
+                }
+            }
+            
+            if (!borderFrequent) {
+                break;
+            }
+            
+            // A border itemset is frequent, so supersets missed by the
+            // sample may be frequent as well.
+            candidateSet = getNegativeBorder(frequentSet);
+            candidateSet.removeAll(countMap.keySet());
+            
+            if (candidateSet.isEmpty()) {
+                break;
+            }
+            
+            count(transactions, candidateSet, countMap, false);
+            ++passAmount;
+            countedSet.clear();
+            countedSet.addAll(candidateSet);
+        }
+        
+        final AprioriSupportCountFunction<I> supportCountFunction =
+                new AprioriSupportCountFunction<>(transactionAmount);
+        
+        for (final Set<I> itemset : frequentSet) {
+            supportCountFunction.putSupportCount(itemset,
+                                                 countMap.get(itemset));
+        }
+        
+        return new FrequentItemsetData<>(new ArrayList<>(frequentSet),
+                                         supportCountFunction,
+                                         transactionAmount);
+    }
+    
+    /**
+     * Draws a uniform random sample of the transactions. A random access list
+     * is sampled by index without reading the other transactions. Any other
+     * collection is scanned once with reservoir sampling, which counts as a
+     * pass.
+     * 
+     * @param  transactions the transactions.
+     * @return the sample.
+     */
+    private List<Set<I>> drawSample(final Collection<Set<I>> transactions) {
+        final List<Set<I>> sample = new ArrayList<>();
+        
+        if (transactions instanceof List
+                && transactions instanceof RandomAccess) {
+            final List<Set<I>> transactionList = (List<Set<I>>) transactions;
+            final int n = transactionList.size();
+            
+            // Floyd's algorithm picks min(sampleSize, n) distinct indices.
+            final Set<Integer> indexSet = new HashSet<>();
+            
+            for (int j = n - Math.min(sampleSize, n); j < n; ++j) {
+                final int index = random.nextInt(j + 1);
+                indexSet.add(indexSet.contains(index) ? j : index);
+            }
+            
+            for (final int index : indexSet) {
+                sample.add(transactionList.get(index));
+            }
+            
+            return sample;
+        }
+        
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            if (transactionAmount < sampleSize) {
+                sample.add(transaction);
+            } else {
+                final int index = random.nextInt(transactionAmount + 1);
+                
+                if (index < sampleSize) {
+                    sample.set(index, transaction);
+                }
+            }
+            
+            ++transactionAmount;
+        }
+        
+        ++passAmount;
+        return sample;
+    }
+    
+    /**
+     * Returns the itemsets with more than one item in the negative border of
+     * the downward closed set of itemsets <code>itemsetSet</code>: the
+     * itemsets not in it whose subsets one item smaller all are in it. The
+     * single items of the border are not needed, since the first scan counts
+     * every single item.
+     * 
+     * @param  itemsetSet the downward closed set of itemsets.
+     * @return the negative border without single items.
+     */
+    private Set<Set<I>> getNegativeBorder(final Set<Set<I>> itemsetSet) {
+        final Map<Integer, Set<Set<I>>> levelMap = new HashMap<>();
+        
+        for (final Set<I> itemset : itemsetSet) {
+            Set<Set<I>> level = levelMap.get(itemset.size());
+            
+            if (level == null) {
+                level = new HashSet<>();
+                levelMap.put(itemset.size(), level);
+            }
+            
+            level.add(itemset);
+        }
+        
+        final Set<Set<I>> ret = new HashSet<>();
+        
+        for (final Set<Set<I>> level : levelMap.values()) {
+            for (final Set<I> candidate : generateCandidates(level)) {
+                if (!itemsetSet.contains(candidate)) {
+                    ret.add(candidate);
+                }
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Counts the support of each candidate over all the transactions in a
+     * single scan. If <code>countItems</code> is set, every single item is
+     * counted as well, which covers the single item candidates.
+     * 
+     * @param  transactions the transactions.
+     * @param  candidateSet the candidates.
+     * @param  countMap     the map receiving the counts.
+     * @param  countItems   whether to count all the single items.
+     * @return the amount of transactions.
+     */
+    private int count(final Collection<Set<I>> transactions,
+                      final Set<Set<I>> candidateSet,
+                      final Map<Set<I>, Integer> countMap,
+                      final boolean countItems) {
+        final Map<Integer, List<Set<I>>> sizeMap = new HashMap<>();
+        
+        for (final Set<I> candidate : candidateSet) {
+            if (countItems && candidate.size() == 1) {
+                continue;
+            }
+            
+            List<Set<I>> candidateList = sizeMap.get(candidate.size());
+            
+            if (candidateList == null) {
+                candidateList = new ArrayList<>();
+                sizeMap.put(candidate.size(), candidateList);
+            }
+            
+            candidateList.add(candidate);
+        }
+        
+        final List<CandidateTrie<I>> trieList = new ArrayList<>();
+        
+        for (final List<Set<I>> candidateList : sizeMap.values()) {
+            trieList.add(new CandidateTrie<>(candidateList, itemComparator));
+        }
+        
+        final Map<I, Integer> itemCountMap = new HashMap<>();
+        int transactionAmount = 0;
+        
+        for (final Set<I> transaction : transactions) {
+            if (countItems) {
+                for (final I item : transaction) {
+                    final Integer count = itemCountMap.get(item);
+                    itemCountMap.put(item, count == null ? 1 : count + 1);
+                }
+            }
+            
+            for (final CandidateTrie<I> trie : trieList) {
+                trie.count(transaction, 1);
+            }
+            
+            ++transactionAmount;
+        }
+        
+        for (final CandidateTrie<I> trie : trieList) {
+            for (int i = 0; i < trie.size(); ++i) {
+                countMap.put(trie.getCandidateList().get(i), trie.getCount(i));
+            }
+        }
+        
+        for (final Map.Entry<I, Integer> e : itemCountMap.entrySet()) {
+            final Set<I> oneItemset = new HashSet<>(1);
+            oneItemset.add(e.getKey());
+            countMap.put(oneItemset, e.getValue());
+        }
+        
+        return transactionAmount;
+    }
+}
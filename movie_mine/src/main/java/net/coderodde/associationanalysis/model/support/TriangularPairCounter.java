@@ -0,0 +1,97 @@
+package net.coderodde.associationanalysis.model.support;
+
+/**
+ * This class counts the support of all pairs of <tt>n</tt> items in a flat
+ * triangular matrix. The items are identified by their ranks
+ * <tt>0, 1, ..., n - 1</tt>, and the pair <tt>(i, j)</tt> with
+ * <tt>i &lt; j</tt> occupies the entry
+ * <tt>i (2n - i - 1) / 2 + j - i - 1</tt>, so that the matrix needs exactly
+ * <tt>n (n - 1) / 2</tt> counters and no candidate pairs are ever generated.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public final class TriangularPairCounter {
+    
+    /**
+     * The largest amount of items whose pairs fit in an array.
+     */
+    public static final int MAXIMUM_ITEM_AMOUNT = 46341;
+    
+    /**
+     * The amount of items.
+     */
+    private final int itemAmount;
+    
+    /**
+     * The pair counts.
+     */
+    private final int[] counts;
+    
+    /**
+     * Constructs a counter for all pairs of <code>itemAmount</code> items.
+     * 
+     * @param itemAmount the amount of items.
+     */
+    public TriangularPairCounter(final int itemAmount) {
+        if (itemAmount < 0 || itemAmount > MAXIMUM_ITEM_AMOUNT) {
+            throw new IllegalArgumentException(
+                    "The amount of items must be within [0, " +
+                    MAXIMUM_ITEM_AMOUNT + "]: " + itemAmount);
+        }
+        
+        this.itemAmount = itemAmount;
+        this.counts = new int[(int)(1L * itemAmount * (itemAmount - 1) / 2)];
+    }
+    
+    /**
+     * Adds <code>weight</code> to the count of each pair of the first
+     * <code>length</code> ranks in <code>ranks</code>, which must be distinct
+     * and sorted in ascending order.
+     * 
+     * @param ranks  the sorted item ranks of a transaction.
+     * @param length the amount of ranks.
+     * @param weight the weight of the transaction.
+     */
+    public void count(final int[] ranks, final int length, final int weight) {
+        for (int a = 0; a < length - 1; ++a) {
+            final int rowOffset = rowOffset(ranks[a]);
+            
+            for (int b = a + 1; b < length; ++b) {
+                counts[rowOffset + ranks[b]] += weight;
+            }
+        }
+    }
+    
+    /**
+     * Returns the count of the pair of ranks <code>i</code> and
+     * <code>j</code>, where <tt>i &lt; j</tt>.
+     * 
+     * @param  i the smaller rank.
+     * @param  j the larger rank.
+     * @return the support count of the pair.
+     */
+    public int getCount(final int i, final int j) {
+        return counts[rowOffset(i) + j];
+    }
+    
+    /**
+     * Returns the amount of items.
+     * 
+     * @return the amount of items.
+     */
+    public int getItemAmount() {
+        return itemAmount;
+    }
+    
+    /**
+     * Returns the offset such that the pair <tt>(i, j)</tt> is at the entry
+     * <tt>offset + j</tt>.
+     * 
+     * @param  i the smaller rank.
+     * @return the row offset.
+     */
+    private int rowOffset(final int i) {
+        return (int)(1L * i * (2 * itemAmount - i - 1) / 2) - i - 1;
+    }
+}
@@ -1,6 +1,7 @@
 package net.coderodde.moviemine;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import net.coderodde.associationanalysis.model.AbstractAssociationRuleGenerator;
@@ -11,6 +12,7 @@ import net.coderodde.associationanalysis.model.support.DefaultAssociationRuleGen
 import net.coderodde.moviemine.loader.AbstractDataLoader;
 import net.coderodde.moviemine.loader.support.MovieLens10MDataLoader;
 import net.coderodde.moviemine.loader.support.MovieLens1MDataLoader;
+import net.coderodde.moviemine.loader.support.SnapshotDataLoader;
 import net.coderodde.moviemine.model.AssociationRule;
 import net.coderodde.moviemine.model.DefaultDatabase;
 import net.coderodde.moviemine.model.Movie;
@@ -24,6 +26,11 @@ import net.coderodde.moviemine.util.Utilities;
  */
 public class App {
     
+    /**
+     * The name of the database snapshot file within the data directory.
+     */
+    private static final String SNAPSHOT_FILE_NAME = "movie_mine.snapshot";
+    
     /**
      * The entry point into the program. If <code>args</code> is not empty,
      * <code>args[0]</code> is assumed to be the absolute path to the data 
@@ -48,7 +55,7 @@ public class App {
         final double minimumConfidence = 0.7;
         
         final FrequentItemsetData<Movie> data = 
-                minePatternsWithApriori(db.select(), minimumSupport);
+                minePatternsWithApriori(db.view(), minimumSupport);
         
         System.out.println("Frequent itemsets:");
         
@@ -121,8 +128,15 @@ public class App {
      */
     private static DefaultDatabase load1M(final File dataDirectoryFile) {
         long ta = System.currentTimeMillis();
-        final AbstractDataLoader dataLoader = 
+        final AbstractDataLoader sourceDataLoader = 
                 new MovieLens1MDataLoader(dataDirectoryFile);
+        sourceDataLoader.setRatingParsingMode(
+                AbstractDataLoader.RatingParsingMode.PARALLEL_MEMORY_MAPPED);
+        
+        final AbstractDataLoader dataLoader = 
+                new SnapshotDataLoader(sourceDataLoader,
+                                       new File(dataDirectoryFile,
+                                                SNAPSHOT_FILE_NAME));
         
         final DefaultDatabase db = dataLoader.load();
         long tb = System.currentTimeMillis();
@@ -141,8 +155,15 @@ public class App {
      */
     private static DefaultDatabase load10M(final File dataDirectoryFile) {
         long ta = System.currentTimeMillis();
-        final AbstractDataLoader dataLoader = 
+        final AbstractDataLoader sourceDataLoader = 
                 new MovieLens10MDataLoader(dataDirectoryFile);
+        sourceDataLoader.setRatingParsingMode(
+                AbstractDataLoader.RatingParsingMode.PARALLEL_MEMORY_MAPPED);
+        
+        final AbstractDataLoader dataLoader = 
+                new SnapshotDataLoader(sourceDataLoader,
+                                       new File(dataDirectoryFile,
+                                                SNAPSHOT_FILE_NAME));
         
         final DefaultDatabase db = dataLoader.load();
         long tb = System.currentTimeMillis();
@@ -156,18 +177,25 @@ public class App {
      * Mines the frequent patterns, prints the duration of that operation, and
      * finally returns the frequent itemsets.
      * 
-     * @param  transactionList the list of transactions to mine.
+     * @param  transactions   the transactions to mine.
      * @param  minimumSupport  the minimum support.
      * @return the frequent itemset data.
      */
     private static FrequentItemsetData<Movie> 
-    minePatternsWithApriori(final List<Set<Movie>> transactionList,
+    minePatternsWithApriori(final Collection<Set<Movie>> transactions,
                             final double minimumSupport) {
         final long ta = System.currentTimeMillis();
-        final FrequentItemsetData<Movie> data = 
+        final AprioriFrequentItemsetGenerator<Movie> generator = 
                 new AprioriFrequentItemsetGenerator<>
-                    (Movie.defaultMovieComparator)
-                .findFrequentItemsets(transactionList, minimumSupport);
+                    (Movie.defaultMovieComparator);
+        generator.setTransactionDeduplication(true);
+        // The movies fit in the triangular matrix, which counts every pair 
+        // without candidates, so the DHP filter would only cost hashing.
+        generator.setTriangularPairCounting(true);
+        generator.setTransactionTrimming(true);
+        
+        final FrequentItemsetData<Movie> data = 
+                generator.findFrequentItemsets(transactions, minimumSupport);
         final long tb = System.currentTimeMillis();
         
         System.out.println("Mined the frequent patterns with minimum support " +
@@ -1,6 +1,11 @@
 package net.coderodde.moviemine.loader;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import net.coderodde.moviemine.model.CompressedDatabase;
 import net.coderodde.moviemine.model.DefaultDatabase;
+import static net.coderodde.util.Validation.checkNotNull;
 
 /**
  * This abstract class defines the API for all classes loading the MovieLens 
@@ -11,10 +16,85 @@ import net.coderodde.moviemine.model.DefaultDatabase;
  */
 public abstract class AbstractDataLoader {
     
+    /**
+     * Defines the ways the rating file may be parsed.
+     */
+    public enum RatingParsingMode {
+        
+        /**
+         * Reads the rating file line by line via a scanner and splits each
+         * line with a regular expression.
+         */
+        SCANNER,
+        
+        /**
+         * Memory-maps the rating file and parses the raw bytes directly into
+         * primitive values.
+         */
+        MEMORY_MAPPED,
+        
+        /**
+         * Memory-maps the rating file, splits it into chunks aligned to line
+         * boundaries and parses the chunks in parallel. The database is also
+         * built in parallel.
+         */
+        PARALLEL_MEMORY_MAPPED
+    }
+    
+    /**
+     * The mode used for parsing the rating file.
+     */
+    private RatingParsingMode ratingParsingMode = RatingParsingMode.SCANNER;
+    
     /**
      * Loads the data and constructs a default database from it.
      * 
      * @return the database.
      */
     public abstract DefaultDatabase load();
+    
+    /**
+     * Loads the data and constructs a compressed database from it.
+     * <p>
+     * This implementation compresses the default database returned by 
+     * {@link #load()}; loaders that can build the compressed rows straight 
+     * from the rating table should override this method.
+     * 
+     * @return the compressed database.
+     */
+    public CompressedDatabase loadCompressed() {
+        final DefaultDatabase database = load();
+        return database == null ? null : new CompressedDatabase(database);
+    }
+    
+    /**
+     * Returns the list of files the data is loaded from. A database loaded
+     * from the files is considered up to date for as long as none of the 
+     * files change.
+     * 
+     * @return the list of source files.
+     */
+    public List<File> getSourceFiles() {
+        return Collections.<File>emptyList();
+    }
+    
+    /**
+     * Returns the mode used for parsing the rating file.
+     * 
+     * @return the rating parsing mode.
+     */
+    public RatingParsingMode getRatingParsingMode() {
+        return ratingParsingMode;
+    }
+    
+    /**
+     * Selects the mode used for parsing the rating file.
+     * 
+     * @param ratingParsingMode the rating parsing mode.
+     */
+    public void setRatingParsingMode
+        (final RatingParsingMode ratingParsingMode) {
+        checkNotNull(ratingParsingMode, "The rating parsing mode is null.");
+        this.ratingParsingMode = ratingParsingMode;
+    }
 }
@@ -0,0 +1,469 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.moviemine.model.CompressedDatabase;
+import net.coderodde.moviemine.model.DefaultDatabase;
+import net.coderodde.moviemine.model.Movie;
+import net.coderodde.moviemine.model.RatingTable;
+import net.coderodde.moviemine.model.User;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class writes and reads binary snapshots of a {@link DefaultDatabase}.
+ * A snapshot consists of a header, a user table, a movie table, the ratings
+ * stored as four column arrays: user codes, movie codes, scores and 
+ * timestamps, and the transactions in the compressed sparse row form of 
+ * {@link CompressedDatabase}: the row offsets of the users followed by the
+ * movie codes of all rows. The user and movie codes are indices into the 
+ * respective tables.
+ * <p>
+ * The header records the size and the modification time of each source file
+ * the database was loaded from. A snapshot is considered stale as soon as any
+ * of those change.
+ * <p>
+ * The codes in a snapshot are the codes of the database itself, so the writer
+ * dumps the columns of its rating table as they are. The reader memory-maps 
+ * the snapshot file and bulk-copies the arrays it needs to the heap without 
+ * looking up any IDs. {@link #read(File, List)} copies the rating columns 
+ * and still rebuilds the transactions of a default database from them, 
+ * whereas {@link #readCompressed(File, List)} skips the rating columns and 
+ * restores the stored rows as they are, which is only a copy of two arrays.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DatabaseSnapshot {
+    
+    /**
+     * The magic number identifying snapshot files.
+     */
+    private static final int MAGIC = 0x4d4d534e;
+    
+    /**
+     * The version of the snapshot file format.
+     */
+    private static final int VERSION = 2;
+    
+    /**
+     * The gender code of a user with no gender.
+     */
+    private static final byte NO_GENDER = 0;
+    
+    /**
+     * The gender code of a female user.
+     */
+    private static final byte FEMALE = 1;
+    
+    /**
+     * The gender code of a male user.
+     */
+    private static final byte MALE = 2;
+    
+    /**
+     * Writes the snapshot of <code>database</code> to <code>file</code>. The
+     * snapshot is first written to a temporary file, which then replaces
+     * <code>file</code>, so that a reader never sees a partial snapshot. The
+     * temporary file is deleted if writing fails.
+     * 
+     * @param  database    the database to write.
+     * @param  file        the snapshot file.
+     * @param  sourceFiles the files the database was loaded from.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(final DefaultDatabase database,
+                             final File file,
+                             final List<File> sourceFiles) throws IOException {
+        checkNotNull(database, "The database is null.");
+        checkNotNull(file, "The snapshot file is null.");
+        checkNotNull(sourceFiles, "The source file list is null.");
+        
+        final List<User> userList = database.getUserView();
+        final List<Movie> movieList = database.getMovieView();
+        final RatingTable ratingTable = database.getRatingTable();
+        final CompressedDatabase compressedDatabase = 
+                new CompressedDatabase(userList, movieList, ratingTable);
+        
+        final File temporaryFile = new File(file.getAbsolutePath() + ".tmp");
+        
+        try {
+            writeTemporaryFile(temporaryFile,
+                               sourceFiles,
+                               userList,
+                               movieList,
+                               ratingTable,
+                               compressedDatabase);
+            Files.move(temporaryFile.toPath(),
+                       file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException | RuntimeException ex) {
+            Files.deleteIfExists(temporaryFile.toPath());
+            throw ex;
+        }
+    }
+    
+    /**
+     * Writes the snapshot to the temporary file.
+     * 
+     * @param  temporaryFile      the temporary file.
+     * @param  sourceFiles        the files the database was loaded from.
+     * @param  userList           the list of users.
+     * @param  movieList          the list of movies.
+     * @param  ratingTable        the table of ratings.
+     * @param  compressedDatabase the compressed rows of the database.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeTemporaryFile(
+            final File temporaryFile,
+            final List<File> sourceFiles,
+            final List<User> userList,
+            final List<Movie> movieList,
+            final RatingTable ratingTable,
+            final CompressedDatabase compressedDatabase) throws IOException {
+        final int ratingAmount = ratingTable.size();
+        
+        try (final DataOutputStream out =
+                new DataOutputStream(
+                new BufferedOutputStream(
+                new FileOutputStream(temporaryFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sourceFiles.size());
+            
+            for (final File sourceFile : sourceFiles) {
+                out.writeLong(sourceFile.length());
+                out.writeLong(sourceFile.lastModified());
+            }
+            
+            out.writeInt(userList.size());
+            
+            for (final User user : userList) {
+                writeString(out, user.getId());
+                out.writeByte(user.getGender() == null ?
+                              NO_GENDER :
+                              user.getGender() == User.Gender.FEMALE ?
+                              FEMALE :
+                              MALE);
+                out.writeInt(user.getAge());
+                writeString(out, user.getOccupation());
+                writeString(out, user.getZipCode());
+            }
+            
+            out.writeInt(movieList.size());
+            
+            for (final Movie movie : movieList) {
+                final Set<String> genreSet = movie.getGenres();
+                writeString(out, movie.getId());
+                writeString(out, movie.getTitle());
+                out.writeInt(genreSet.size());
+                
+                for (final String genre : genreSet) {
+                    writeString(out, genre);
+                }
+            }
+            
+            out.writeInt(ratingAmount);
+            
+            for (int i = 0; i < ratingAmount; ++i) {
+                out.writeInt(ratingTable.getUserCode(i));
+            }
+            
+            for (int i = 0; i < ratingAmount; ++i) {
+                out.writeInt(ratingTable.getMovieCode(i));
+            }
+            
+            for (int i = 0; i < ratingAmount; ++i) {
+                out.writeFloat(ratingTable.getScore(i));
+            }
+            
+            for (int i = 0; i < ratingAmount; ++i) {
+                out.writeLong(ratingTable.getTimestamp(i));
+            }
+            
+            int offset = 0;
+            out.writeInt(offset);
+            
+            for (int userCode = 0; userCode < userList.size(); ++userCode) {
+                offset += compressedDatabase.getTransactionLength(userCode);
+                out.writeInt(offset);
+            }
+            
+            for (int userCode = 0; userCode < userList.size(); ++userCode) {
+                final int length = 
+                        compressedDatabase.getTransactionLength(userCode);
+                
+                for (int i = 0; i < length; ++i) {
+                    out.writeInt(compressedDatabase.getMovieCode(userCode, i));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads the snapshot in <code>file</code>.
+     * 
+     * @param  file        the snapshot file.
+     * @param  sourceFiles the files the database was originally loaded from.
+     * @return the database, or <code>null</code> if <code>file</code> does not
+     *         exist or if it is not a valid snapshot for the current state of
+     *         <code>sourceFiles</code>.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static DefaultDatabase read(final File file,
+                                       final List<File> sourceFiles)
+    throws IOException {
+        checkNotNull(file, "The snapshot file is null.");
+        checkNotNull(sourceFiles, "The source file list is null.");
+        
+        final ByteBuffer buffer = map(file, sourceFiles);
+        
+        if (buffer == null) {
+            return null;
+        }
+        
+        final List<User> userList = readUserList(buffer);
+        final List<Movie> movieList = readMovieList(buffer);
+        final int ratingAmount = buffer.getInt();
+        final int[] userCodes = new int[ratingAmount];
+        final int[] movieCodes = new int[ratingAmount];
+        final float[] scores = new float[ratingAmount];
+        final long[] timestamps = new long[ratingAmount];
+        
+        sliceColumn(buffer, 4, ratingAmount).asIntBuffer().get(userCodes);
+        sliceColumn(buffer, 4, ratingAmount).asIntBuffer().get(movieCodes);
+        sliceColumn(buffer, 4, ratingAmount).asFloatBuffer().get(scores);
+        sliceColumn(buffer, 8, ratingAmount).asLongBuffer().get(timestamps);
+        
+        return new DefaultDatabase(userList,
+                                   movieList,
+                                   new RatingTable(userCodes,
+                                                   movieCodes,
+                                                   scores,
+                                                   timestamps),
+                                   ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Reads the compressed rows of the snapshot in <code>file</code>. The 
+     * rating columns are skipped, and the rows are restored without 
+     * rebuilding them.
+     * 
+     * @param  file        the snapshot file.
+     * @param  sourceFiles the files the database was originally loaded from.
+     * @return the compressed database, or <code>null</code> if 
+     *         <code>file</code> does not exist or if it is not a valid 
+     *         snapshot for the current state of <code>sourceFiles</code>.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static CompressedDatabase readCompressed(
+            final File file,
+            final List<File> sourceFiles) throws IOException {
+        checkNotNull(file, "The snapshot file is null.");
+        checkNotNull(sourceFiles, "The source file list is null.");
+        final ByteBuffer buffer = map(file, sourceFiles);
+        
+        if (buffer == null) {
+            return null;
+        }
+        
+        final List<User> userList = readUserList(buffer);
+        final List<Movie> movieList = readMovieList(buffer);
+        final int ratingAmount = buffer.getInt();
+        
+        // Skip the user code, movie code, score and timestamp columns.
+        buffer.position(buffer.position() + 20 * ratingAmount);
+        
+        final int[] offsets = new int[userList.size() + 1];
+        sliceColumn(buffer, 4, offsets.length).asIntBuffer().get(offsets);
+        
+        final int[] movieCodes = new int[offsets[userList.size()]];
+        sliceColumn(buffer, 4, movieCodes.length).asIntBuffer()
+                                                 .get(movieCodes);
+        
+        return new CompressedDatabase(userList, movieList, offsets, movieCodes);
+    }
+    
+    /**
+     * Memory-maps <code>file</code> and reads its header.
+     * 
+     * @param  file        the snapshot file.
+     * @param  sourceFiles the files the database was originally loaded from.
+     * @return the buffer positioned past the header, or <code>null</code> if
+     *         <code>file</code> does not exist or if it is not a valid 
+     *         snapshot for the current state of <code>sourceFiles</code>.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static ByteBuffer map(final File file,
+                                  final List<File> sourceFiles)
+    throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        
+        final MappedByteBuffer buffer;
+        
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r");
+             final FileChannel channel = raf.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                                 0L,
+                                 channel.size());
+        }
+        
+        return isValid(buffer, sourceFiles) ? buffer : null;
+    }
+    
+    /**
+     * Reads the user table.
+     * 
+     * @param  buffer the buffer positioned at the user table.
+     * @return the list of users.
+     */
+    private static List<User> readUserList(final ByteBuffer buffer) {
+        final int userAmount = buffer.getInt();
+        final List<User> userList = new ArrayList<>(userAmount);
+        
+        for (int i = 0; i < userAmount; ++i) {
+            final String id = readString(buffer);
+            final byte genderCode = buffer.get();
+            final int age = buffer.getInt();
+            final String occupation = readString(buffer);
+            final String zipCode = readString(buffer);
+            final User.Gender gender = genderCode == FEMALE ?
+                                       User.Gender.FEMALE :
+                                       genderCode == MALE ?
+                                       User.Gender.MALE :
+                                       null;
+            
+            userList.add(new User(id, gender, age, occupation, zipCode));
+        }
+        
+        return userList;
+    }
+    
+    /**
+     * Reads the movie table.
+     * 
+     * @param  buffer the buffer positioned at the movie table.
+     * @return the list of movies.
+     */
+    private static List<Movie> readMovieList(final ByteBuffer buffer) {
+        final int movieAmount = buffer.getInt();
+        final List<Movie> movieList = new ArrayList<>(movieAmount);
+        
+        for (int i = 0; i < movieAmount; ++i) {
+            final String id = readString(buffer);
+            final String title = readString(buffer);
+            final String[] genres = new String[buffer.getInt()];
+            
+            for (int j = 0; j < genres.length; ++j) {
+                genres[j] = readString(buffer);
+            }
+            
+            movieList.add(new Movie(id, title, genres));
+        }
+        
+        return movieList;
+    }
+    
+    /**
+     * Reads the header in <code>buffer</code> and checks that it describes a
+     * snapshot of the current <code>sourceFiles</code>.
+     * 
+     * @param  buffer      the buffer positioned at the beginning of the
+     *                     snapshot.
+     * @param  sourceFiles the source files.
+     * @return <code>true</code> if the snapshot is up to date.
+     */
+    private static boolean isValid(final ByteBuffer buffer,
+                                   final List<File> sourceFiles) {
+        if (buffer.remaining() < 12
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getInt() != sourceFiles.size()) {
+            return false;
+        }
+        
+        for (final File sourceFile : sourceFiles) {
+            if (buffer.getLong() != sourceFile.length()
+                    || buffer.getLong() != sourceFile.lastModified()) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns a slice of <code>buffer</code> holding a column of
+     * <code>length</code> values each <code>width</code> bytes wide, and
+     * advances the position of <code>buffer</code> past the column.
+     * 
+     * @param  buffer the buffer.
+     * @param  width  the width of a single value in bytes.
+     * @param  length the amount of values in the column.
+     * @return the column.
+     */
+    private static ByteBuffer sliceColumn(final ByteBuffer buffer,
+                                          final int width,
+                                          final int length) {
+        final ByteBuffer column = buffer.slice();
+        column.limit(width * length);
+        buffer.position(buffer.position() + width * length);
+        return column;
+    }
+    
+    /**
+     * Writes a possibly <code>null</code> string.
+     * 
+     * @param  out    the output stream.
+     * @param  string the string to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeString(final DataOutputStream out,
+                                    final String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * Reads a possibly <code>null</code> string.
+     * 
+     * @param  buffer the buffer to read from.
+     * @return the string.
+     */
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        
+        if (length < 0) {
+            return null;
+        }
+        
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,309 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import static net.coderodde.util.Validation.checkFileExists;
+import static net.coderodde.util.Validation.checkFileIsRegular;
+import static net.coderodde.util.Validation.checkIntegerNotNegative;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a parser for MovieLens rating files. The file is
+ * memory-mapped and its raw bytes are scanned for the <code>::</code> and
+ * newline separators, so that the fields of each line are converted directly
+ * into primitive values without creating any intermediate strings.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class MemoryMappedRatingParser {
+    
+    /**
+     * This interface defines the API for receiving the parsed ratings.
+     */
+    public interface RatingHandler {
+        
+        /**
+         * Handles a single parsed rating.
+         * 
+         * @param userId    the ID of the user.
+         * @param movieId   the ID of the movie.
+         * @param score     the rating score.
+         * @param timestamp the timestamp of the rating.
+         */
+        void handle(final int userId,
+                    final int movieId,
+                    final float score,
+                    final long timestamp);
+    }
+    
+    /**
+     * The maximum amount of bytes mapped at a time. A single mapping may not
+     * exceed 2 GB, so larger files are processed in several regions.
+     */
+    private static final long MAXIMUM_REGION_SIZE = 1L << 30;
+    
+    /**
+     * The file to parse.
+     */
+    private final File file;
+    
+    /**
+     * Constructs a parser for the rating file <code>file</code>.
+     * 
+     * @param file the rating file.
+     */
+    public MemoryMappedRatingParser(final File file) {
+        checkNotNull(file, "The file is null.");
+        checkFileExists(file, "The file \"" + file.getAbsolutePath() + "\"" +
+                              " does not exist.");
+        checkFileIsRegular(file, "The file \"" + file.getAbsolutePath() +
+                                 "\" is not a regular file.");
+        this.file = file;
+    }
+    
+    /**
+     * Returns the size of the rating file in bytes.
+     * 
+     * @return the file size.
+     */
+    public long getFileSize() {
+        return file.length();
+    }
+    
+    /**
+     * Splits the rating file into at most <code>chunkAmount</code> byte ranges
+     * of roughly equal size. Each range begins at the beginning of a line and
+     * ends right after a newline character or at the end of the file. The 
+     * <code>i</code>th range is <code>[bounds[i], bounds[i + 1])</code>.
+     * 
+     * @param  chunkAmount the requested amount of chunks.
+     * @return the chunk bounds.
+     * @throws IOException if an I/O error occurs.
+     */
+    public long[] split(final int chunkAmount) throws IOException {
+        checkIntegerNotNegative(chunkAmount - 1, 
+                                "The chunk amount must be positive: " + 
+                                chunkAmount);
+        final long size = file.length();
+        final long[] bounds = new long[chunkAmount + 1];
+        int boundAmount = 1;
+        
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (int i = 1; i < chunkAmount; ++i) {
+                long position = Math.max(size * i / chunkAmount,
+                                         bounds[boundAmount - 1]);
+                
+                if (position >= size) {
+                    break;
+                }
+                
+                raf.seek(position);
+                int b;
+                
+                while ((b = raf.read()) != -1 && b != '\n') {
+                    ++position;
+                }
+                
+                position = Math.min(size, position + 1);
+                
+                if (position > bounds[boundAmount - 1] && position < size) {
+                    bounds[boundAmount++] = position;
+                }
+            }
+        }
+        
+        bounds[boundAmount++] = size;
+        return Arrays.copyOf(bounds, boundAmount);
+    }
+    
+    /**
+     * Parses the entire rating file.
+     * 
+     * @param  handler the handler receiving the ratings.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void parse(final RatingHandler handler) throws IOException {
+        parse(0L, file.length(), handler);
+    }
+    
+    /**
+     * Parses the lines of the rating file starting within the byte range
+     * <code>[start, end)</code>. <code>start</code> must point to the
+     * beginning of a line.
+     * 
+     * @param  start   the starting byte offset, inclusive.
+     * @param  end     the ending byte offset, exclusive.
+     * @param  handler the handler receiving the ratings.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void parse(final long start,
+                      final long end,
+                      final RatingHandler handler) throws IOException {
+        checkNotNull(handler, "The rating handler is null.");
+        
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r");
+             final FileChannel channel = raf.getChannel()) {
+            long regionStart = start;
+            
+            while (regionStart < end) {
+                long regionEnd = Math.min(end,
+                                          regionStart + MAXIMUM_REGION_SIZE);
+                final MappedByteBuffer buffer =
+                        channel.map(FileChannel.MapMode.READ_ONLY,
+                                    regionStart,
+                                    regionEnd - regionStart);
+                
+                if (regionEnd < end) {
+                    // Do not split a line between two regions.
+                    int limit = buffer.limit();
+                    
+                    while (limit > 0 && buffer.get(limit - 1) != '\n') {
+                        --limit;
+                    }
+                    
+                    if (limit == 0) {
+                        throw new IOException(
+                                "A line exceeds the maximum region size at " +
+                                "offset " + regionStart + ".");
+                    }
+                    
+                    buffer.limit(limit);
+                    regionEnd = regionStart + limit;
+                }
+                
+                parseRegion(buffer, regionStart, handler);
+                regionStart = regionEnd;
+            }
+        }
+    }
+    
+    /**
+     * Parses all the lines in <code>buffer</code>.
+     * 
+     * @param buffer  the buffer to parse.
+     * @param offset  the file offset of the buffer. Used in error messages.
+     * @param handler the handler receiving the ratings.
+     */
+    private static void parseRegion(final MappedByteBuffer buffer,
+                                    final long offset,
+                                    final RatingHandler handler) {
+        final int limit = buffer.limit();
+        int position = 0;
+        
+        while (position < limit) {
+            byte b = buffer.get(position);
+            
+            if (b == '\n' || b == '\r' || b == ' ' || b == '\t') {
+                ++position;
+                continue;
+            }
+            
+            // User ID.
+            int userId = 0;
+            
+            while (position < limit && (b = buffer.get(position)) != ':') {
+                checkDigit(b, offset + position);
+                userId = 10 * userId + (b - '0');
+                ++position;
+            }
+            
+            position = skipSeparator(buffer, position, limit, offset);
+            
+            // Movie ID.
+            int movieId = 0;
+            
+            while (position < limit && (b = buffer.get(position)) != ':') {
+                checkDigit(b, offset + position);
+                movieId = 10 * movieId + (b - '0');
+                ++position;
+            }
+            
+            position = skipSeparator(buffer, position, limit, offset);
+            
+            // Score. May contain a fractional part, such as in "3.5".
+            int integralPart = 0;
+            int fractionalPart = 0;
+            int fractionalScale = 1;
+            boolean fractional = false;
+            
+            while (position < limit && (b = buffer.get(position)) != ':') {
+                if (b == '.') {
+                    fractional = true;
+                } else {
+                    checkDigit(b, offset + position);
+                    
+                    if (fractional) {
+                        fractionalPart = 10 * fractionalPart + (b - '0');
+                        fractionalScale *= 10;
+                    } else {
+                        integralPart = 10 * integralPart + (b - '0');
+                    }
+                }
+                
+                ++position;
+            }
+            
+            final float score = integralPart +
+                                (float) fractionalPart / fractionalScale;
+            
+            position = skipSeparator(buffer, position, limit, offset);
+            
+            // Timestamp.
+            long timestamp = 0L;
+            
+            while (position < limit
+                    && (b = buffer.get(position)) != '\n'
+                    && b != '\r') {
+                checkDigit(b, offset + position);
+                timestamp = 10L * timestamp + (b - '0');
+                ++position;
+            }
+            
+            handler.handle(userId, movieId, score, timestamp);
+        }
+    }
+    
+    /**
+     * Skips the field separator <code>::</code> starting at
+     * <code>position</code>.
+     * 
+     * @param  buffer   the buffer being parsed.
+     * @param  position the position of the separator.
+     * @param  limit    the limit of the buffer.
+     * @param  offset   the file offset of the buffer.
+     * @return the position of the next field.
+     */
+    private static int skipSeparator(final MappedByteBuffer buffer,
+                                     final int position,
+                                     final int limit,
+                                     final long offset) {
+        if (position + 1 >= limit
+                || buffer.get(position) != ':'
+                || buffer.get(position + 1) != ':') {
+            throw new NumberFormatException(
+                    "Expected \"::\" at offset " + (offset + position) + ".");
+        }
+        
+        return position + 2;
+    }
+    
+    /**
+     * Checks that <code>b</code> is an ASCII digit.
+     * 
+     * @param b      the byte to check.
+     * @param offset the file offset of the byte.
+     * @throws NumberFormatException if <code>b</code> is not a digit.
+     */
+    private static void checkDigit(final byte b, final long offset) {
+        if (b < '0' || b > '9') {
+            throw new NumberFormatException(
+                    "Unexpected character '" + (char) b + "' at offset " +
+                    offset + ".");
+        }
+    }
+}
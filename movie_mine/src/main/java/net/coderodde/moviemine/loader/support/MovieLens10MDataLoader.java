@@ -3,17 +3,20 @@ package net.coderodde.moviemine.loader.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Scanner;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.coderodde.moviemine.loader.AbstractDataLoader;
+import net.coderodde.moviemine.model.CompressedDatabase;
 import net.coderodde.moviemine.model.DefaultDatabase;
 import net.coderodde.moviemine.model.Movie;
-import net.coderodde.moviemine.model.Rating;
+import net.coderodde.moviemine.model.RatingTable;
 import net.coderodde.moviemine.model.User;
 import static net.coderodde.util.Validation.checkFileExists;
 import static net.coderodde.util.Validation.checkFileIsDirectory;
@@ -64,10 +67,71 @@ public class MovieLens10MDataLoader extends AbstractDataLoader {
      */
     @Override
     public DefaultDatabase load() {
-        final RatingsAndUsers ratingsAndUsers = loadRatingAndUserList();
+        final List<Movie> movieList = loadMovieList();
+        final RatingsAndUsers ratingsAndUsers = 
+                loadEncodedRatingAndUserList(movieList);
+        
+        if (getRatingParsingMode() 
+                == RatingParsingMode.PARALLEL_MEMORY_MAPPED) {
+            return new DefaultDatabase(ratingsAndUsers.userList,
+                                       movieList,
+                                       ratingsAndUsers.ratingTable,
+                                       ForkJoinPool.commonPool());
+        }
+        
         return new DefaultDatabase(ratingsAndUsers.userList, 
-                                   loadMovieList(),
-                                   ratingsAndUsers.ratingList);
+                                   movieList,
+                                   ratingsAndUsers.ratingTable);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The compressed rows are built straight from the rating table, without
+     * building a default database first.
+     * 
+     * @return the compressed database.
+     */
+    @Override
+    public CompressedDatabase loadCompressed() {
+        final List<Movie> movieList = loadMovieList();
+        final RatingsAndUsers ratingsAndUsers = 
+                loadEncodedRatingAndUserList(movieList);
+        return new CompressedDatabase(ratingsAndUsers.userList,
+                                      movieList,
+                                      ratingsAndUsers.ratingTable);
+    }
+    
+    /**
+     * Loads the ratings and the users, and translates the numeric IDs of the
+     * rating table into user and movie codes.
+     * 
+     * @param  movieList the list of movies.
+     * @return the encoded ratings and the users.
+     */
+    private RatingsAndUsers 
+        loadEncodedRatingAndUserList(final List<Movie> movieList) {
+        final RatingsAndUsers ratingsAndUsers = loadRatingAndUserList();
+        
+        // The rating file refers to users and movies by their numeric IDs;
+        // translate them once into the codes used by the database.
+        NumericIdEncoder.forUsers(ratingsAndUsers.userList)
+                        .encodeUserColumn(ratingsAndUsers.ratingTable);
+        NumericIdEncoder.forMovies(movieList)
+                        .encodeMovieColumn(ratingsAndUsers.ratingTable);
+        return ratingsAndUsers;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @return the data files of the 10M data package.
+     */
+    @Override
+    public List<File> getSourceFiles() {
+        return Arrays.asList(
+                new File(dataDirectoryFile, MOVIE_DATA_FILE_NAME),
+                new File(dataDirectoryFile, RATING_DATA_FILE_NAME));
     }
     
     /**
@@ -106,17 +170,19 @@ public class MovieLens10MDataLoader extends AbstractDataLoader {
     
     private static class RatingsAndUsers {
         List<User> userList;
-        List<Rating> ratingList;
+        RatingTable ratingTable;
     }
     
     /**
-     * For performance, loads both rating and user lists.
+     * For performance, loads both rating table and user list. The user and 
+     * movie codes of the rating table are the numeric IDs found in the rating
+     * file.
      * 
-     * @return rating and user list.
+     * @return rating table and user list.
      */
     private RatingsAndUsers loadRatingAndUserList() {
-        final Set<User> userSet = new HashSet<>();
-        final List<Rating> ratingList = new ArrayList<>();
+        final BitSet userIdSet = new BitSet();
+        final RatingTable ratingTable = new RatingTable();
         
         final File file = new File(dataDirectoryFile.getAbsolutePath() +
                                    File.separator + RATING_DATA_FILE_NAME);
@@ -124,26 +190,25 @@ public class MovieLens10MDataLoader extends AbstractDataLoader {
         checkFileIsRegular(file, 
                            RATING_DATA_FILE_NAME + " is not a regular file.");
         
+        switch (getRatingParsingMode()) {
+            case MEMORY_MAPPED:
+                return loadRatingAndUserListMemoryMapped(file);
+                
+            case PARALLEL_MEMORY_MAPPED:
+                return loadRatingAndUserListInParallel(file);
+        }
+        
         try {
             final Scanner scanner = new Scanner(new FileReader(file));
             
             while (scanner.hasNextLine()) {
                 final String[] parts = scanner.nextLine().trim().split("::");
-                final Rating rating = new Rating(parts[0],
-                                                 parts[1],
-                                                 Float.parseFloat(parts[2]),
-                                                 Long.parseLong(parts[3]));
-//                Too slow.
-//                final Rating rating = Rating.createRating()
-//                                      .withUserId(parts[0])
-//                                      .withMovieId(parts[1])
-//                                      .withScore(Float.parseFloat(parts[2]))
-//                                      .withTimestamp(Long.parseLong(parts[3]));
-                
-                final User user = new User(parts[0], null, 0, null, null);
-                                  
-                ratingList.add(rating);
-                userSet.add(user);
+                final int userId = Integer.parseInt(parts[0]);
+                ratingTable.add(userId,
+                                Integer.parseInt(parts[1]),
+                                Float.parseFloat(parts[2]),
+                                Long.parseLong(parts[3]));
+                userIdSet.set(userId);
             }
         } catch (final FileNotFoundException ex) {
             Logger.getLogger(MovieLens1MDataLoader.class.getName())
@@ -151,8 +216,92 @@ public class MovieLens10MDataLoader extends AbstractDataLoader {
         }
         
         final RatingsAndUsers ret = new RatingsAndUsers();
-        ret.userList = new ArrayList<>(userSet);
-        ret.ratingList = ratingList;
+        ret.userList = createUserList(userIdSet);
+        ret.ratingTable = ratingTable;
         return ret;
     }    
+    
+    /**
+     * Loads both rating table and user list by parsing the memory-mapped 
+     * rating file.
+     * 
+     * @param  file the rating file.
+     * @return rating table and user list.
+     */
+    private RatingsAndUsers loadRatingAndUserListMemoryMapped(final File file) {
+        final RatingTable ratingTable = new RatingTable();
+        final BitSet userIdSet = new BitSet();
+        
+        try {
+            new MemoryMappedRatingParser(file).parse(
+                    new MemoryMappedRatingParser.RatingHandler() {
+                
+                @Override
+                public void handle(final int userId,
+                                   final int movieId,
+                                   final float score,
+                                   final long timestamp) {
+                    ratingTable.add(userId, movieId, score, timestamp);
+                    userIdSet.set(userId);
+                }
+            });
+        } catch (final IOException ex) {
+            Logger.getLogger(MovieLens10MDataLoader.class.getName())
+                  .log(Level.SEVERE, null, ex);
+        }
+        
+        final RatingsAndUsers ret = new RatingsAndUsers();
+        ret.userList = createUserList(userIdSet);
+        ret.ratingTable = ratingTable;
+        return ret;
+    }
+    
+    /**
+     * Loads both rating table and user list by parsing chunks of the 
+     * memory-mapped rating file in parallel.
+     * 
+     * @param  file the rating file.
+     * @return rating table and user list.
+     */
+    private RatingsAndUsers loadRatingAndUserListInParallel(final File file) {
+        final RatingsAndUsers ret = new RatingsAndUsers();
+        
+        try {
+            final ParallelRatingParser.ParsedRatings parsedRatings = 
+                    new ParallelRatingParser(file, ForkJoinPool.commonPool())
+                        .parse();
+            ret.userList = createUserList(parsedRatings.getUserIdSet());
+            ret.ratingTable = parsedRatings.getRatingTable();
+        } catch (final IOException ex) {
+            Logger.getLogger(MovieLens10MDataLoader.class.getName())
+                  .log(Level.SEVERE, null, ex);
+            ret.userList = new ArrayList<>();
+            ret.ratingTable = new RatingTable();
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Creates the list of users whose IDs are in <code>userIdSet</code>. The 
+     * 10M package does not describe users, so only their IDs are set.
+     * 
+     * @param  userIdSet the set of user IDs.
+     * @return the list of users.
+     */
+    private static List<User> createUserList(final BitSet userIdSet) {
+        final List<User> userList = new ArrayList<>(userIdSet.cardinality());
+        
+        for (int userId = userIdSet.nextSetBit(0); 
+                userId >= 0; 
+                userId = userIdSet.nextSetBit(userId + 1)) {
+            userList.add(new User(Integer.toString(userId), 
+                                  null, 
+                                  0, 
+                                  null, 
+                                  null));
+        }
+        
+        return userList;
+    }
 }
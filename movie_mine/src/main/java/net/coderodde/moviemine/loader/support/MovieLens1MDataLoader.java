@@ -3,17 +3,21 @@ package net.coderodde.moviemine.loader.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.coderodde.moviemine.loader.AbstractDataLoader;
+import net.coderodde.moviemine.model.CompressedDatabase;
 import net.coderodde.moviemine.model.DefaultDatabase;
 import net.coderodde.moviemine.model.Movie;
-import net.coderodde.moviemine.model.Rating;
+import net.coderodde.moviemine.model.RatingTable;
 import net.coderodde.moviemine.model.User;
 import static net.coderodde.util.Validation.checkFileExists;
 import static net.coderodde.util.Validation.checkFileIsDirectory;
@@ -73,6 +77,35 @@ public class MovieLens1MDataLoader extends AbstractDataLoader {
         map.put("20", "writer");
     }
     
+    /**
+     * This class holds the users, the movies and the encoded rating table.
+     */
+    private static final class LoadedData {
+        
+        /**
+         * The list of users.
+         */
+        private final List<User> userList;
+        
+        /**
+         * The list of movies.
+         */
+        private final List<Movie> movieList;
+        
+        /**
+         * The table of ratings whose codes index the lists.
+         */
+        private final RatingTable ratingTable;
+        
+        LoadedData(final List<User> userList,
+                   final List<Movie> movieList,
+                   final RatingTable ratingTable) {
+            this.userList = userList;
+            this.movieList = movieList;
+            this.ratingTable = ratingTable;
+        }
+    }
+    
     /**
      * The file handle to the directory containing the M1 data.
      */
@@ -94,6 +127,54 @@ public class MovieLens1MDataLoader extends AbstractDataLoader {
     
     @Override
     public DefaultDatabase load() {
+        final LoadedData data = loadData();
+        
+        if (data == null) {
+            return null;
+        }
+        
+        if (getRatingParsingMode() 
+                == RatingParsingMode.PARALLEL_MEMORY_MAPPED) {
+            return new DefaultDatabase(data.userList, 
+                                       data.movieList, 
+                                       data.ratingTable,
+                                       ForkJoinPool.commonPool());
+        }
+        
+        return new DefaultDatabase(data.userList, 
+                                   data.movieList, 
+                                   data.ratingTable);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The compressed rows are built straight from the rating table, without
+     * building a default database first.
+     * 
+     * @return the compressed database.
+     */
+    @Override
+    public CompressedDatabase loadCompressed() {
+        final LoadedData data = loadData();
+        
+        if (data == null) {
+            return null;
+        }
+        
+        return new CompressedDatabase(data.userList, 
+                                      data.movieList, 
+                                      data.ratingTable);
+    }
+    
+    /**
+     * Loads the users, the movies and the ratings, and encodes the rating 
+     * table.
+     * 
+     * @return the loaded data, or <code>null</code> if a file could not be 
+     *         loaded.
+     */
+    private LoadedData loadData() {
         final List<User> userList = loadUserList();
         
         if (userList == null) {
@@ -106,13 +187,30 @@ public class MovieLens1MDataLoader extends AbstractDataLoader {
             return null;
         }
         
-        final List<Rating> ratingList = loadRatingList();
+        final RatingTable ratingTable = loadRatingTable();
         
-        if (ratingList == null) {
+        if (ratingTable == null) {
             return null;
         }
         
-        return new DefaultDatabase(userList, movieList, ratingList);
+        // The rating file refers to users and movies by their numeric IDs;
+        // translate them once into the codes used by the database.
+        NumericIdEncoder.forUsers(userList).encodeUserColumn(ratingTable);
+        NumericIdEncoder.forMovies(movieList).encodeMovieColumn(ratingTable);
+        return new LoadedData(userList, movieList, ratingTable);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @return the data files of the 1M data package.
+     */
+    @Override
+    public List<File> getSourceFiles() {
+        return Arrays.asList(
+                new File(dataDirectoryFile, USER_DATA_FILE_NAME),
+                new File(dataDirectoryFile, MOVIE_DATA_FILE_NAME),
+                new File(dataDirectoryFile, RATING_DATA_FILE_NAME));
     }
     
     private List<User> loadUserList() {
@@ -183,31 +281,91 @@ public class MovieLens1MDataLoader extends AbstractDataLoader {
         return movieList;
     }
     
-    private List<Rating> loadRatingList() {
-        final List<Rating> ratingList = new ArrayList<>();
+    /**
+     * Loads the table of ratings. The user and movie codes of the table are 
+     * the numeric IDs found in the rating file.
+     * 
+     * @return the table of ratings.
+     */
+    private RatingTable loadRatingTable() {
+        final RatingTable ratingTable = new RatingTable();
         final File file = new File(dataDirectoryFile.getAbsolutePath() +
                                    File.separator + RATING_DATA_FILE_NAME);
         checkFileExists(file, RATING_DATA_FILE_NAME + " does not exist.");
         checkFileIsRegular(file, 
                            RATING_DATA_FILE_NAME + " is not a regular file.");
         
+        switch (getRatingParsingMode()) {
+            case MEMORY_MAPPED:
+                return loadRatingTableMemoryMapped(file);
+                
+            case PARALLEL_MEMORY_MAPPED:
+                return loadRatingTableInParallel(file);
+        }
+        
         try {
             final Scanner scanner = new Scanner(new FileReader(file));
             
             while (scanner.hasNextLine()) {
                 final String[] parts = scanner.nextLine().trim().split("::");
-                final Rating rating = Rating.createRating()
-                                      .withUserId(parts[0])
-                                      .withMovieId(parts[1])
-                                      .withScore(Float.parseFloat(parts[2]))
-                                      .withTimestamp(Long.parseLong(parts[3]));
-                ratingList.add(rating);
+                ratingTable.add(Integer.parseInt(parts[0]),
+                                Integer.parseInt(parts[1]),
+                                Float.parseFloat(parts[2]),
+                                Long.parseLong(parts[3]));
             }
         } catch (final FileNotFoundException ex) {
             Logger.getLogger(MovieLens1MDataLoader.class.getName())
                   .log(Level.SEVERE, null, ex);
         }
         
-        return ratingList;
+        return ratingTable;
+    }
+    
+    /**
+     * Loads the table of ratings by parsing the memory-mapped rating file.
+     * 
+     * @param  file the rating file.
+     * @return the table of ratings.
+     */
+    private RatingTable loadRatingTableMemoryMapped(final File file) {
+        final RatingTable ratingTable = new RatingTable();
+        
+        try {
+            new MemoryMappedRatingParser(file).parse(
+                    new MemoryMappedRatingParser.RatingHandler() {
+                
+                @Override
+                public void handle(final int userId,
+                                   final int movieId,
+                                   final float score,
+                                   final long timestamp) {
+                    ratingTable.add(userId, movieId, score, timestamp);
+                }
+            });
+        } catch (final IOException ex) {
+            Logger.getLogger(MovieLens1MDataLoader.class.getName())
+                  .log(Level.SEVERE, null, ex);
+        }
+        
+        return ratingTable;
+    }
+    
+    /**
+     * Loads the table of ratings by parsing chunks of the memory-mapped rating
+     * file in parallel.
+     * 
+     * @param  file the rating file.
+     * @return the table of ratings.
+     */
+    private RatingTable loadRatingTableInParallel(final File file) {
+        try {
+            return new ParallelRatingParser(file, ForkJoinPool.commonPool())
+                       .parse()
+                       .getRatingTable();
+        } catch (final IOException ex) {
+            Logger.getLogger(MovieLens1MDataLoader.class.getName())
+                  .log(Level.SEVERE, null, ex);
+            return new RatingTable();
+        }
     }
 }
@@ -0,0 +1,131 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.util.Arrays;
+import java.util.List;
+import net.coderodde.moviemine.model.IdDictionary;
+import net.coderodde.moviemine.model.Movie;
+import net.coderodde.moviemine.model.RatingTable;
+import net.coderodde.moviemine.model.User;
+
+/**
+ * This class maps the numeric IDs used in the MovieLens data files to the 
+ * codes used by {@link net.coderodde.moviemine.model.DefaultDatabase}, that 
+ * is, to the indices of users and movies in their lists. As the IDs are 
+ * small non-negative integers, the mapping is a plain array indexed by ID.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+final class NumericIdEncoder {
+    
+    /**
+     * Maps each ID to its code, or to {@link IdDictionary#NO_CODE}.
+     */
+    private final int[] codes;
+    
+    /**
+     * Constructs an encoder assigning to each ID in <code>idList</code> its 
+     * index in the list.
+     * 
+     * @param idList the list of numeric IDs.
+     */
+    private NumericIdEncoder(final int[] idList) {
+        int maximumId = -1;
+        
+        for (final int id : idList) {
+            maximumId = Math.max(maximumId, id);
+        }
+        
+        this.codes = new int[maximumId + 1];
+        Arrays.fill(codes, IdDictionary.NO_CODE);
+        
+        for (int code = 0; code < idList.length; ++code) {
+            codes[idList[code]] = code;
+        }
+    }
+    
+    /**
+     * Creates an encoder for the users in <code>userList</code>.
+     * 
+     * @param  userList the list of users.
+     * @return the encoder.
+     */
+    static NumericIdEncoder forUsers(final List<User> userList) {
+        final int[] idList = new int[userList.size()];
+        
+        for (int i = 0; i < idList.length; ++i) {
+            idList[i] = Integer.parseInt(userList.get(i).getId());
+        }
+        
+        return new NumericIdEncoder(idList);
+    }
+    
+    /**
+     * Creates an encoder for the movies in <code>movieList</code>.
+     * 
+     * @param  movieList the list of movies.
+     * @return the encoder.
+     */
+    static NumericIdEncoder forMovies(final List<Movie> movieList) {
+        final int[] idList = new int[movieList.size()];
+        
+        for (int i = 0; i < idList.length; ++i) {
+            idList[i] = Integer.parseInt(movieList.get(i).getId());
+        }
+        
+        return new NumericIdEncoder(idList);
+    }
+    
+    /**
+     * Returns the code of <code>id</code>.
+     * 
+     * @param  id the numeric ID.
+     * @return the code of the ID, or {@link IdDictionary#NO_CODE} if the ID is
+     *         unknown.
+     */
+    int getCode(final int id) {
+        return id >= 0 && id < codes.length ? codes[id] : IdDictionary.NO_CODE;
+    }
+    
+    /**
+     * Replaces the user IDs in <code>ratingTable</code> with the user codes of
+     * this encoder.
+     * 
+     * @param ratingTable the rating table holding numeric IDs.
+     * @throws IllegalArgumentException if a rating refers to an unknown user.
+     */
+    void encodeUserColumn(final RatingTable ratingTable) {
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            final int userId = ratingTable.getUserCode(i);
+            final int userCode = getCode(userId);
+            
+            if (userCode == IdDictionary.NO_CODE) {
+                throw new IllegalArgumentException(
+                        "A rating refers to an unknown user: " + userId);
+            }
+            
+            ratingTable.setUserCode(i, userCode);
+        }
+    }
+    
+    /**
+     * Replaces the movie IDs in <code>ratingTable</code> with the movie codes 
+     * of this encoder.
+     * 
+     * @param ratingTable the rating table holding numeric IDs.
+     * @throws IllegalArgumentException if a rating refers to an unknown movie.
+     */
+    void encodeMovieColumn(final RatingTable ratingTable) {
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            final int movieId = ratingTable.getMovieCode(i);
+            final int movieCode = getCode(movieId);
+            
+            if (movieCode == IdDictionary.NO_CODE) {
+                throw new IllegalArgumentException(
+                        "A rating refers to an unknown movie: " + movieId);
+            }
+            
+            ratingTable.setMovieCode(i, movieCode);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.coderodde.moviemine.model.RatingTable;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a parallel parser for MovieLens rating files. The
+ * file is split into byte ranges aligned to line boundaries, and each range is
+ * parsed by a {@link MemoryMappedRatingParser} in a fork-join pool. Each 
+ * chunk is parsed into its own result, and the results are concatenated once
+ * all the chunks are done, so no locking is needed.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ParallelRatingParser {
+    
+    /**
+     * The amount of chunks per worker thread. Having more chunks than threads
+     * balances the load when some chunks are parsed faster than others.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    /**
+     * The estimated average length of a line in a rating file. Used for 
+     * presizing the rating lists of chunks.
+     */
+    private static final int ESTIMATED_LINE_LENGTH = 24;
+    
+    /**
+     * Holds the result of parsing a rating file or a chunk of it. The user and
+     * movie codes of the rating table are the numeric IDs found in the file.
+     */
+    public static class ParsedRatings {
+        
+        /**
+         * The table of ratings in the order they appear in the file.
+         */
+        private final RatingTable ratingTable;
+        
+        /**
+         * The set of IDs of all users encountered.
+         */
+        private final BitSet userIdSet;
+        
+        /**
+         * Constructs an empty result.
+         * 
+         * @param ratingCapacity the initial capacity of the rating table.
+         */
+        ParsedRatings(final int ratingCapacity) {
+            this.ratingTable = new RatingTable(ratingCapacity);
+            this.userIdSet = new BitSet();
+        }
+        
+        /**
+         * Returns the table of ratings.
+         * 
+         * @return the table of ratings.
+         */
+        public RatingTable getRatingTable() {
+            return ratingTable;
+        }
+        
+        /**
+         * Returns the set of IDs of all users encountered.
+         * 
+         * @return the set of user IDs.
+         */
+        public BitSet getUserIdSet() {
+            return userIdSet;
+        }
+    }
+    
+    /**
+     * The parser of the rating file.
+     */
+    private final MemoryMappedRatingParser parser;
+    
+    /**
+     * The pool running the parsing tasks.
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Constructs a parallel parser for the rating file <code>file</code>.
+     * 
+     * @param file the rating file.
+     * @param pool the fork-join pool for running the parsing tasks.
+     */
+    public ParallelRatingParser(final File file, final ForkJoinPool pool) {
+        checkNotNull(pool, "The fork-join pool is null.");
+        this.parser = new MemoryMappedRatingParser(file);
+        this.pool = pool;
+    }
+    
+    /**
+     * Parses the entire rating file.
+     * 
+     * @return the parsed ratings.
+     * @throws IOException if an I/O error occurs.
+     */
+    public ParsedRatings parse() throws IOException {
+        final long[] bounds =
+                parser.split(CHUNKS_PER_THREAD * pool.getParallelism());
+        final List<ChunkTask> taskList = new ArrayList<>(bounds.length - 1);
+        
+        for (int i = 0; i < bounds.length - 1; ++i) {
+            taskList.add(new ChunkTask(parser, bounds[i], bounds[i + 1]));
+        }
+        
+        pool.invoke(new RecursiveAction() {
+            
+            @Override
+            protected void compute() {
+                invokeAll(taskList);
+            }
+        });
+        
+        // Each chunk owns its result, so they are merged only once all the
+        // tasks are done. Chunks are appended in file order.
+        int ratingAmount = 0;
+        
+        for (final ChunkTask task : taskList) {
+            if (task.exception != null) {
+                throw task.exception;
+            }
+            
+            ratingAmount += task.result.ratingTable.size();
+        }
+        
+        final ParsedRatings result = new ParsedRatings(ratingAmount);
+        
+        for (final ChunkTask task : taskList) {
+            result.ratingTable.addAll(task.result.ratingTable);
+            result.userIdSet.or(task.result.userIdSet);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * This task parses a single chunk of the rating file.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The parser of the rating file.
+         */
+        private final MemoryMappedRatingParser parser;
+        
+        /**
+         * The starting byte offset of the chunk.
+         */
+        private final long start;
+        
+        /**
+         * The ending byte offset of the chunk.
+         */
+        private final long end;
+        
+        /**
+         * The ratings parsed from the chunk.
+         */
+        private final ParsedRatings result;
+        
+        /**
+         * Holds the I/O error encountered while parsing, if any.
+         */
+        private IOException exception;
+        
+        ChunkTask(final MemoryMappedRatingParser parser,
+                  final long start,
+                  final long end) {
+            this.parser = parser;
+            this.start = start;
+            this.end = end;
+            this.result = new ParsedRatings(
+                    (int) ((end - start) / ESTIMATED_LINE_LENGTH));
+        }
+        
+        @Override
+        protected void compute() {
+            final RatingTable ratingTable = result.ratingTable;
+            final BitSet userIdSet = result.userIdSet;
+            
+            try {
+                parser.parse(start,
+                             end,
+                             new MemoryMappedRatingParser.RatingHandler() {
+                    
+                    @Override
+                    public void handle(final int userId,
+                                       final int movieId,
+                                       final float score,
+                                       final long timestamp) {
+                        ratingTable.add(userId, movieId, score, timestamp);
+                        userIdSet.set(userId);
+                    }
+                });
+            } catch (final IOException ex) {
+                exception = ex;
+            }
+        }
+    }
+}
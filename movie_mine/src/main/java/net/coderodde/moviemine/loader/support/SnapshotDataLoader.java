@@ -0,0 +1,131 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.coderodde.moviemine.loader.AbstractDataLoader;
+import net.coderodde.moviemine.model.CompressedDatabase;
+import net.coderodde.moviemine.model.DefaultDatabase;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This data loader caches the database loaded by another data loader in a
+ * binary snapshot file. If the snapshot is up to date with respect to the
+ * source files of the other loader, the database is read from the snapshot.
+ * Otherwise the other loader is asked to load the database, after which the
+ * snapshot is rewritten.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class SnapshotDataLoader extends AbstractDataLoader {
+    
+    /**
+     * The loader used whenever the snapshot is missing or stale.
+     */
+    private final AbstractDataLoader dataLoader;
+    
+    /**
+     * The snapshot file.
+     */
+    private final File snapshotFile;
+    
+    /**
+     * Constructs this data loader.
+     * 
+     * @param dataLoader   the loader of the source files.
+     * @param snapshotFile the snapshot file.
+     */
+    public SnapshotDataLoader(final AbstractDataLoader dataLoader,
+                              final File snapshotFile) {
+        checkNotNull(dataLoader, "The data loader is null.");
+        checkNotNull(snapshotFile, "The snapshot file is null.");
+        this.dataLoader = dataLoader;
+        this.snapshotFile = snapshotFile;
+    }
+    
+    /**
+     * Loads the database from the snapshot if it is up to date, and from the
+     * source files otherwise.
+     * 
+     * @return the database.
+     */
+    @Override
+    public DefaultDatabase load() {
+        final List<File> sourceFiles = dataLoader.getSourceFiles();
+        
+        try {
+            final DefaultDatabase database =
+                    DatabaseSnapshot.read(snapshotFile, sourceFiles);
+            
+            if (database != null) {
+                return database;
+            }
+        } catch (final IOException | RuntimeException ex) {
+            Logger.getLogger(SnapshotDataLoader.class.getName())
+                  .log(Level.WARNING, "Could not read the snapshot.", ex);
+        }
+        
+        return loadAndWriteSnapshot(sourceFiles);
+    }
+    
+    /**
+     * Loads the compressed database from the rows stored in the snapshot if 
+     * it is up to date, so that no transactions are rebuilt. Otherwise the 
+     * database is loaded from the source files and the snapshot is rewritten.
+     * 
+     * @return the compressed database.
+     */
+    @Override
+    public CompressedDatabase loadCompressed() {
+        final List<File> sourceFiles = dataLoader.getSourceFiles();
+        
+        try {
+            final CompressedDatabase database =
+                    DatabaseSnapshot.readCompressed(snapshotFile, sourceFiles);
+            
+            if (database != null) {
+                return database;
+            }
+        } catch (final IOException | RuntimeException ex) {
+            Logger.getLogger(SnapshotDataLoader.class.getName())
+                  .log(Level.WARNING, "Could not read the snapshot.", ex);
+        }
+        
+        final DefaultDatabase database = loadAndWriteSnapshot(sourceFiles);
+        return database == null ? null : new CompressedDatabase(database);
+    }
+    
+    /**
+     * Loads the database from the source files and rewrites the snapshot.
+     * 
+     * @param  sourceFiles the source files of the underlying data loader.
+     * @return the database.
+     */
+    private DefaultDatabase loadAndWriteSnapshot(final List<File> sourceFiles) {
+        final DefaultDatabase database = dataLoader.load();
+        
+        if (database != null) {
+            try {
+                DatabaseSnapshot.write(database, snapshotFile, sourceFiles);
+            } catch (final IOException ex) {
+                Logger.getLogger(SnapshotDataLoader.class.getName())
+                      .log(Level.WARNING, "Could not write the snapshot.", ex);
+            }
+        }
+        
+        return database;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @return the source files of the underlying data loader.
+     */
+    @Override
+    public List<File> getSourceFiles() {
+        return dataLoader.getSourceFiles();
+    }
+}
@@ -0,0 +1,212 @@
+package net.coderodde.moviemine.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a declarative predicate on a single attribute of a 
+ * user. Unlike an arbitrary predicate, an attribute predicate can be answered
+ * by a {@link UserAttributeIndex} without testing the users one by one, which
+ * {@link DefaultDatabase#select(Predicate...)} takes advantage of.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public final class AttributePredicate implements Predicate<User> {
+    
+    /**
+     * Lists the indexed attributes of a user.
+     */
+    public enum Attribute {
+        GENDER,
+        AGE,
+        OCCUPATION,
+        ZIP_CODE;
+        
+        /**
+         * Returns the value of this attribute of <code>user</code>.
+         * 
+         * @param  user the user.
+         * @return the attribute value.
+         */
+        public Object getValue(final User user) {
+            switch (this) {
+                case GENDER:
+                    return user.getGender();
+                    
+                case AGE:
+                    return user.getAge();
+                    
+                case OCCUPATION:
+                    return user.getOccupation();
+                    
+                default:
+                    return user.getZipCode();
+            }
+        }
+    }
+    
+    /**
+     * The attribute this predicate tests.
+     */
+    private final Attribute attribute;
+    
+    /**
+     * The set of accepted values, or <code>null</code> if this predicate 
+     * accepts an age range.
+     */
+    private final Set<Object> valueSet;
+    
+    /**
+     * The minimum accepted age, if this predicate accepts an age range.
+     */
+    private final int minimumAge;
+    
+    /**
+     * The maximum accepted age, if this predicate accepts an age range.
+     */
+    private final int maximumAge;
+    
+    private AttributePredicate(final Attribute attribute,
+                               final Set<Object> valueSet,
+                               final int minimumAge,
+                               final int maximumAge) {
+        this.attribute = attribute;
+        this.valueSet = valueSet;
+        this.minimumAge = minimumAge;
+        this.maximumAge = maximumAge;
+    }
+    
+    /**
+     * Returns a predicate accepting the users of gender <code>gender</code>.
+     * 
+     * @param  gender the gender.
+     * @return the predicate.
+     */
+    public static AttributePredicate hasGender(final User.Gender gender) {
+        return create(Attribute.GENDER, gender);
+    }
+    
+    /**
+     * Returns a predicate accepting the users whose age is one of 
+     * <code>ages</code>.
+     * 
+     * @param  ages the accepted ages.
+     * @return the predicate.
+     */
+    public static AttributePredicate hasAge(final int... ages) {
+        final Object[] values = new Object[ages.length];
+        
+        for (int i = 0; i < ages.length; ++i) {
+            values[i] = ages[i];
+        }
+        
+        return create(Attribute.AGE, values);
+    }
+    
+    /**
+     * Returns a predicate accepting the users whose age is within 
+     * <code>[minimumAge, maximumAge]</code>.
+     * 
+     * @param  minimumAge the minimum accepted age.
+     * @param  maximumAge the maximum accepted age.
+     * @return the predicate.
+     */
+    public static AttributePredicate hasAgeBetween(final int minimumAge,
+                                                   final int maximumAge) {
+        if (minimumAge > maximumAge) {
+            throw new IllegalArgumentException(
+                    "The minimum age " + minimumAge + " is larger than the " +
+                    "maximum age " + maximumAge + ".");
+        }
+        
+        return new AttributePredicate(Attribute.AGE, 
+                                      null, 
+                                      minimumAge, 
+                                      maximumAge);
+    }
+    
+    /**
+     * Returns a predicate accepting the users whose occupation is one of 
+     * <code>occupations</code>.
+     * 
+     * @param  occupations the accepted occupations.
+     * @return the predicate.
+     */
+    public static AttributePredicate hasOccupation(
+            final String... occupations) {
+        return create(Attribute.OCCUPATION, (Object[]) occupations);
+    }
+    
+    /**
+     * Returns a predicate accepting the users whose ZIP code is one of 
+     * <code>zipCodes</code>.
+     * 
+     * @param  zipCodes the accepted ZIP codes.
+     * @return the predicate.
+     */
+    public static AttributePredicate hasZipCode(final String... zipCodes) {
+        return create(Attribute.ZIP_CODE, (Object[]) zipCodes);
+    }
+    
+    /**
+     * Returns the attribute this predicate tests.
+     * 
+     * @return the attribute.
+     */
+    public Attribute getAttribute() {
+        return attribute;
+    }
+    
+    /**
+     * Returns the set of accepted values, or <code>null</code> if this 
+     * predicate accepts a range of ages.
+     * 
+     * @return the set of accepted values.
+     */
+    public Set<Object> getValueSet() {
+        return valueSet;
+    }
+    
+    /**
+     * Checks whether this predicate accepts the attribute value 
+     * <code>value</code>.
+     * 
+     * @param  value the attribute value.
+     * @return <code>true</code> if the value is accepted.
+     */
+    public boolean acceptsValue(final Object value) {
+        if (valueSet != null) {
+            return valueSet.contains(value);
+        }
+        
+        final int age = (Integer) value;
+        return minimumAge <= age && age <= maximumAge;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @param  user the user to test.
+     * @return <code>true</code> if the attribute of the user is accepted.
+     */
+    @Override
+    public boolean test(final User user) {
+        return acceptsValue(attribute.getValue(user));
+    }
+    
+    private static AttributePredicate create(final Attribute attribute,
+                                             final Object... values) {
+        checkNotNull(values, "The value array is null.");
+        return new AttributePredicate(
+                attribute,
+                Collections.unmodifiableSet(
+                        new HashSet<>(Arrays.asList(values))),
+                0,
+                0);
+    }
+}
@@ -0,0 +1,493 @@
+package net.coderodde.moviemine.model;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import net.coderodde.associationanalysis.model.AbstractDatabase;
+import net.coderodde.associationanalysis.model.CompressedBitmap;
+import net.coderodde.associationanalysis.model.TransactionView;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements the <i>MovieLens</i> database storing the 
+ * transactions in compressed sparse row (CSR) form: the movie codes of all 
+ * transactions are stored back to back in a single <code>int</code> array, 
+ * sorted within each transaction, and the transaction of the user with code 
+ * <code>u</code> occupies the range 
+ * <code>[offsets[u], offsets[u + 1])</code> of that array. This takes 
+ * roughly four bytes per rating, and scanning the transactions reads memory
+ * sequentially.
+ * <p>
+ * The transactions returned by {@link #select(Predicate...)} are read-only 
+ * views over the arrays; looking up a movie in a transaction is a binary 
+ * search. The vertical index is built from the arrays on first use and kept
+ * from then on.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class CompressedDatabase extends AbstractDatabase<User, Movie> {
+    
+    private final List<User> userList;
+    private final List<Movie> movieList;
+    private final IdDictionary movieDictionary;
+    
+    /**
+     * The transaction of the user with code <code>u</code> starts at index
+     * <code>offsets[u]</code> of <code>movieCodes</code>.
+     */
+    private final int[] offsets;
+    
+    /**
+     * The movie codes of all transactions.
+     */
+    private final int[] movieCodes;
+    
+    /**
+     * The amount of users that have rated at least one movie.
+     */
+    private final int transactionAmount;
+    
+    /**
+     * The vertical index keyed by movies, or <code>null</code> if it has not
+     * been built yet.
+     */
+    private volatile Map<Movie, CompressedBitmap> verticalIndex;
+    
+    /**
+     * Constructs a compressed copy of <code>database</code>.
+     * 
+     * @param database the database to compress.
+     */
+    public CompressedDatabase(final DefaultDatabase database) {
+        this(database.getUserView(), 
+             database.getMovieView(), 
+             database.getRatingTable());
+    }
+    
+    /**
+     * Constructs a new database with given users, movies and ratings. The 
+     * user and movie codes of <code>ratingTable</code> must be indices into
+     * <code>userList</code> and <code>movieList</code>, respectively. 
+     * Duplicate ratings of a movie by a user contribute a single item.
+     * 
+     * @param userList    the list of users.
+     * @param movieList   the list of movies.
+     * @param ratingTable the table of ratings.
+     */
+    public CompressedDatabase(final List<User> userList,
+                              final List<Movie> movieList,
+                              final RatingTable ratingTable) {
+        checkNotNull(userList, "The user list is null.");
+        checkNotNull(movieList, "The movie list is null.");
+        checkNotNull(ratingTable, "The rating table is null.");
+        this.userList = new ArrayList<>(userList);
+        this.movieList = new ArrayList<>(movieList);
+        this.movieDictionary = new IdDictionary(movieList.size());
+        
+        for (final Movie movie : movieList) {
+            movieDictionary.encode(movie.getId());
+        }
+        
+        final int userAmount = userList.size();
+        final int movieAmount = movieList.size();
+        final int[] rowOffsets = new int[userAmount + 1];
+        
+        // Count the ratings of each user, and turn the counts into offsets.
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            final int userCode = ratingTable.getUserCode(i);
+            final int movieCode = ratingTable.getMovieCode(i);
+            
+            if (userCode < 0 || userCode >= userAmount) {
+                throw new IllegalArgumentException(
+                        "Invalid user code: " + userCode);
+            }
+            
+            if (movieCode < 0 || movieCode >= movieAmount) {
+                throw new IllegalArgumentException(
+                        "Invalid movie code: " + movieCode);
+            }
+            
+            ++rowOffsets[userCode + 1];
+        }
+        
+        for (int userCode = 0; userCode < userAmount; ++userCode) {
+            rowOffsets[userCode + 1] += rowOffsets[userCode];
+        }
+        
+        final int[] rowData = new int[ratingTable.size()];
+        final int[] fill = Arrays.copyOf(rowOffsets, userAmount);
+        
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            rowData[fill[ratingTable.getUserCode(i)]++] = 
+                    ratingTable.getMovieCode(i);
+        }
+        
+        // Sort each row and squeeze out duplicates in place.
+        int size = 0;
+        int transactions = 0;
+        
+        for (int userCode = 0; userCode < userAmount; ++userCode) {
+            final int start = rowOffsets[userCode];
+            final int end = rowOffsets[userCode + 1];
+            rowOffsets[userCode] = size;
+            Arrays.sort(rowData, start, end);
+            
+            for (int i = start; i < end; ++i) {
+                if (i == start || rowData[i] != rowData[i - 1]) {
+                    rowData[size++] = rowData[i];
+                }
+            }
+            
+            if (end > start) {
+                ++transactions;
+            }
+        }
+        
+        rowOffsets[userAmount] = size;
+        this.offsets = rowOffsets;
+        this.movieCodes = size == rowData.length ? 
+                          rowData : 
+                          Arrays.copyOf(rowData, size);
+        this.transactionAmount = transactions;
+    }
+    
+    /**
+     * Constructs a database from compressed rows built earlier, for example 
+     * by restoring a snapshot. The rows of each user must be sorted and free
+     * of duplicates, and the arrays are used as they are.
+     * 
+     * @param userList   the list of users.
+     * @param movieList  the list of movies.
+     * @param offsets    the array of length <code>userList.size() + 1</code>
+     *                   holding the start of each row in 
+     *                   <code>movieCodes</code>, followed by its length.
+     * @param movieCodes the movie codes of all rows.
+     */
+    public CompressedDatabase(final List<User> userList,
+                              final List<Movie> movieList,
+                              final int[] offsets,
+                              final int[] movieCodes) {
+        checkNotNull(userList, "The user list is null.");
+        checkNotNull(movieList, "The movie list is null.");
+        checkNotNull(offsets, "The offset array is null.");
+        checkNotNull(movieCodes, "The movie code array is null.");
+        
+        if (offsets.length != userList.size() + 1 
+                || offsets[0] != 0
+                || offsets[userList.size()] != movieCodes.length) {
+            throw new IllegalArgumentException(
+                    "The offsets do not match the users and the movie codes.");
+        }
+        
+        this.userList = new ArrayList<>(userList);
+        this.movieList = new ArrayList<>(movieList);
+        this.movieDictionary = new IdDictionary(movieList.size());
+        
+        for (final Movie movie : movieList) {
+            movieDictionary.encode(movie.getId());
+        }
+        
+        int transactions = 0;
+        
+        for (int userCode = 0; userCode < userList.size(); ++userCode) {
+            if (offsets[userCode] > offsets[userCode + 1]) {
+                throw new IllegalArgumentException(
+                        "Decreasing offsets at user code " + userCode);
+            }
+            
+            if (offsets[userCode] < offsets[userCode + 1]) {
+                ++transactions;
+            }
+        }
+        
+        for (final int movieCode : movieCodes) {
+            if (movieCode < 0 || movieCode >= movieList.size()) {
+                throw new IllegalArgumentException(
+                        "Invalid movie code: " + movieCode);
+            }
+        }
+        
+        this.offsets = offsets;
+        this.movieCodes = movieCodes;
+        this.transactionAmount = transactions;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @param  predicates the array of predicates for filtering users.
+     * @return the list of transactions.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Set<Movie>> select(final Predicate<User>... predicates) {
+        // The predicate array is only read, so it cannot pollute the heap.
+        final List<Set<Movie>> ret = new ArrayList<>(transactionAmount);
+        
+        outer:
+        for (int userCode = 0; userCode < userList.size(); ++userCode) {
+            if (offsets[userCode] == offsets[userCode + 1]) {
+                continue;
+            }
+            
+            for (final Predicate<User> predicate : predicates) {
+                if (!predicate.test(userList.get(userCode))) {
+                    continue outer;
+                }
+            }
+            
+            ret.add(new TransactionSet(userCode));
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The returned view evaluates the predicates while being iterated, and 
+     * creates the transaction set views on demand.
+     * 
+     * @param  predicates the array of predicates for filtering users.
+     * @return the view of transactions.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Set<Movie>> view(final Predicate<User>... predicates) {
+        // The predicate array is only read, so it cannot pollute the heap.
+        return new TransactionView<>(userList, 
+                                     new AbstractList<Set<Movie>>() {
+            
+            @Override
+            public Set<Movie> get(final int userCode) {
+                return new TransactionSet(userCode);
+            }
+            
+            @Override
+            public int size() {
+                return userList.size();
+            }
+        }, predicates);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @return the amount of transactions.
+     */
+    @Override
+    public int size() {
+        return transactionAmount;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The index is built from the compressed rows on the first call with a 
+     * counting sort by movie code, and shared by all later calls.
+     * 
+     * @return the map from movies to their transaction bitmaps.
+     */
+    @Override
+    public Map<Movie, CompressedBitmap> getVerticalIndex() {
+        Map<Movie, CompressedBitmap> index = verticalIndex;
+        
+        if (index == null) {
+            index = buildVerticalIndex();
+            verticalIndex = index;
+        }
+        
+        return index;
+    }
+    
+    public List<User> getUserView() {
+        return Collections.unmodifiableList(userList);
+    }
+    
+    public List<Movie> getMovieView() {
+        return Collections.unmodifiableList(movieList);
+    }
+    
+    /**
+     * Returns a read-only view of the transaction of the user with code 
+     * <code>userCode</code>.
+     * 
+     * @param  userCode the user code.
+     * @return the set of movies rated by the user.
+     */
+    public Set<Movie> getTransaction(final int userCode) {
+        if (userCode < 0 || userCode >= userList.size()) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid user code: " + userCode);
+        }
+        
+        return new TransactionSet(userCode);
+    }
+    
+    /**
+     * Returns the amount of movies rated by the user with code 
+     * <code>userCode</code>.
+     * 
+     * @param  userCode the user code.
+     * @return the length of the transaction.
+     */
+    public int getTransactionLength(final int userCode) {
+        return offsets[userCode + 1] - offsets[userCode];
+    }
+    
+    /**
+     * Returns the <code>index</code>th smallest movie code in the transaction
+     * of the user with code <code>userCode</code>.
+     * 
+     * @param  userCode the user code.
+     * @param  index    the index within the transaction.
+     * @return the movie code.
+     */
+    public int getMovieCode(final int userCode, final int index) {
+        if (index < 0 || index >= getTransactionLength(userCode)) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", length: " + 
+                    getTransactionLength(userCode));
+        }
+        
+        return movieCodes[offsets[userCode] + index];
+    }
+    
+    /**
+     * Builds the vertical index out of the compressed rows. The rows are 
+     * scanned in user code order, so the transaction indices of each movie
+     * come out sorted, and they are free of duplicates as the rows are. 
+     * Movies nobody has rated are left out.
+     * 
+     * @return the vertical index.
+     */
+    private Map<Movie, CompressedBitmap> buildVerticalIndex() {
+        final int movieAmount = movieList.size();
+        final int[] columnOffsets = new int[movieAmount + 1];
+        
+        for (final int movieCode : movieCodes) {
+            ++columnOffsets[movieCode + 1];
+        }
+        
+        for (int movieCode = 0; movieCode < movieAmount; ++movieCode) {
+            columnOffsets[movieCode + 1] += columnOffsets[movieCode];
+        }
+        
+        final int[] owners = new int[movieCodes.length];
+        final int[] fill = Arrays.copyOf(columnOffsets, movieAmount);
+        int transactionIndex = 0;
+        
+        for (int userCode = 0; userCode < userList.size(); ++userCode) {
+            final int start = offsets[userCode];
+            final int end = offsets[userCode + 1];
+            
+            if (start == end) {
+                continue;
+            }
+            
+            for (int i = start; i < end; ++i) {
+                owners[fill[movieCodes[i]]++] = transactionIndex;
+            }
+            
+            ++transactionIndex;
+        }
+        
+        final Map<Movie, CompressedBitmap> index = new HashMap<>();
+        
+        for (int movieCode = 0; movieCode < movieAmount; ++movieCode) {
+            final int start = columnOffsets[movieCode];
+            final int end = columnOffsets[movieCode + 1];
+            
+            if (start < end) {
+                index.put(movieList.get(movieCode), 
+                          CompressedBitmap.fromSortedArray(
+                                  Arrays.copyOfRange(owners, start, end),
+                                  end - start));
+            }
+        }
+        
+        return Collections.unmodifiableMap(index);
+    }
+    
+    /**
+     * This class implements a read-only view of a single transaction.
+     */
+    private final class TransactionSet extends AbstractSet<Movie> {
+        
+        /**
+         * The index of the first movie code of this transaction.
+         */
+        private final int start;
+        
+        /**
+         * The index one past the last movie code of this transaction.
+         */
+        private final int end;
+        
+        TransactionSet(final int userCode) {
+            this.start = offsets[userCode];
+            this.end = offsets[userCode + 1];
+        }
+        
+        @Override
+        public boolean contains(final Object o) {
+            if (!(o instanceof Movie)) {
+                return false;
+            }
+            
+            final int movieCode = 
+                    movieDictionary.getCode(((Movie) o).getId());
+            
+            return movieCode != IdDictionary.NO_CODE
+                    && Arrays.binarySearch(movieCodes, 
+                                           start, 
+                                           end, 
+                                           movieCode) >= 0;
+        }
+        
+        @Override
+        public Iterator<Movie> iterator() {
+            return new Iterator<Movie>() {
+                
+                private int index = start;
+                
+                @Override
+                public boolean hasNext() {
+                    return index < end;
+                }
+                
+                @Override
+                public Movie next() {
+                    if (index == end) {
+                        throw new NoSuchElementException(
+                                "No more movies in the transaction.");
+                    }
+                    
+                    return movieList.get(movieCodes[index++]);
+                }
+                
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException(
+                            "The transaction is read-only.");
+                }
+            };
+        }
+        
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
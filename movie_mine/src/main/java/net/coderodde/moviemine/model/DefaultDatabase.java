@@ -1,17 +1,29 @@
 package net.coderodde.moviemine.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Predicate;
 import net.coderodde.associationanalysis.model.AbstractDatabase;
+import net.coderodde.associationanalysis.model.CompressedBitmap;
+import net.coderodde.associationanalysis.model.TransactionView;
+import static net.coderodde.util.Validation.checkNotNull;
 
 /**
- * This class implements the <i>MovieLens</i> database.
+ * This class implements the <i>MovieLens</i> database. Internally users and 
+ * movies are referred to by dense integer codes assigned by an 
+ * {@link IdDictionary}: the code of a user is its index in the user list, and
+ * the code of a movie is its index in the movie list.
  * 
  * @author Rodion Efremov
  * @version 1.6
@@ -20,75 +32,262 @@ public class DefaultDatabase extends AbstractDatabase<User, Movie>{
 
     private final List<User> userList;
     private final List<Movie> movieList;
-    private final List<Rating> ratingList;
+    private final RatingTable ratingTable;
 
-    private final Map<String, User> mapUserIdToUser;
-    private final Map<String, Movie> mapMovieIdToMovie;
-    private final Map<User, Set<Movie>> mainMap;
+    private final IdDictionary userDictionary;
+    private final IdDictionary movieDictionary;
     
     /**
-     * Constructs a new database with given users, movies and ratings.
+     * Maps each user code to the transaction of the user, or to 
+     * <code>null</code> if the user has not rated any movies.
+     */
+    private final List<Set<Movie>> transactionList;
+    
+    /**
+     * The amount of users that have rated at least one movie.
+     */
+    private final int transactionAmount;
+    
+    /**
+     * Maps each movie code to the bitmap of the transactions containing the 
+     * movie. The transactions are numbered in user code order, skipping the
+     * users with no ratings.
+     */
+    private final CompressedBitmap[] movieBitmaps;
+    
+    /**
+     * The vertical index keyed by movies.
+     */
+    private final Map<Movie, CompressedBitmap> verticalIndex;
+    
+    /**
+     * The index of user attributes for answering attribute predicates.
+     */
+    private final UserAttributeIndex userAttributeIndex;
+    
+    /**
+     * Constructs a new database with given users, movies and ratings. Ratings
+     * referring to users or movies missing from the lists are ignored.
      * 
      * @param userList   the list of users.
      * @param movieList  the list of movies.
      * @param ratingList the list of ratings.
+     * @throws IllegalArgumentException if two users or two movies share an ID.
      */
     public DefaultDatabase(final List<User> userList,
                            final List<Movie> movieList,
                            final List<Rating> ratingList) {
+        this(userList, 
+             movieList, 
+             toRatingTable(userList, movieList, ratingList));
+    }
+    
+    /**
+     * Constructs a new database with given users, movies and ratings. The 
+     * transactions are built in parallel. Ratings referring to users or movies
+     * missing from the lists are ignored.
+     * 
+     * @param userList   the list of users.
+     * @param movieList  the list of movies.
+     * @param ratingList the list of ratings.
+     * @param pool       the fork-join pool for running the tasks.
+     * @throws IllegalArgumentException if two users or two movies share an ID.
+     * @see   #DefaultDatabase(List, List, RatingTable, ForkJoinPool)
+     */
+    public DefaultDatabase(final List<User> userList,
+                           final List<Movie> movieList,
+                           final List<Rating> ratingList,
+                           final ForkJoinPool pool) {
+        this(userList, 
+             movieList, 
+             toRatingTable(userList, movieList, ratingList),
+             pool);
+    }
+    
+    /**
+     * Constructs a new database with given users, movies and ratings. The 
+     * user and movie codes of <code>ratingTable</code> must be indices into
+     * <code>userList</code> and <code>movieList</code>, respectively.
+     * 
+     * @param userList    the list of users.
+     * @param movieList   the list of movies.
+     * @param ratingTable the table of ratings.
+     */
+    public DefaultDatabase(final List<User> userList,
+                           final List<Movie> movieList,
+                           final RatingTable ratingTable) {
+        checkNotNull(ratingTable, "The rating table is null.");
         this.userList = userList;
         this.movieList = movieList;
-        this.ratingList = ratingList;
+        this.ratingTable = ratingTable;
         
-        this.mapUserIdToUser = new HashMap<>(userList.size());
-        this.mapMovieIdToMovie = new HashMap<>(movieList.size());
+        this.userDictionary = buildUserDictionary(userList);
+        this.movieDictionary = buildMovieDictionary(movieList);
+        this.transactionList = 
+                new ArrayList<>(Collections.<Set<Movie>>nCopies(
+                        userList.size(), null));
         
-        this.mainMap = new HashMap<>(userList.size());
+        final int[] userOffsets = new int[userList.size() + 1];
+        final int[] ratingIndices = groupRatingsByUser(userOffsets);
+        buildTransactions(0, userList.size(), userOffsets, ratingIndices);
+        this.transactionAmount = countTransactions();
+        this.movieBitmaps = buildMovieBitmaps();
+        this.verticalIndex = buildVerticalIndex();
+        this.userAttributeIndex = new UserAttributeIndex(userList);
+    }
+    
+    /**
+     * Constructs a new database with given users, movies and ratings. The 
+     * user and movie codes of <code>ratingTable</code> must be indices into
+     * <code>userList</code> and <code>movieList</code>, respectively.
+     * <p>
+     * The transactions are built in parallel: the ratings are grouped by user
+     * in a single pass, the user codes are split into contiguous ranges 
+     * holding about the same amount of ratings, and each range is processed 
+     * by its own task. As the ranges are disjoint, the tasks need no locking.
+     * The transactions are identical to those built by the sequential 
+     * constructor.
+     * 
+     * @param userList    the list of users.
+     * @param movieList   the list of movies.
+     * @param ratingTable the table of ratings.
+     * @param pool        the fork-join pool for running the tasks.
+     */
+    public DefaultDatabase(final List<User> userList,
+                           final List<Movie> movieList,
+                           final RatingTable ratingTable,
+                           final ForkJoinPool pool) {
+        checkNotNull(ratingTable, "The rating table is null.");
+        checkNotNull(pool, "The fork-join pool is null.");
+        this.userList = userList;
+        this.movieList = movieList;
+        this.ratingTable = ratingTable;
         
-        for (final User user : userList) {
-            this.mapUserIdToUser.put(user.getId(), user);
-        }
-            
-        for (final Movie movie : movieList) {
-            this.mapMovieIdToMovie.put(movie.getId(), movie);
-        }
+        this.userDictionary = buildUserDictionary(userList);
+        this.movieDictionary = buildMovieDictionary(movieList);
+        this.transactionList = 
+                new ArrayList<>(Collections.<Set<Movie>>nCopies(
+                        userList.size(), null));
         
-        for (final Rating rating : ratingList) {
-            final User user = this.mapUserIdToUser.get(rating.getUserId());
-            final Movie movie = this.mapMovieIdToMovie.get(rating.getMovieId());
+        final int userAmount = userList.size();
+        final int[] userOffsets = new int[userAmount + 1];
+        final int[] ratingIndices = groupRatingsByUser(userOffsets);
+        final int partitionAmount = pool.getParallelism();
+        final List<PartitionTask> taskList = new ArrayList<>(partitionAmount);
+        int fromUserCode = 0;
+        
+        for (int i = 1; i <= partitionAmount; ++i) {
+            final long ratingBound = 
+                    (long) ratingIndices.length * i / partitionAmount;
+            int toUserCode = fromUserCode;
             
-            if (!this.mainMap.containsKey(user)) {
-                this.mainMap.put(user, new LinkedHashSet<Movie>());
+            while (toUserCode < userAmount 
+                    && (i == partitionAmount 
+                        || userOffsets[toUserCode + 1] <= ratingBound)) {
+                ++toUserCode;
             }
             
-            this.mainMap.get(user).add(movie);
+            if (toUserCode > fromUserCode) {
+                taskList.add(new PartitionTask(fromUserCode, 
+                                               toUserCode, 
+                                               userOffsets, 
+                                               ratingIndices));
+                fromUserCode = toUserCode;
+            }
         }
+        
+        pool.invoke(new RecursiveAction() {
+            
+            @Override
+            protected void compute() {
+                invokeAll(taskList);
+            }
+        });
+        
+        this.transactionAmount = countTransactions();
+        this.movieBitmaps = buildMovieBitmaps();
+        this.verticalIndex = buildVerticalIndex();
+        this.userAttributeIndex = new UserAttributeIndex(userList);
     }
     
     /**
      * {@inheritDoc }
+     * <p>
+     * The {@link AttributePredicate}s among <code>predicates</code> are 
+     * answered by intersecting the bit sets of the user attribute index, and
+     * only the remaining predicates are tested user by user.
      * 
      * @param  predicates the array of predicates each transaction must satisfy.
      * @return the list of those transactions, that obey each predicate.
      */
     @Override
     public List<Set<Movie>> select(final Predicate<User>... predicates) {
-        final List<Set<Movie>> ret = new ArrayList<>(mainMap.size());
+        final List<Predicate<User>> predicateList = 
+                new ArrayList<>(predicates.length);
+        BitSet userCodeSet = null;
+        
+        for (final Predicate<User> predicate : predicates) {
+            if (predicate instanceof AttributePredicate) {
+                final BitSet acceptedSet = userAttributeIndex.getUserCodes(
+                        (AttributePredicate) predicate);
+                
+                if (userCodeSet == null) {
+                    userCodeSet = acceptedSet;
+                } else {
+                    userCodeSet.and(acceptedSet);
+                }
+            } else {
+                predicateList.add(predicate);
+            }
+        }
+        
+        if (userCodeSet == null) {
+            userCodeSet = new BitSet(userList.size());
+            userCodeSet.set(0, userList.size());
+        }
+        
+        final List<Set<Movie>> ret = 
+                new ArrayList<>(Math.min(transactionAmount, 
+                                         userCodeSet.cardinality()));
         
         outer:
-        for (final Map.Entry<User, Set<Movie>> entry : mainMap.entrySet()) {
-            for (final Predicate<User> predicate : predicates) {
-                if (!predicate.test(entry.getKey())) {
+        for (int userCode = userCodeSet.nextSetBit(0); 
+                userCode >= 0; 
+                userCode = userCodeSet.nextSetBit(userCode + 1)) {
+            final Set<Movie> transaction = transactionList.get(userCode);
+            
+            if (transaction == null) {
+                continue;
+            }
+            
+            for (final Predicate<User> predicate : predicateList) {
+                if (!predicate.test(userList.get(userCode))) {
                     continue outer;
                 }
             }
             
-            ret.add(entry.getValue());
+            ret.add(transaction);
         }
         
         return ret;
     }
 
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The returned view shares the internal transactions of this database and
+     * evaluates the predicates while being iterated.
+     * 
+     * @param  predicates the array of predicates each transaction must satisfy.
+     * @return the view of those transactions, that obey each predicate.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Set<Movie>> view(final Predicate<User>... predicates) {
+        // The predicate array is only read, so it cannot pollute the heap.
+        return new TransactionView<>(userList, transactionList, predicates);
+    }
+    
     /**
      * {@inheritDoc }
      * 
@@ -96,7 +295,7 @@ public class DefaultDatabase extends AbstractDatabase<User, Movie>{
      */
     @Override
     public int size() {
-        return mainMap.size();
+        return transactionAmount;
     }
     
     /**
@@ -108,10 +307,16 @@ public class DefaultDatabase extends AbstractDatabase<User, Movie>{
     public String toString() {
         final StringBuilder sb = new StringBuilder();
         
-        for (final User user : mainMap.keySet()) {
-            sb.append(user.toString()).append('\n');
+        for (int userCode = 0; userCode < transactionList.size(); ++userCode) {
+            final Set<Movie> transaction = transactionList.get(userCode);
+            
+            if (transaction == null) {
+                continue;
+            }
             
-            for (final Movie item : mainMap.get(user)) {
+            sb.append(userList.get(userCode).toString()).append('\n');
+            
+            for (final Movie item : transaction) {
                 sb.append(item.toString()).append('\n');
             }
             
@@ -129,7 +334,443 @@ public class DefaultDatabase extends AbstractDatabase<User, Movie>{
         return Collections.unmodifiableList(movieList);
     }
     
+    /**
+     * Returns a read-only view of the ratings. The rating objects are created 
+     * on demand from the rating table.
+     * 
+     * @return the list of ratings.
+     */
     public List<Rating> getRatingView() {
-        return Collections.unmodifiableList(ratingList);
+        return new AbstractList<Rating>() {
+            
+            @Override
+            public Rating get(final int index) {
+                return new Rating(
+                        userList.get(ratingTable.getUserCode(index)).getId(),
+                        movieList.get(ratingTable.getMovieCode(index)).getId(),
+                        ratingTable.getScore(index),
+                        ratingTable.getTimestamp(index));
+            }
+            
+            @Override
+            public int size() {
+                return ratingTable.size();
+            }
+        };
+    }
+    
+    /**
+     * Returns the table of ratings. The user and movie codes in the table are
+     * the codes assigned by the user and the movie dictionaries of this 
+     * database.
+     * 
+     * @return the rating table.
+     */
+    public RatingTable getRatingTable() {
+        return ratingTable;
+    }
+    
+    /**
+     * Returns the dictionary mapping user IDs to user codes.
+     * 
+     * @return the user dictionary.
+     */
+    public IdDictionary getUserDictionary() {
+        return userDictionary;
+    }
+    
+    /**
+     * Returns the dictionary mapping movie IDs to movie codes.
+     * 
+     * @return the movie dictionary.
+     */
+    public IdDictionary getMovieDictionary() {
+        return movieDictionary;
+    }
+    
+    /**
+     * Returns the user with code <code>userCode</code>.
+     * 
+     * @param  userCode the user code.
+     * @return the user.
+     */
+    public User getUser(final int userCode) {
+        return userList.get(userCode);
+    }
+    
+    /**
+     * Returns the movie with code <code>movieCode</code>.
+     * 
+     * @param  movieCode the movie code.
+     * @return the movie.
+     */
+    public Movie getMovie(final int movieCode) {
+        return movieList.get(movieCode);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <p>
+     * The index is built once when this database is constructed.
+     * 
+     * @return the map from movies to their transaction bitmaps.
+     */
+    @Override
+    public Map<Movie, CompressedBitmap> getVerticalIndex() {
+        return verticalIndex;
+    }
+    
+    /**
+     * {@inheritDoc }
+     * 
+     * @param  itemset the itemset.
+     * @return the support count of the itemset.
+     */
+    @Override
+    public int getSupportCount(final Set<Movie> itemset) {
+        if (itemset.isEmpty()) {
+            return transactionAmount;
+        }
+        
+        return getSupportCount(itemset, verticalIndex);
+    }
+    
+    /**
+     * Returns the index of user attributes. The bit sets of the index hold 
+     * user codes.
+     * 
+     * @return the user attribute index.
+     */
+    public UserAttributeIndex getUserAttributeIndex() {
+        return userAttributeIndex;
+    }
+    
+    /**
+     * Returns the bitmap of the transactions containing the movie with code
+     * <code>movieCode</code>.
+     * 
+     * @param  movieCode the movie code.
+     * @return the transaction bitmap of the movie.
+     */
+    public CompressedBitmap getMovieBitmap(final int movieCode) {
+        return movieBitmaps[movieCode];
+    }
+    
+    /**
+     * Returns an unmodifiable view of the transaction of the user with code
+     * <code>userCode</code>.
+     * 
+     * @param  userCode the user code.
+     * @return the set of movies rated by the user.
+     */
+    public Set<Movie> getTransaction(final int userCode) {
+        final Set<Movie> transaction = transactionList.get(userCode);
+        
+        if (transaction == null) {
+            return Collections.<Movie>emptySet();
+        }
+        
+        return Collections.unmodifiableSet(transaction);
+    }
+    
+    /**
+     * Converts the list of ratings into a rating table whose codes are indices
+     * into <code>userList</code> and <code>movieList</code>. Ratings whose 
+     * user or movie is not in the lists are left out of the table.
+     * 
+     * @param  userList   the list of users.
+     * @param  movieList  the list of movies.
+     * @param  ratingList the list of ratings.
+     * @return the rating table.
+     */
+    private static RatingTable toRatingTable(final List<User> userList,
+                                             final List<Movie> movieList,
+                                             final List<Rating> ratingList) {
+        final IdDictionary userDictionary = buildUserDictionary(userList);
+        final IdDictionary movieDictionary = buildMovieDictionary(movieList);
+        final RatingTable ratingTable = new RatingTable(ratingList.size());
+        
+        for (final Rating rating : ratingList) {
+            final int userCode = userDictionary.getCode(rating.getUserId());
+            final int movieCode = 
+                    movieDictionary.getCode(rating.getMovieId());
+            
+            if (userCode == IdDictionary.NO_CODE 
+                    || movieCode == IdDictionary.NO_CODE) {
+                continue;
+            }
+            
+            ratingTable.add(userCode, 
+                            movieCode, 
+                            rating.getScore(), 
+                            rating.getTimestamp());
+        }
+        
+        return ratingTable;
+    }
+    
+    /**
+     * Builds the dictionary of user IDs. The code of each user is its index 
+     * in <code>userList</code>.
+     * 
+     * @param  userList the list of users.
+     * @return the user dictionary.
+     * @throws IllegalArgumentException if two users share an ID.
+     */
+    private static IdDictionary buildUserDictionary(final List<User> userList) {
+        final IdDictionary dictionary = new IdDictionary(userList.size());
+        
+        for (final User user : userList) {
+            if (dictionary.encode(user.getId()) != dictionary.size() - 1) {
+                throw new IllegalArgumentException(
+                        "Duplicate user ID: " + user.getId());
+            }
+        }
+        
+        return dictionary;
+    }
+    
+    /**
+     * Builds the dictionary of movie IDs. The code of each movie is its index 
+     * in <code>movieList</code>.
+     * 
+     * @param  movieList the list of movies.
+     * @return the movie dictionary.
+     * @throws IllegalArgumentException if two movies share an ID.
+     */
+    private static IdDictionary 
+        buildMovieDictionary(final List<Movie> movieList) {
+        final IdDictionary dictionary = new IdDictionary(movieList.size());
+        
+        for (final Movie movie : movieList) {
+            if (dictionary.encode(movie.getId()) != dictionary.size() - 1) {
+                throw new IllegalArgumentException(
+                        "Duplicate movie ID: " + movie.getId());
+            }
+        }
+        
+        return dictionary;
+    }
+    
+    /**
+     * Groups the indices of the ratings by user code with a counting sort. On
+     * return, the ratings of the user with code <tt>u</tt> are listed in the 
+     * returned array from <code>userOffsets[u]</code> inclusive to 
+     * <code>userOffsets[u + 1]</code> exclusive, in table order.
+     * 
+     * @param  userOffsets the array of length <code>userList.size() + 1</code>
+     *                     receiving the offsets of the users.
+     * @return the array of rating indices grouped by user.
+     */
+    private int[] groupRatingsByUser(final int[] userOffsets) {
+        final int userAmount = userList.size();
+        final int movieAmount = movieList.size();
+        
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            final int userCode = ratingTable.getUserCode(i);
+            final int movieCode = ratingTable.getMovieCode(i);
+            
+            if (userCode < 0 || userCode >= userAmount) {
+                throw new IllegalArgumentException(
+                        "Invalid user code: " + userCode);
+            }
+            
+            if (movieCode < 0 || movieCode >= movieAmount) {
+                throw new IllegalArgumentException(
+                        "Invalid movie code: " + movieCode);
+            }
+            
+            ++userOffsets[userCode + 1];
+        }
+        
+        for (int userCode = 0; userCode < userAmount; ++userCode) {
+            userOffsets[userCode + 1] += userOffsets[userCode];
+        }
+        
+        final int[] ratingIndices = new int[ratingTable.size()];
+        final int[] fill = Arrays.copyOf(userOffsets, userAmount);
+        
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            ratingIndices[fill[ratingTable.getUserCode(i)]++] = i;
+        }
+        
+        return ratingIndices;
+    }
+    
+    /**
+     * Builds the transactions of the users with codes from 
+     * <code>fromUserCode</code> inclusive to <code>toUserCode</code> 
+     * exclusive.
+     * 
+     * @param fromUserCode  the first user code of the range.
+     * @param toUserCode    the user code past the range.
+     * @param userOffsets   the offsets of the users in 
+     *                      <code>ratingIndices</code>.
+     * @param ratingIndices the rating indices grouped by user.
+     */
+    private void buildTransactions(final int fromUserCode,
+                                   final int toUserCode,
+                                   final int[] userOffsets,
+                                   final int[] ratingIndices) {
+        for (int userCode = fromUserCode; userCode < toUserCode; ++userCode) {
+            final int start = userOffsets[userCode];
+            final int end = userOffsets[userCode + 1];
+            
+            if (start == end) {
+                continue;
+            }
+            
+            final Set<Movie> transaction = new LinkedHashSet<>();
+            
+            for (int i = start; i < end; ++i) {
+                transaction.add(movieList.get(
+                        ratingTable.getMovieCode(ratingIndices[i])));
+            }
+            
+            transactionList.set(userCode, transaction);
+        }
+    }
+    
+    /**
+     * Builds the transaction bitmap of each movie. The ratings are bucketed
+     * by movie with a counting sort, after which each bucket is sorted and
+     * freed of duplicates.
+     * 
+     * @return the array of bitmaps indexed by movie code.
+     */
+    private CompressedBitmap[] buildMovieBitmaps() {
+        final int[] transactionIndices = new int[userList.size()];
+        int transactionIndex = 0;
+        
+        for (int userCode = 0; userCode < userList.size(); ++userCode) {
+            transactionIndices[userCode] = 
+                    transactionList.get(userCode) == null ? 
+                    -1 : 
+                    transactionIndex++;
+        }
+        
+        final int movieAmount = movieList.size();
+        final int[] offsets = new int[movieAmount + 1];
+        
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            ++offsets[ratingTable.getMovieCode(i) + 1];
+        }
+        
+        for (int movieCode = 0; movieCode < movieAmount; ++movieCode) {
+            offsets[movieCode + 1] += offsets[movieCode];
+        }
+        
+        final int[] owners = new int[ratingTable.size()];
+        final int[] fill = Arrays.copyOf(offsets, movieAmount);
+        
+        for (int i = 0; i < ratingTable.size(); ++i) {
+            owners[fill[ratingTable.getMovieCode(i)]++] = 
+                    transactionIndices[ratingTable.getUserCode(i)];
+        }
+        
+        final CompressedBitmap[] bitmaps = new CompressedBitmap[movieAmount];
+        
+        for (int movieCode = 0; movieCode < movieAmount; ++movieCode) {
+            final int start = offsets[movieCode];
+            final int end = offsets[movieCode + 1];
+            Arrays.sort(owners, start, end);
+            
+            int length = 0;
+            
+            for (int i = start; i < end; ++i) {
+                if (i == start || owners[i] != owners[i - 1]) {
+                    owners[start + length++] = owners[i];
+                }
+            }
+            
+            bitmaps[movieCode] = CompressedBitmap.fromSortedArray(
+                    Arrays.copyOfRange(owners, start, start + length),
+                    length);
+        }
+        
+        return bitmaps;
+    }
+    
+    /**
+     * Builds the vertical index out of the movie bitmaps. Movies nobody has
+     * rated are left out.
+     * 
+     * @return the vertical index.
+     */
+    private Map<Movie, CompressedBitmap> buildVerticalIndex() {
+        final Map<Movie, CompressedBitmap> index = 
+                new HashMap<>(movieBitmaps.length);
+        
+        for (int movieCode = 0; movieCode < movieBitmaps.length; ++movieCode) {
+            if (movieBitmaps[movieCode].cardinality() > 0) {
+                index.put(movieList.get(movieCode), movieBitmaps[movieCode]);
+            }
+        }
+        
+        return Collections.unmodifiableMap(index);
+    }
+    
+    /**
+     * Counts the users that have rated at least one movie.
+     * 
+     * @return the amount of transactions.
+     */
+    private int countTransactions() {
+        int count = 0;
+        
+        for (final Set<Movie> transaction : transactionList) {
+            if (transaction != null) {
+                ++count;
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * This task builds the transactions of the users in a contiguous range of
+     * user codes.
+     */
+    private final class PartitionTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The first user code of the range.
+         */
+        private final int fromUserCode;
+        
+        /**
+         * The user code past the range.
+         */
+        private final int toUserCode;
+        
+        /**
+         * The offsets of the users in <code>ratingIndices</code>.
+         */
+        private final int[] userOffsets;
+        
+        /**
+         * The rating indices grouped by user.
+         */
+        private final int[] ratingIndices;
+        
+        PartitionTask(final int fromUserCode, 
+                      final int toUserCode,
+                      final int[] userOffsets,
+                      final int[] ratingIndices) {
+            this.fromUserCode = fromUserCode;
+            this.toUserCode = toUserCode;
+            this.userOffsets = userOffsets;
+            this.ratingIndices = ratingIndices;
+        }
+        
+        @Override
+        protected void compute() {
+            buildTransactions(fromUserCode, 
+                              toUserCode, 
+                              userOffsets, 
+                              ratingIndices);
+        }
     }
 }
@@ -0,0 +1,103 @@
+package net.coderodde.moviemine.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class implements a dictionary mapping external string IDs to dense
+ * integer codes. The codes are assigned in the order the IDs are added, so the
+ * first ID gets code 0, the second one code 1, and so on.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IdDictionary {
+    
+    /**
+     * The code returned for IDs not present in a dictionary.
+     */
+    public static final int NO_CODE = -1;
+    
+    /**
+     * Maps each ID to its code.
+     */
+    private final Map<String, Integer> codeMap;
+    
+    /**
+     * Maps each code to its ID.
+     */
+    private final List<String> idList;
+    
+    /**
+     * Constructs an empty dictionary.
+     */
+    public IdDictionary() {
+        this.codeMap = new HashMap<>();
+        this.idList = new ArrayList<>();
+    }
+    
+    /**
+     * Constructs an empty dictionary with room for <code>capacity</code> IDs.
+     * 
+     * @param capacity the expected amount of IDs.
+     */
+    public IdDictionary(final int capacity) {
+        this.codeMap = new HashMap<>(capacity);
+        this.idList = new ArrayList<>(capacity);
+    }
+    
+    /**
+     * Returns the code of <code>id</code>, adding <code>id</code> to this
+     * dictionary if it is not already present.
+     * 
+     * @param  id the ID to encode.
+     * @return the code of the ID.
+     */
+    public int encode(final String id) {
+        checkNotNull(id, "The ID is null.");
+        final Integer code = codeMap.get(id);
+        
+        if (code != null) {
+            return code;
+        }
+        
+        final int newCode = idList.size();
+        codeMap.put(id, newCode);
+        idList.add(id);
+        return newCode;
+    }
+    
+    /**
+     * Returns the code of <code>id</code>.
+     * 
+     * @param  id the ID.
+     * @return the code of the ID, or {@link #NO_CODE} if the ID is not in this
+     *         dictionary.
+     */
+    public int getCode(final String id) {
+        final Integer code = codeMap.get(id);
+        return code == null ? NO_CODE : code;
+    }
+    
+    /**
+     * Returns the ID with code <code>code</code>.
+     * 
+     * @param  code the code.
+     * @return the ID.
+     */
+    public String getId(final int code) {
+        return idList.get(code);
+    }
+    
+    /**
+     * Returns the amount of IDs in this dictionary.
+     * 
+     * @return the size of this dictionary.
+     */
+    public int size() {
+        return idList.size();
+    }
+}
@@ -0,0 +1,240 @@
+package net.coderodde.moviemine.model;
+
+import java.util.Arrays;
+import static net.coderodde.util.Validation.checkIntegerNotNegative;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class stores ratings column by column in primitive arrays. Users and
+ * movies are referred to by integer codes, which are normally assigned by an
+ * {@link IdDictionary}. Storing ratings this way needs no object per rating.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class RatingTable {
+    
+    /**
+     * The default initial capacity of a table.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * The user code column.
+     */
+    private int[] userCodes;
+    
+    /**
+     * The movie code column.
+     */
+    private int[] movieCodes;
+    
+    /**
+     * The score column.
+     */
+    private float[] scores;
+    
+    /**
+     * The timestamp column.
+     */
+    private long[] timestamps;
+    
+    /**
+     * The amount of ratings in this table.
+     */
+    private int size;
+    
+    /**
+     * Constructs an empty rating table.
+     */
+    public RatingTable() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs an empty rating table with room for <code>capacity</code>
+     * ratings.
+     * 
+     * @param capacity the initial capacity.
+     */
+    public RatingTable(final int capacity) {
+        checkIntegerNotNegative(capacity,
+                                "The capacity is negative: " + capacity);
+        this.userCodes = new int[capacity];
+        this.movieCodes = new int[capacity];
+        this.scores = new float[capacity];
+        this.timestamps = new long[capacity];
+    }
+    
+    /**
+     * Constructs a rating table on top of the given columns. The columns are
+     * not copied and must have equal lengths.
+     * 
+     * @param userCodes  the user code column.
+     * @param movieCodes the movie code column.
+     * @param scores     the score column.
+     * @param timestamps the timestamp column.
+     */
+    public RatingTable(final int[] userCodes,
+                       final int[] movieCodes,
+                       final float[] scores,
+                       final long[] timestamps) {
+        checkNotNull(userCodes, "The user code column is null.");
+        checkNotNull(movieCodes, "The movie code column is null.");
+        checkNotNull(scores, "The score column is null.");
+        checkNotNull(timestamps, "The timestamp column is null.");
+        
+        if (movieCodes.length != userCodes.length
+                || scores.length != userCodes.length
+                || timestamps.length != userCodes.length) {
+            throw new IllegalArgumentException(
+                    "The columns have different lengths.");
+        }
+        
+        this.userCodes = userCodes;
+        this.movieCodes = movieCodes;
+        this.scores = scores;
+        this.timestamps = timestamps;
+        this.size = userCodes.length;
+    }
+    
+    /**
+     * Appends a rating to this table.
+     * 
+     * @param userCode  the code of the user.
+     * @param movieCode the code of the movie.
+     * @param score     the score.
+     * @param timestamp the timestamp.
+     */
+    public void add(final int userCode,
+                    final int movieCode,
+                    final float score,
+                    final long timestamp) {
+        if (size == userCodes.length) {
+            ensureCapacity(Math.max(DEFAULT_CAPACITY, 2 * size));
+        }
+        
+        userCodes[size] = userCode;
+        movieCodes[size] = movieCode;
+        scores[size] = score;
+        timestamps[size] = timestamp;
+        ++size;
+    }
+    
+    /**
+     * Appends all the ratings of <code>other</code> to this table.
+     * 
+     * @param other the table whose ratings to append.
+     */
+    public void addAll(final RatingTable other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.userCodes, 0, userCodes, size, other.size);
+        System.arraycopy(other.movieCodes, 0, movieCodes, size, other.size);
+        System.arraycopy(other.scores, 0, scores, size, other.size);
+        System.arraycopy(other.timestamps, 0, timestamps, size, other.size);
+        size += other.size;
+    }
+    
+    /**
+     * Makes sure this table can hold at least <code>capacity</code> ratings
+     * without growing.
+     * 
+     * @param capacity the requested capacity.
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity > userCodes.length) {
+            userCodes = Arrays.copyOf(userCodes, capacity);
+            movieCodes = Arrays.copyOf(movieCodes, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+    }
+    
+    /**
+     * Returns the amount of ratings in this table.
+     * 
+     * @return the size of this table.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the user code of the <code>index</code>th rating.
+     * 
+     * @param  index the index of the rating.
+     * @return the user code.
+     */
+    public int getUserCode(final int index) {
+        checkIndex(index);
+        return userCodes[index];
+    }
+    
+    /**
+     * Returns the movie code of the <code>index</code>th rating.
+     * 
+     * @param  index the index of the rating.
+     * @return the movie code.
+     */
+    public int getMovieCode(final int index) {
+        checkIndex(index);
+        return movieCodes[index];
+    }
+    
+    /**
+     * Returns the score of the <code>index</code>th rating.
+     * 
+     * @param  index the index of the rating.
+     * @return the score.
+     */
+    public float getScore(final int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+    
+    /**
+     * Returns the timestamp of the <code>index</code>th rating.
+     * 
+     * @param  index the index of the rating.
+     * @return the timestamp.
+     */
+    public long getTimestamp(final int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+    
+    /**
+     * Sets the user code of the <code>index</code>th rating.
+     * 
+     * @param index    the index of the rating.
+     * @param userCode the new user code.
+     */
+    public void setUserCode(final int index, final int userCode) {
+        checkIndex(index);
+        userCodes[index] = userCode;
+    }
+    
+    /**
+     * Sets the movie code of the <code>index</code>th rating.
+     * 
+     * @param index     the index of the rating.
+     * @param movieCode the new movie code.
+     */
+    public void setMovieCode(final int index, final int movieCode) {
+        checkIndex(index);
+        movieCodes[index] = movieCode;
+    }
+    
+    /**
+     * Checks that <code>index</code> is a valid rating index.
+     * 
+     * @param index the index to check.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package net.coderodde.moviemine.model;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static net.coderodde.util.Validation.checkNotNull;
+
+/**
+ * This class indexes users by their attributes. For each attribute and each
+ * value of it, the index keeps the bit set of the codes of the users having 
+ * that value, where the code of a user is its index in the user list. An
+ * {@link AttributePredicate} is then answered by a union of a few bit sets.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class UserAttributeIndex {
+    
+    /**
+     * Maps each attribute to the map from its values to user code sets.
+     */
+    private final Map<AttributePredicate.Attribute, Map<Object, BitSet>> 
+            indexMap;
+    
+    /**
+     * Constructs the index of the users in <code>userList</code>.
+     * 
+     * @param userList the list of users.
+     */
+    public UserAttributeIndex(final List<User> userList) {
+        checkNotNull(userList, "The user list is null.");
+        this.indexMap = new EnumMap<>(AttributePredicate.Attribute.class);
+        
+        for (final AttributePredicate.Attribute attribute 
+                : AttributePredicate.Attribute.values()) {
+            final Map<Object, BitSet> valueMap = new HashMap<>();
+            
+            for (int userCode = 0; userCode < userList.size(); ++userCode) {
+                final Object value = 
+                        attribute.getValue(userList.get(userCode));
+                BitSet userCodeSet = valueMap.get(value);
+                
+                if (userCodeSet == null) {
+                    userCodeSet = new BitSet();
+                    valueMap.put(value, userCodeSet);
+                }
+                
+                userCodeSet.set(userCode);
+            }
+            
+            indexMap.put(attribute, valueMap);
+        }
+    }
+    
+    /**
+     * Returns the set of codes of the users accepted by 
+     * <code>predicate</code>. The returned set may be modified by the caller.
+     * 
+     * @param  predicate the attribute predicate.
+     * @return the set of user codes.
+     */
+    public BitSet getUserCodes(final AttributePredicate predicate) {
+        final Map<Object, BitSet> valueMap = 
+                indexMap.get(predicate.getAttribute());
+        final BitSet ret = new BitSet();
+        
+        if (predicate.getValueSet() != null) {
+            for (final Object value : predicate.getValueSet()) {
+                final BitSet userCodeSet = valueMap.get(value);
+                
+                if (userCodeSet != null) {
+                    ret.or(userCodeSet);
+                }
+            }
+        } else {
+            for (final Map.Entry<Object, BitSet> e : valueMap.entrySet()) {
+                if (predicate.acceptsValue(e.getKey())) {
+                    ret.or(e.getValue());
+                }
+            }
+        }
+        
+        return ret;
+    }
+}
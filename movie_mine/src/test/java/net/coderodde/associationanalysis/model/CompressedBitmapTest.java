@@ -0,0 +1,72 @@
+package net.coderodde.associationanalysis.model;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CompressedBitmapTest {
+    
+    @Test
+    public void testContainsAndToArray() {
+        final CompressedBitmap bitmap = 
+                CompressedBitmap.fromSortedArray(new int[]{ 3, 64, 1000, 7 }, 
+                                                 3);
+        
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(64));
+        assertTrue(bitmap.contains(1000));
+        assertFalse(bitmap.contains(7));
+        assertFalse(bitmap.contains(-1));
+        assertArrayEquals(new int[]{ 3, 64, 1000 }, bitmap.toArray());
+        assertEquals(0, CompressedBitmap.EMPTY.cardinality());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnUnsortedArray() {
+        CompressedBitmap.fromSortedArray(new int[]{ 2, 1 }, 2);
+    }
+    
+    @Test
+    public void testAndMatchesBitSet() {
+        final Random random = new Random(13L);
+        
+        // Densities from very sparse to very dense, so that every pair of
+        // representations gets intersected.
+        final double[] densities = { 0.001, 0.05, 0.5, 0.95 };
+        
+        for (final double density1 : densities) {
+            for (final double density2 : densities) {
+                final BitSet bitSet1 = createBitSet(random, 5000, density1);
+                final BitSet bitSet2 = createBitSet(random, 3000, density2);
+                final CompressedBitmap bitmap1 = 
+                        CompressedBitmap.fromBitSet(bitSet1);
+                final CompressedBitmap bitmap2 = 
+                        CompressedBitmap.fromBitSet(bitSet2);
+                
+                bitSet1.and(bitSet2);
+                
+                assertEquals(bitSet1, bitmap1.and(bitmap2).toBitSet());
+                assertEquals(bitSet1.cardinality(), 
+                             bitmap1.andCardinality(bitmap2));
+                assertEquals(bitSet1.cardinality(), 
+                             bitmap2.andCardinality(bitmap1));
+            }
+        }
+    }
+    
+    private static BitSet createBitSet(final Random random,
+                                       final int length,
+                                       final double density) {
+        final BitSet bitSet = new BitSet(length);
+        
+        for (int i = 0; i < length; ++i) {
+            if (random.nextDouble() < density) {
+                bitSet.set(i);
+            }
+        }
+        
+        return bitSet;
+    }
+}
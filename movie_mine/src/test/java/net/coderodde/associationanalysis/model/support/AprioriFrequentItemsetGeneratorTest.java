@@ -6,9 +6,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 import net.coderodde.associationanalysis.model.AbstractDatabase;
 import net.coderodde.associationanalysis.model.AbstractFrequentItemsetGenerator;
@@ -342,6 +345,313 @@ public class AprioriFrequentItemsetGeneratorTest {
         assertFalse(data.getFrequentItemsets().contains(asSet(a, b, c, d,e )));
     }
     
+    @Test
+    public void testTransactionDeduplication() {
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final List<Set<String>> transactionList = createTransactionList();
+        
+        // Baskets identical after dropping the infrequent items x and y.
+        transactionList.add(asSet("a", "b", "c", "x"));
+        transactionList.add(asSet("a", "b", "c", "y"));
+        transactionList.add(asSet("x"));
+        
+        final double minimumSupport = 3.0 / transactionList.size();
+        final FrequentItemsetData<String> expected = 
+                generator.findFrequentItemsets(transactionList, minimumSupport);
+        
+        assertFalse(generator.isTransactionDeduplication());
+        generator.setTransactionDeduplication(true);
+        assertTrue(generator.isTransactionDeduplication());
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(transactionList, 
+                                                          minimumSupport));
+    }
+    
+    @Test
+    public void testFindApproximateFrequentItemsets() {
+        final Random random = new Random(7L);
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(random, 50000, 6, 0.8, 0.1);
+        
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final double minimumSupport = 0.2;
+        final double epsilon = 0.02;
+        final FrequentItemsetData<String> exact = 
+                generator.findFrequentItemsets(transactionList, 
+                                               minimumSupport);
+        final FrequentItemsetData<String> approximate = 
+                generator.findApproximateFrequentItemsets(transactionList,
+                                                          minimumSupport,
+                                                          epsilon,
+                                                          0.01,
+                                                          random);
+        
+        assertFalse(exact.isApproximate());
+        assertTrue(approximate.isApproximate());
+        assertEquals(epsilon, approximate.getSupportErrorBound(), 0.0);
+        assertEquals(0.01, approximate.getFailureProbability(), 0.0);
+        assertEquals(AbstractFrequentItemsetGenerator.getSampleSize(epsilon, 
+                                                                    0.01),
+                     approximate.getTransactionAmount());
+        
+        for (final Set<String> itemset : exact.getFrequentItemsets()) {
+            assertTrue(approximate.getFrequentItemsets().contains(itemset));
+            assertEquals(exact.getSupportCountFunction().getSupport(itemset),
+                         approximate.getSupportCountFunction()
+                                    .getSupport(itemset),
+                         epsilon);
+        }
+        
+        // A sample no smaller than the input means exact mining.
+        final FrequentItemsetData<String> small = 
+                generator.findApproximateFrequentItemsets(
+                        createTransactionList(), 0.2, 0.1, 0.1);
+        
+        assertFalse(small.isApproximate());
+        assertEquals(19, small.getFrequentItemsets().size());
+    }
+    
+    @Test
+    public void testGenerateCandidatesPrunesInfrequentSubsets() {
+        final CandidateExposingGenerator generator = 
+                new CandidateExposingGenerator();
+        final Set<Set<String>> itemsets = new HashSet<>();
+        
+        itemsets.add(asSet("a", "b"));
+        itemsets.add(asSet("a", "c"));
+        itemsets.add(asSet("a", "d"));
+        itemsets.add(asSet("b", "c"));
+        itemsets.add(asSet("c", "d"));
+        
+        final Set<Set<String>> candidates = 
+                generator.generateCandidates(itemsets);
+        
+        // {a, b, d} is joined from {a, b} and {a, d}, but {b, d} is missing.
+        assertEquals(2, candidates.size());
+        assertTrue(candidates.contains(asSet("a", "b", "c")));
+        assertTrue(candidates.contains(asSet("a", "c", "d")));
+    }
+    
+    @Test
+    public void testParallelCounting() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(3L), 2000, 8, 0.6, 0.05);
+        
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final FrequentItemsetData<String> expected = 
+                generator.findFrequentItemsets(transactionList, 0.05);
+        
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try {
+            generator.setPool(pool);
+            assertSameItemsets(expected, 
+                               generator.findFrequentItemsets(transactionList, 
+                                                              0.05));
+            
+            assertSameItemsets(expected, 
+                               generator.findFrequentItemsets(
+                                       new LinkedList<>(transactionList), 
+                                       0.05));
+            
+            generator.setTransactionDeduplication(true);
+            
+            assertSameItemsets(expected, 
+                               generator.findFrequentItemsets(transactionList, 
+                                                              0.05));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testTriangularPairCounting() {
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final FrequentItemsetData<String> expected = 
+                generator.findFrequentItemsets(createTransactionList(), 0.2);
+        
+        generator.setTriangularPairCounting(true);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        
+        generator.setTransactionDeduplication(true);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        
+        final TriangularPairCounter pairCounter = 
+                new TriangularPairCounter(4);
+        
+        pairCounter.count(new int[]{ 0, 1, 3 }, 3, 1);
+        pairCounter.count(new int[]{ 1, 2, 3, 9 }, 3, 2);
+        
+        assertEquals(1, pairCounter.getCount(0, 1));
+        assertEquals(0, pairCounter.getCount(0, 2));
+        assertEquals(1, pairCounter.getCount(0, 3));
+        assertEquals(2, pairCounter.getCount(1, 2));
+        assertEquals(3, pairCounter.getCount(1, 3));
+        assertEquals(2, pairCounter.getCount(2, 3));
+    }
+    
+    @Test
+    public void testTransactionTrimming() {
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final FrequentItemsetData<String> expected = 
+                generator.findFrequentItemsets(createTransactionList(), 0.2);
+        
+        generator.setTransactionTrimming(true);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        
+        generator.setTransactionDeduplication(true);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        
+        try {
+            generator.setPool(pool);
+            assertSameItemsets(expected, 
+                               generator.findFrequentItemsets(
+                                       createTransactionList(), 0.2));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testDhpFilter() {
+        final AprioriFrequentItemsetGenerator<String> generator = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final FrequentItemsetData<String> expected = 
+                generator.findFrequentItemsets(createTransactionList(), 0.2);
+        
+        assertEquals(0.0, generator.getDhpPruningRatio(), 0.0);
+        
+        generator.setDhpBucketAmount(1);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        assertEquals(0.0, generator.getDhpPruningRatio(), 0.0);
+        
+        // b and e occur together once, so with no collisions {b, e} is cut.
+        generator.setDhpBucketAmount(1 << 20);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        assertTrue(generator.getDhpPruningRatio() > 0.0);
+        assertTrue(generator.getDhpPruningRatio() < 1.0);
+        
+        // The matrix takes over the pairs whenever the items fit in it.
+        generator.setTriangularPairCounting(true);
+        
+        assertSameItemsets(expected, 
+                           generator.findFrequentItemsets(
+                                   createTransactionList(), 0.2));
+        assertEquals(0.0, generator.getDhpPruningRatio(), 0.0);
+    }
+    
+    /**
+     * Returns the 10 transactions over items a to e, in which 19 itemsets 
+     * have support count at least 2.
+     */
+    static List<Set<String>> createTransactionList() {
+        final List<Set<String>> transactionList = new ArrayList<>();
+        transactionList.add(asSet("a", "b"));
+        transactionList.add(asSet("b", "c", "d"));
+        transactionList.add(asSet("a", "c", "d", "e"));
+        transactionList.add(asSet("a", "d", "e"));
+        transactionList.add(asSet("a", "b", "c"));
+        transactionList.add(asSet("a", "b", "c", "d"));
+        transactionList.add(asSet("a"));
+        transactionList.add(asSet("a", "b", "c"));
+        transactionList.add(asSet("a", "b", "d"));
+        transactionList.add(asSet("b", "c", "e"));
+        return transactionList;
+    }
+    
+    /**
+     * Returns <code>transactionAmount</code> random transactions over the 
+     * items i0 to i<tt>(itemAmount - 1)</tt>, in which item <tt>k</tt> occurs
+     * with probability <code>probability - decrease * k</code>.
+     */
+    static List<Set<String>> createRandomTransactionList(
+            final Random random,
+            final int transactionAmount,
+            final int itemAmount,
+            final double probability,
+            final double decrease) {
+        final List<Set<String>> transactionList = new ArrayList<>();
+        
+        for (int i = 0; i < transactionAmount; ++i) {
+            final Set<String> transaction = new HashSet<>();
+            
+            for (int item = 0; item < itemAmount; ++item) {
+                if (random.nextDouble() < probability - decrease * item) {
+                    transaction.add("i" + item);
+                }
+            }
+            
+            transactionList.add(transaction);
+        }
+        
+        return transactionList;
+    }
+    
+    /**
+     * Asserts that <code>data</code> holds the 19 frequent itemsets of 
+     * {@link #createTransactionList()} at support 0.2, with the support counts
+     * Apriori finds.
+     */
+    static void assertSmallExample(final FrequentItemsetData<String> data) {
+        assertEquals(19, data.getFrequentItemsets().size());
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(createTransactionList(), 0.2),
+                data);
+    }
+    
+    /**
+     * Asserts that both results contain the same itemsets with the same 
+     * support counts.
+     */
+    static <I> void assertSameItemsets(final FrequentItemsetData<I> expected,
+                                       final FrequentItemsetData<I> actual) {
+        assertEquals(new HashSet<>(expected.getFrequentItemsets()),
+                     new HashSet<>(actual.getFrequentItemsets()));
+        
+        for (final Set<I> itemset : expected.getFrequentItemsets()) {
+            assertEquals(expected.getSupportCountFunction()
+                                 .getSupportCount(itemset),
+                         actual.getSupportCountFunction()
+                               .getSupportCount(itemset));
+        }
+    }
+    
+    static final Comparator<String> STRING_COMPARATOR = 
+            new Comparator<String>() {
+        
+        @Override
+        public int compare(final String o1, final String o2) {
+            return o1.compareTo(o2);
+        }
+    };
+    
     static class StringDatabase extends AbstractDatabase<Object, String> {
 
         private final List<Set<String>> transactionList;
@@ -361,6 +671,20 @@ public class AprioriFrequentItemsetGeneratorTest {
         }
     }
     
+    static class CandidateExposingGenerator 
+    extends AprioriFrequentItemsetGenerator<String> {
+        
+        CandidateExposingGenerator() {
+            super(STRING_COMPARATOR);
+        }
+        
+        @Override
+        protected Set<Set<String>> 
+            generateCandidates(final Set<Set<String>> itemsetList) {
+            return super.generateCandidates(itemsetList);
+        }
+    }
+    
     static Set<String> asSet(String... strings) {
         return new HashSet<>(Arrays.asList(strings));
     }
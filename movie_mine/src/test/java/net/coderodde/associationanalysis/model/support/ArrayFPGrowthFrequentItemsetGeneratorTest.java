@@ -0,0 +1,49 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class ArrayFPGrowthFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        final ArrayFPGrowthFrequentItemsetGenerator<String> generator =
+                new ArrayFPGrowthFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        
+        for (final boolean fpArrayCounting : new boolean[]{ true, false }) {
+            generator.setFPArrayCounting(fpArrayCounting);
+            final FrequentItemsetData<String> data =
+                    generator.findFrequentItemsets(createTransactionList(),
+                                                   0.2);
+            
+            assertSmallExample(data);
+        }
+    }
+    
+    @Test
+    public void testRandomTransactions() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(23L),
+                                            1000, 12, 0.7, 0.05);
+        
+        final FrequentItemsetData<String> expected =
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.05);
+        final ArrayFPGrowthFrequentItemsetGenerator<String> generator =
+                new ArrayFPGrowthFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        
+        assertSameItemsets(expected,
+                           generator.findFrequentItemsets(transactionList,
+                                                          0.05));
+        
+        generator.setFPArrayCounting(false);
+        assertSameItemsets(expected,
+                           generator.findFrequentItemsets(transactionList,
+                                                          0.05));
+    }
+}
@@ -0,0 +1,85 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CandidateTrieTest {
+    
+    private static final Comparator<Integer> INTEGER_COMPARATOR =
+            new Comparator<Integer>() {
+        
+        @Override
+        public int compare(final Integer o1, final Integer o2) {
+            return Integer.compare(o1, o2);
+        }
+    };
+    
+    @Test
+    public void testCount() {
+        final List<Set<Integer>> candidates = new ArrayList<>();
+        
+        candidates.add(new HashSet<>(Arrays.asList(1, 2, 3)));
+        candidates.add(new HashSet<>(Arrays.asList(1, 2, 4)));
+        candidates.add(new HashSet<>(Arrays.asList(2, 3, 4)));
+        
+        final CandidateTrie<Integer> trie =
+                new CandidateTrie<>(candidates, INTEGER_COMPARATOR);
+        
+        trie.count(new HashSet<>(Arrays.asList(4, 3, 2, 1)), 1);
+        trie.count(new HashSet<>(Arrays.asList(1, 2, 3, 7)), 2);
+        trie.count(new HashSet<>(Arrays.asList(1, 2)), 5);
+        
+        assertEquals(3, trie.size());
+        assertEquals(3, trie.getCount(0));
+        assertEquals(1, trie.getCount(1));
+        assertEquals(1, trie.getCount(2));
+    }
+    
+    @Test
+    public void testCountMatchesContainsAll() {
+        final Random random = new Random(11L);
+        final Set<Set<Integer>> candidateSet = new HashSet<>();
+        
+        while (candidateSet.size() < 200) {
+            final Set<Integer> candidate = new HashSet<>();
+            
+            while (candidate.size() < 3) {
+                candidate.add(random.nextInt(20));
+            }
+            
+            candidateSet.add(candidate);
+        }
+        
+        final CandidateTrie<Integer> trie =
+                new CandidateTrie<>(candidateSet, INTEGER_COMPARATOR);
+        final int[] expected = new int[trie.size()];
+        
+        for (int i = 0; i < 500; ++i) {
+            final Set<Integer> transaction = new HashSet<>();
+            final int length = random.nextInt(12);
+            
+            for (int j = 0; j < length; ++j) {
+                transaction.add(random.nextInt(25));
+            }
+            
+            trie.count(transaction, 1);
+            
+            for (int c = 0; c < trie.size(); ++c) {
+                if (transaction.containsAll(trie.getCandidateList().get(c))) {
+                    ++expected[c];
+                }
+            }
+        }
+        
+        for (int c = 0; c < trie.size(); ++c) {
+            assertEquals(expected[c], trie.getCount(c));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class CharmFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        assertClosedItemsets(createTransactionList(), 0.2);
+    }
+    
+    @Test
+    public void testRandomTransactions() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(29L),
+                                            500, 10, 0.8, 0.05);
+        
+        // Items always rated together are never closed on their own.
+        for (final Set<String> transaction : transactionList) {
+            if (transaction.contains("i1")) {
+                transaction.add("j1");
+            }
+        }
+        
+        assertClosedItemsets(transactionList, 0.1);
+    }
+    
+    @Test
+    public void testClosedSupportCountFunction() {
+        final ClosedSupportCountFunction<String> function =
+                new ClosedSupportCountFunction<>(10);
+        
+        function.putSupportCount(asSet("a", "b", "c"), 3);
+        function.putSupportCount(asSet("a", "b"), 5);
+        function.putSupportCount(asSet("c"), 6);
+        
+        assertEquals(3, function.getSupportCount(asSet("a", "b", "c")));
+        assertEquals(5, function.getSupportCount(asSet("a")));
+        assertEquals(3, function.getSupportCount(asSet("a", "c")));
+        assertEquals(6, function.getSupportCount(asSet("c")));
+        assertEquals(0, function.getSupportCount(asSet("d")));
+        assertEquals(10, function.getSupportCount(new HashSet<String>()));
+    }
+    
+    /**
+     * Checks that CHARM returns exactly the frequent itemsets found by Apriori
+     * that have no proper superset with the same support, and that its
+     * support count function agrees with Apriori on every frequent itemset.
+     */
+    private static void assertClosedItemsets(
+            final List<Set<String>> transactionList,
+            final double minimumSupport) {
+        final FrequentItemsetData<String> expected =
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, minimumSupport);
+        final FrequentItemsetData<String> data =
+                new CharmFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, minimumSupport);
+        final Set<Set<String>> closedSet = new HashSet<>();
+        
+        for (final Set<String> itemset : expected.getFrequentItemsets()) {
+            final int count = expected.getSupportCountFunction()
+                                      .getSupportCount(itemset);
+            boolean closed = true;
+            
+            for (final Set<String> other : expected.getFrequentItemsets()) {
+                if (other.size() > itemset.size()
+                        && other.containsAll(itemset)
+                        && expected.getSupportCountFunction()
+                                   .getSupportCount(other) == count) {
+                    closed = false;
+                    break;
+                }
+            }
+            
+            if (closed) {
+                closedSet.add(itemset);
+            }
+            
+            assertEquals(count,
+                         data.getSupportCountFunction()
+                             .getSupportCount(itemset));
+        }
+        
+        assertEquals(closedSet.size(), data.getFrequentItemsets().size());
+        assertEquals(closedSet, new HashSet<>(data.getFrequentItemsets()));
+        assertTrue(closedSet.size() < expected.getFrequentItemsets().size());
+    }
+}
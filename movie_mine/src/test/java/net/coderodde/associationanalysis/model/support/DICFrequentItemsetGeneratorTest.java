@@ -0,0 +1,44 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class DICFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        for (int blockSize = 1; blockSize <= 11; ++blockSize) {
+            final FrequentItemsetData<String> data = 
+                    new DICFrequentItemsetGenerator<>(STRING_COMPARATOR,
+                                                      blockSize)
+                            .findFrequentItemsets(createTransactionList(), 
+                                                  0.2);
+            
+            assertSmallExample(data);
+        }
+    }
+    
+    @Test
+    public void testPassAmount() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(17L),
+                                            2000, 10, 0.7, 0.04);
+        
+        final AprioriFrequentItemsetGenerator<String> apriori = 
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final DICFrequentItemsetGenerator<String> dic = 
+                new DICFrequentItemsetGenerator<>(STRING_COMPARATOR, 100);
+        
+        assertSameItemsets(apriori.findFrequentItemsets(transactionList, 0.1),
+                           dic.findFrequentItemsets(transactionList, 0.1));
+        
+        // Apriori scans once per level, DIC overlaps the levels.
+        assertEquals(5, apriori.getPassAmount());
+        assertTrue(dic.getPassAmount() < 4.0);
+    }
+}
@@ -0,0 +1,80 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class EclatFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        final FrequentItemsetData<String> data =
+                new EclatFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(createTransactionList(), 0.2);
+        
+        assertSmallExample(data);
+    }
+    
+    @Test
+    public void testParallelClasses() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(17L),
+                                            1000, 10, 0.6, 0.05);
+        
+        final EclatFrequentItemsetGenerator<String> generator =
+                new EclatFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        
+        try {
+            generator.setPool(pool);
+            assertSameItemsets(
+                    new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                            .findFrequentItemsets(transactionList, 0.1),
+                    generator.findFrequentItemsets(transactionList, 0.1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testDiffsets() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(19L), 500, 8, 0.9, 0.05);
+        
+        final FrequentItemsetData<String> expected =
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.3);
+        final EclatFrequentItemsetGenerator<String> generator =
+                new EclatFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        
+        for (final double threshold : new double[]{ 0.0, 0.5, 0.8, 2.0 }) {
+            generator.setDiffsetThreshold(threshold);
+            assertSameItemsets(
+                    expected,
+                    generator.findFrequentItemsets(transactionList, 0.3));
+        }
+        
+        generator.setDiffsetThreshold(0.0);
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        
+        try {
+            generator.setPool(pool);
+            assertSameItemsets(
+                    expected,
+                    generator.findFrequentItemsets(transactionList, 0.3));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDiffsetThreshold() {
+        new EclatFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                .setDiffsetThreshold(-0.1);
+    }
+}
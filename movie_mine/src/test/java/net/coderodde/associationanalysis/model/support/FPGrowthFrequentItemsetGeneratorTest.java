@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Predicate;
 import net.coderodde.associationanalysis.model.AbstractDatabase;
@@ -337,7 +338,8 @@ public class FPGrowthFrequentItemsetGeneratorTest {
         work.add(map.get("Diapers"));
         
         assertTrue(frequentItemsetList.contains(work));
-        assertEquals(2, sf.getSupportCount(work));
+        // Users 2, 4 and 5; user 2 also rated the infrequent Eggs.
+        assertEquals(3, sf.getSupportCount(work));
         
         work.clear();
         work.add(map.get("Milk"));
@@ -427,6 +429,20 @@ public class FPGrowthFrequentItemsetGeneratorTest {
         assertFalse(data.getFrequentItemsets().contains(asSet(a, b, c, d, e)));
     }
     
+    @Test
+    public void testRandomTransactions() {
+        final List<Set<String>> transactionList = 
+                AprioriFrequentItemsetGeneratorTest.createRandomTransactionList(
+                        new Random(29L), 300, 10, 0.7, 0.05);
+        
+        AprioriFrequentItemsetGeneratorTest.assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(
+                        AprioriFrequentItemsetGeneratorTest.STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.05),
+                new FPGrowthFrequentItemsetGenerator<String>()
+                        .findFrequentItemsets(transactionList, 0.05));
+    }
+    
     static class StringDatabase extends AbstractDatabase<Object, String> {
 
         private final List<Set<String>> transactionList;
@@ -0,0 +1,57 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class IntAprioriFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        final FrequentItemsetData<String> data = 
+                new IntAprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(createTransactionList(), 0.2);
+        
+        assertSmallExample(data);
+        assertEquals(3, data.getSupportCountFunction()
+                            .getSupportCount(asSet("a", "b", "c")));
+    }
+    
+    @Test
+    public void testPairCandidates() {
+        final IntAprioriFrequentItemsetGenerator<String> generator =
+                new IntAprioriFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        
+        assertTrue(generator.isTriangularPairCounting());
+        generator.setTriangularPairCounting(false);
+        assertFalse(generator.isTriangularPairCounting());
+        assertSmallExample(
+                generator.findFrequentItemsets(createTransactionList(), 0.2));
+        
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(7L),
+                                            1000, 12, 0.7, 0.05);
+        
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1),
+                generator.findFrequentItemsets(transactionList, 0.1));
+    }
+    
+    @Test
+    public void testAgreesWithApriori() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(5L),
+                                            1000, 12, 0.7, 0.05);
+        
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1),
+                new IntAprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1));
+    }
+}
@@ -0,0 +1,34 @@
+package net.coderodde.associationanalysis.model.support;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IntItemsetTableTest {
+    
+    @Test
+    public void testAddAndIndexOf() {
+        final IntItemsetTable table = new IntItemsetTable(2, 0);
+        
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i, table.add(new int[]{ i, i + 1 }));
+        }
+        
+        assertEquals(100, table.size());
+        assertEquals(7, table.add(new int[]{ 7, 8 }));
+        assertEquals(100, table.size());
+        assertEquals(42, table.indexOf(new int[]{ 42, 43, 99 }));
+        assertEquals(-1, table.indexOf(new int[]{ 43, 42 }));
+        
+        table.increment(42, 3);
+        table.increment(42, 2);
+        
+        assertEquals(5, table.getCount(42));
+        assertEquals(0, table.getCount(41));
+        
+        final int[] itemset = new int[2];
+        table.getItemset(99, itemset);
+        
+        assertArrayEquals(new int[]{ 99, 100 }, itemset);
+        assertEquals(100, table.getItem(99, 1));
+    }
+}
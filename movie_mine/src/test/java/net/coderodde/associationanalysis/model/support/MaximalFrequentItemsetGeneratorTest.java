@@ -0,0 +1,81 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class MaximalFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        assertMaximalItemsets(
+                new MaximalFrequentItemsetGenerator<>(STRING_COMPARATOR),
+                createTransactionList(),
+                0.2);
+    }
+    
+    @Test
+    public void testRandomTransactions() {
+        final MaximalFrequentItemsetGenerator<String> generator =
+                new MaximalFrequentItemsetGenerator<>(STRING_COMPARATOR);
+        
+        for (final double density : new double[]{ 0.3, 0.6, 0.9 }) {
+            final List<Set<String>> transactionList = 
+                    createRandomTransactionList(new Random(31L),
+                                                500, 12, density, 0.02);
+            
+            assertMaximalItemsets(generator, transactionList, 0.1);
+        }
+        
+        // On the densest data the whole tail is frequent somewhere.
+        assertTrue(generator.getLookaheadAmount() > 0);
+    }
+    
+    /**
+     * Checks that the generator returns exactly the frequent itemsets found by
+     * Apriori that have no frequent proper superset, with their supports.
+     */
+    private static void assertMaximalItemsets(
+            final MaximalFrequentItemsetGenerator<String> generator,
+            final List<Set<String>> transactionList,
+            final double minimumSupport) {
+        final FrequentItemsetData<String> expected =
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, minimumSupport);
+        final FrequentItemsetData<String> data =
+                generator.findFrequentItemsets(transactionList,
+                                               minimumSupport);
+        final Set<Set<String>> maximalSet = new HashSet<>();
+        
+        for (final Set<String> itemset : expected.getFrequentItemsets()) {
+            boolean maximal = true;
+            
+            for (final Set<String> other : expected.getFrequentItemsets()) {
+                if (other.size() > itemset.size()
+                        && other.containsAll(itemset)) {
+                    maximal = false;
+                    break;
+                }
+            }
+            
+            if (maximal) {
+                maximalSet.add(itemset);
+            }
+        }
+        
+        assertEquals(maximalSet.size(), data.getFrequentItemsets().size());
+        assertEquals(maximalSet, new HashSet<>(data.getFrequentItemsets()));
+        
+        for (final Set<String> itemset : maximalSet) {
+            assertEquals(expected.getSupportCountFunction()
+                                 .getSupportCount(itemset),
+                         data.getSupportCountFunction()
+                             .getSupportCount(itemset));
+        }
+    }
+}
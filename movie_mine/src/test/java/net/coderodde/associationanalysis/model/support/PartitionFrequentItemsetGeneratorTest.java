@@ -0,0 +1,76 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class PartitionFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        for (int partitionSize = 1; partitionSize <= 11; ++partitionSize) {
+            final FrequentItemsetData<String> data = 
+                    new PartitionFrequentItemsetGenerator<>(STRING_COMPARATOR,
+                                                            partitionSize)
+                            .findFrequentItemsets(createTransactionList(), 
+                                                  0.2);
+            
+            assertSmallExample(data);
+        }
+    }
+    
+    @Test
+    public void testParallelPartitions() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(13L),
+                                            1000, 10, 0.6, 0.05);
+        
+        final PartitionFrequentItemsetGenerator<String> generator = 
+                new PartitionFrequentItemsetGenerator<>(STRING_COMPARATOR, 
+                                                        128);
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        
+        try {
+            generator.setPool(pool);
+            assertSameItemsets(
+                    new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                            .findFrequentItemsets(transactionList, 0.1),
+                    generator.findFrequentItemsets(transactionList, 0.1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testShortRemainder() {
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(new Random(17L),
+                                            200, 10, 0.6, 0.05);
+        
+        // Mined on its own, the last transaction would make all its 2^16
+        // subsets local candidates.
+        final Set<String> longTransaction = new HashSet<>();
+        
+        for (int item = 0; item < 16; ++item) {
+            longTransaction.add("l" + item);
+        }
+        
+        transactionList.add(longTransaction);
+        
+        final PartitionFrequentItemsetGenerator<String> generator = 
+                new PartitionFrequentItemsetGenerator<>(STRING_COMPARATOR, 
+                                                        100);
+        
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1),
+                generator.findFrequentItemsets(transactionList, 0.1));
+        assertTrue(generator.getGlobalCandidateAmount() < 1000);
+    }
+}
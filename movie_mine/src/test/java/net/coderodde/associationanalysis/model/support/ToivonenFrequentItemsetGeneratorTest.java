@@ -0,0 +1,56 @@
+package net.coderodde.associationanalysis.model.support;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.coderodde.associationanalysis.model.FrequentItemsetData;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static net.coderodde.associationanalysis.model.support.AprioriFrequentItemsetGeneratorTest.*;
+
+public class ToivonenFrequentItemsetGeneratorTest {
+    
+    @Test
+    public void testFindFrequentItemsets() {
+        // Tiny samples miss itemsets and force the fallback passes.
+        for (int sampleSize = 1; sampleSize <= 10; ++sampleSize) {
+            final FrequentItemsetData<String> data = 
+                    new ToivonenFrequentItemsetGenerator<>(STRING_COMPARATOR,
+                                                           sampleSize,
+                                                           0.8,
+                                                           new Random(1L))
+                            .findFrequentItemsets(createTransactionList(), 
+                                                  0.2);
+            
+            assertSmallExample(data);
+        }
+    }
+    
+    @Test
+    public void testSinglePass() {
+        final Random random = new Random(19L);
+        final List<Set<String>> transactionList = 
+                createRandomTransactionList(random, 5000, 10, 0.6, 0.05);
+        
+        final ToivonenFrequentItemsetGenerator<String> generator = 
+                new ToivonenFrequentItemsetGenerator<>(STRING_COMPARATOR,
+                                                       1000,
+                                                       0.7,
+                                                       random);
+        
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1),
+                generator.findFrequentItemsets(transactionList, 0.1));
+        assertEquals(1, generator.getPassAmount());
+        
+        // Without random access the sample takes a reservoir scan.
+        assertSameItemsets(
+                new AprioriFrequentItemsetGenerator<>(STRING_COMPARATOR)
+                        .findFrequentItemsets(transactionList, 0.1),
+                generator.findFrequentItemsets(
+                        new LinkedList<>(transactionList), 0.1));
+        assertEquals(2, generator.getPassAmount());
+    }
+}
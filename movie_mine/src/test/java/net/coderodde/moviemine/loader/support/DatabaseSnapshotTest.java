@@ -0,0 +1,132 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.coderodde.moviemine.model.CompressedDatabase;
+import net.coderodde.moviemine.model.DefaultDatabase;
+import net.coderodde.moviemine.model.Movie;
+import net.coderodde.moviemine.model.Rating;
+import net.coderodde.moviemine.model.User;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DatabaseSnapshotTest {
+    
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final List<User> userList = new ArrayList<>();
+        final List<Movie> movieList = new ArrayList<>();
+        final List<Rating> ratingList = new ArrayList<>();
+        
+        userList.add(User.createUser()
+                         .withId("1")
+                         .asFemale()
+                         .withAge(22)
+                         .withOccupation("nurse")
+                         .withZipCode("00520"));
+        
+        userList.add(new User("2", null, 0, null, null));
+        
+        movieList.add(Movie.createMovie()
+                           .withMovieId("10")
+                           .withTitle("Bread")
+                           .withGenres("food", "drama")
+                           .endGenres());
+        
+        movieList.add(Movie.createMovie()
+                           .withMovieId("11")
+                           .withTitle("Milk")
+                           .withGenres()
+                           .endGenres());
+        
+        ratingList.add(new Rating("1", "10", 4.5f, 1000L));
+        ratingList.add(new Rating("1", "11", 3.0f, 1001L));
+        ratingList.add(new Rating("2", "11", 1.0f, 1002L));
+        
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        final File sourceFile = 
+                MemoryMappedRatingParserTest.createFile("1::10::4.5::1000\n");
+        final File snapshotFile = File.createTempFile("movie_mine", ".bin");
+        snapshotFile.deleteOnExit();
+        
+        DatabaseSnapshot.write(db, snapshotFile, Arrays.asList(sourceFile));
+        
+        final DefaultDatabase db2 = 
+                DatabaseSnapshot.read(snapshotFile, Arrays.asList(sourceFile));
+        
+        assertNotNull(db2);
+        assertEquals(db.size(), db2.size());
+        assertEquals(2, db2.getUserView().size());
+        assertEquals(2, db2.getMovieView().size());
+        assertEquals(3, db2.getRatingView().size());
+        
+        final User user = db2.getUserView().get(0);
+        
+        assertEquals("1", user.getId());
+        assertEquals(User.Gender.FEMALE, user.getGender());
+        assertEquals(22, user.getAge());
+        assertEquals("nurse", user.getOccupation());
+        assertEquals("00520", user.getZipCode());
+        assertNull(db2.getUserView().get(1).getGender());
+        
+        assertEquals("Bread", db2.getMovieView().get(0).getTitle());
+        assertEquals(2, db2.getMovieView().get(0).getGenres().size());
+        
+        for (int i = 0; i < ratingList.size(); ++i) {
+            final Rating expected = ratingList.get(i);
+            final Rating actual = db2.getRatingView().get(i);
+            
+            assertEquals(expected.getUserId(), actual.getUserId());
+            assertEquals(expected.getMovieId(), actual.getMovieId());
+            assertEquals(expected.getScore(), actual.getScore(), 0.0001f);
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+        
+        final CompressedDatabase cdb = 
+                DatabaseSnapshot.readCompressed(snapshotFile, 
+                                                Arrays.asList(sourceFile));
+        
+        assertNotNull(cdb);
+        assertEquals(db.select(), cdb.select());
+        assertEquals(2, cdb.getTransactionLength(0));
+        assertEquals(1, cdb.getMovieCode(1, 0));
+        
+        // A snapshot of a changed source file is stale.
+        assertTrue(sourceFile.setLastModified(sourceFile.lastModified() - 
+                                              10000L));
+        assertNull(DatabaseSnapshot.read(snapshotFile, 
+                                         Arrays.asList(sourceFile)));
+        assertNull(DatabaseSnapshot.readCompressed(snapshotFile, 
+                                                   Arrays.asList(sourceFile)));
+    }
+    
+    @Test
+    public void testDeletesTemporaryFileOnFailure() throws IOException {
+        final DefaultDatabase db = 
+                new DefaultDatabase(new ArrayList<User>(),
+                                    new ArrayList<Movie>(),
+                                    new ArrayList<Rating>());
+        final File snapshotFile = File.createTempFile("movie_mine", ".bin");
+        snapshotFile.deleteOnExit();
+        
+        // The missing source file fails the header.
+        try {
+            DatabaseSnapshot.write(db, 
+                                   snapshotFile, 
+                                   Arrays.asList((File) null));
+            fail("The snapshot should not have been written.");
+        } catch (final NullPointerException ex) {
+            // Expected.
+        }
+        
+        final File temporaryFile = 
+                new File(snapshotFile.getAbsolutePath() + ".tmp");
+        
+        assertFalse(temporaryFile.exists());
+        assertEquals(0L, snapshotFile.length());
+    }
+}
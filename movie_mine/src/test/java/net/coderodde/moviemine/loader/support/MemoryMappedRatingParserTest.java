@@ -0,0 +1,108 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MemoryMappedRatingParserTest {
+    
+    @Test
+    public void testParse() throws IOException {
+        final File file = createFile("1::122::5::838985046\n" +
+                                     "1::185::4.5::838983525\r\n" +
+                                     "\n" +
+                                     "71567::65133::0.5::1230000000");
+        final List<String> ratingList = new ArrayList<>();
+        
+        new MemoryMappedRatingParser(file).parse(
+                new MemoryMappedRatingParser.RatingHandler() {
+            
+            @Override
+            public void handle(int userId, 
+                               int movieId, 
+                               float score, 
+                               long timestamp) {
+                ratingList.add(userId + " " + movieId + " " + 
+                               score + " " + timestamp);
+            }
+        });
+        
+        assertEquals(3, ratingList.size());
+        assertEquals("1 122 5.0 838985046", ratingList.get(0));
+        assertEquals("1 185 4.5 838983525", ratingList.get(1));
+        assertEquals("71567 65133 0.5 1230000000", ratingList.get(2));
+    }
+    
+    @Test
+    public void testSplit() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        
+        for (int i = 0; i < 100; ++i) {
+            sb.append(i).append("::").append(2 * i).append("::3::1000\n");
+        }
+        
+        final File file = createFile(sb.toString());
+        final MemoryMappedRatingParser parser = 
+                new MemoryMappedRatingParser(file);
+        final long[] bounds = parser.split(7);
+        final List<Integer> userIdList = new ArrayList<>();
+        
+        assertEquals(8, bounds.length);
+        assertEquals(0L, bounds[0]);
+        assertEquals(file.length(), bounds[bounds.length - 1]);
+        
+        for (int i = 0; i < bounds.length - 1; ++i) {
+            parser.parse(bounds[i], 
+                         bounds[i + 1], 
+                         new MemoryMappedRatingParser.RatingHandler() {
+                
+                @Override
+                public void handle(int userId, 
+                                   int movieId, 
+                                   float score, 
+                                   long timestamp) {
+                    assertEquals(2 * userId, movieId);
+                    userIdList.add(userId);
+                }
+            });
+        }
+        
+        assertEquals(100, userIdList.size());
+        
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(Integer.valueOf(i), userIdList.get(i));
+        }
+    }
+    
+    @Test(expected = NumberFormatException.class)
+    public void testParseThrowsOnMalformedLine() throws IOException {
+        final File file = createFile("1:122::5::838985046\n");
+        
+        new MemoryMappedRatingParser(file).parse(
+                new MemoryMappedRatingParser.RatingHandler() {
+            
+            @Override
+            public void handle(int userId, 
+                               int movieId, 
+                               float score, 
+                               long timestamp) {
+            }
+        });
+    }
+    
+    static File createFile(final String content) throws IOException {
+        final File file = File.createTempFile("ratings", ".dat");
+        file.deleteOnExit();
+        
+        try (final FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+        
+        return file;
+    }
+}
@@ -0,0 +1,57 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import net.coderodde.moviemine.loader.AbstractDataLoader.RatingParsingMode;
+import net.coderodde.moviemine.model.CompressedDatabase;
+import net.coderodde.moviemine.model.DefaultDatabase;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MovieLens1MDataLoaderTest {
+    
+    @Test
+    public void testLoadCompressed() throws IOException {
+        final File directory =
+                Files.createTempDirectory("movie_mine").toFile();
+        directory.deleteOnExit();
+        
+        writeFile(directory, "users.dat", "1::F::1::10::48067\n" +
+                                          "2::M::56::16::70072\n" +
+                                          "3::M::25::15::55117\n");
+        writeFile(directory, "movies.dat",
+                  "1::Toy Story (1995)::Animation|Comedy\n" +
+                  "2::Jumanji (1995)::Adventure\n" +
+                  "3::Heat (1995)::Action|Crime\n");
+        writeFile(directory, "ratings.dat", "1::3::5::978300760\n" +
+                                            "1::1::3::978302109\n" +
+                                            "3::2::4::978301968\n" +
+                                            "1::3::4::978300275\n");
+        
+        final MovieLens1MDataLoader loader =
+                new MovieLens1MDataLoader(directory);
+        
+        for (final RatingParsingMode mode : RatingParsingMode.values()) {
+            loader.setRatingParsingMode(mode);
+            
+            final DefaultDatabase db = loader.load();
+            final CompressedDatabase cdb = loader.loadCompressed();
+            
+            assertEquals(2, cdb.size());
+            assertEquals(db.select(), cdb.select());
+            assertEquals(2, cdb.getTransactionLength(0));
+            assertEquals(0, cdb.getTransactionLength(1));
+            assertEquals(1, cdb.getMovieCode(2, 0));
+        }
+    }
+    
+    private static void writeFile(final File directory,
+                                  final String fileName,
+                                  final String text) throws IOException {
+        final File file = new File(directory, fileName);
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+}
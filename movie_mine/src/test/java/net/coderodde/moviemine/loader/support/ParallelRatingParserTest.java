@@ -0,0 +1,44 @@
+package net.coderodde.moviemine.loader.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import net.coderodde.moviemine.model.RatingTable;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelRatingParserTest {
+    
+    @Test
+    public void testParse() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        
+        for (int i = 0; i < 1000; ++i) {
+            sb.append(i % 37).append("::").append(i).append("::4.5::")
+              .append(1000 + i).append('\n');
+        }
+        
+        final File file = 
+                MemoryMappedRatingParserTest.createFile(sb.toString());
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final ParallelRatingParser.ParsedRatings parsedRatings;
+        
+        try {
+            parsedRatings = new ParallelRatingParser(file, pool).parse();
+        } finally {
+            pool.shutdown();
+        }
+        
+        final RatingTable ratingTable = parsedRatings.getRatingTable();
+        
+        assertEquals(1000, ratingTable.size());
+        assertEquals(37, parsedRatings.getUserIdSet().cardinality());
+        
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i % 37, ratingTable.getUserCode(i));
+            assertEquals(i, ratingTable.getMovieCode(i));
+            assertEquals(4.5f, ratingTable.getScore(i), 0.0001f);
+            assertEquals(1000L + i, ratingTable.getTimestamp(i));
+        }
+    }
+}
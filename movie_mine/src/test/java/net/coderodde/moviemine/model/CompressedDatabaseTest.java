@@ -0,0 +1,101 @@
+package net.coderodde.moviemine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CompressedDatabaseTest {
+    
+    private final List<User> userList;
+    private final List<Movie> movieList;
+    private final List<Rating> ratingList;
+    
+    public CompressedDatabaseTest() {
+        userList = new ArrayList<>();
+        movieList = new ArrayList<>();
+        ratingList = new ArrayList<>();
+        
+        for (int i = 0; i < 4; ++i) {
+            userList.add(new User("u" + i, null, 20 + i, null, null));
+        }
+        
+        for (int i = 0; i < 4; ++i) {
+            movieList.add(new Movie("m" + i, "Movie " + i));
+        }
+        
+        // User u3 rates nothing, and u0 rates m3 twice.
+        ratingList.add(new Rating("u0", "m3", 4.0f, 1L));
+        ratingList.add(new Rating("u2", "m0", 3.0f, 2L));
+        ratingList.add(new Rating("u0", "m1", 2.0f, 3L));
+        ratingList.add(new Rating("u1", "m2", 5.0f, 4L));
+        ratingList.add(new Rating("u0", "m3", 1.0f, 5L));
+        ratingList.add(new Rating("u2", "m2", 4.5f, 6L));
+    }
+    
+    @Test
+    public void testSelect() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        final CompressedDatabase cdb = new CompressedDatabase(db);
+        
+        assertEquals(3, cdb.size());
+        assertEquals(db.select(), cdb.select());
+        
+        final List<Set<Movie>> selection = 
+                cdb.select(new Predicate<User>() {
+            
+            @Override
+            public boolean test(final User user) {
+                return user.getAge() > 20;
+            }
+        });
+        
+        assertEquals(2, selection.size());
+        assertEquals(db.getTransaction(1), selection.get(0));
+        assertEquals(db.getTransaction(2), selection.get(1));
+    }
+    
+    @Test
+    public void testTransaction() {
+        final CompressedDatabase cdb = 
+                new CompressedDatabase(
+                        new DefaultDatabase(userList, movieList, ratingList));
+        final Set<Movie> transaction = cdb.getTransaction(0);
+        
+        assertEquals(2, transaction.size());
+        assertEquals(2, cdb.getTransactionLength(0));
+        assertEquals(1, cdb.getMovieCode(0, 0));
+        assertEquals(3, cdb.getMovieCode(0, 1));
+        assertTrue(transaction.contains(movieList.get(1)));
+        assertTrue(transaction.contains(movieList.get(3)));
+        assertFalse(transaction.contains(movieList.get(0)));
+        assertFalse(transaction.contains(new Movie("m9", "Unknown")));
+        assertTrue(cdb.getTransaction(3).isEmpty());
+        
+        // Items are iterated in movie code order.
+        final Iterator<Movie> iterator = transaction.iterator();
+        
+        assertEquals(movieList.get(1), iterator.next());
+        assertEquals(movieList.get(3), iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+    
+    @Test
+    public void testVerticalIndex() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        final CompressedDatabase cdb = new CompressedDatabase(db);
+        
+        assertEquals(db.getVerticalIndex(), cdb.getVerticalIndex());
+        assertSame(cdb.getVerticalIndex(), cdb.getVerticalIndex());
+        assertEquals(2, cdb.getSupportCount(
+                Collections.singleton(movieList.get(2))));
+        assertEquals(0, cdb.getSupportCount(
+                Collections.singleton(new Movie("m9", "Unknown"))));
+    }
+}
@@ -0,0 +1,265 @@
+package net.coderodde.moviemine.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DefaultDatabaseTest {
+    
+    private final List<User> userList;
+    private final List<Movie> movieList;
+    private final List<Rating> ratingList;
+    
+    public DefaultDatabaseTest() {
+        userList = new ArrayList<>();
+        movieList = new ArrayList<>();
+        ratingList = new ArrayList<>();
+        
+        for (int i = 0; i < 5; ++i) {
+            userList.add(new User("u" + i, null, 20 + i, null, null));
+        }
+        
+        for (int i = 0; i < 4; ++i) {
+            movieList.add(new Movie("m" + i, "Movie " + i));
+        }
+        
+        // User u4 rates nothing.
+        ratingList.add(new Rating("u2", "m3", 4.0f, 1L));
+        ratingList.add(new Rating("u0", "m0", 3.0f, 2L));
+        ratingList.add(new Rating("u2", "m1", 2.0f, 3L));
+        ratingList.add(new Rating("u1", "m0", 5.0f, 4L));
+        ratingList.add(new Rating("u3", "m2", 1.0f, 5L));
+        ratingList.add(new Rating("u0", "m3", 4.5f, 6L));
+    }
+    
+    @Test
+    public void testIntKeyedAccess() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        
+        assertEquals(4, db.size());
+        assertEquals(2, db.getUserDictionary().getCode("u2"));
+        assertEquals(3, db.getMovieDictionary().getCode("m3"));
+        assertEquals("u2", db.getUser(2).getId());
+        assertEquals("m3", db.getMovie(3).getId());
+        
+        final Set<Movie> transaction = db.getTransaction(0);
+        
+        assertEquals(2, transaction.size());
+        assertTrue(transaction.contains(movieList.get(0)));
+        assertTrue(transaction.contains(movieList.get(3)));
+        assertTrue(db.getTransaction(4).isEmpty());
+        
+        final RatingTable ratingTable = db.getRatingTable();
+        
+        assertEquals(6, ratingTable.size());
+        assertEquals(2, ratingTable.getUserCode(0));
+        assertEquals(3, ratingTable.getMovieCode(0));
+        assertEquals("u0", db.getRatingView().get(1).getUserId());
+        assertEquals("m0", db.getRatingView().get(1).getMovieId());
+    }
+    
+    @Test
+    public void testParallelConstructionMatchesSequential() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        
+        // More workers than users leaves some ranges empty.
+        for (final int parallelism : new int[]{ 3, 8 }) {
+            final ForkJoinPool pool = new ForkJoinPool(parallelism);
+            
+            try {
+                final DefaultDatabase db2 = 
+                        new DefaultDatabase(userList, 
+                                            movieList, 
+                                            db.getRatingTable(), 
+                                            pool);
+                
+                assertEquals(db.select(), db2.select());
+                assertEquals(db.toString(), db2.toString());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    @Test
+    public void testVerticalIndex() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        
+        // Transactions are numbered u0, u1, u2, u3.
+        assertEquals("[0, 1]", db.getMovieBitmap(0).toString());
+        assertEquals("[2]", db.getMovieBitmap(1).toString());
+        assertEquals("[0, 2]", db.getMovieBitmap(3).toString());
+        assertEquals(db.getMovieBitmap(3), 
+                     db.getVerticalIndex().get(movieList.get(3)));
+        
+        // The default implementation numbers the transactions the same way.
+        assertEquals(db.getVerticalIndex(), 
+                     new CompressedDatabase(db).getVerticalIndex());
+        
+        final Set<Movie> itemset = new HashSet<>();
+        
+        assertEquals(4, db.getSupportCount(itemset));
+        itemset.add(movieList.get(3));
+        assertEquals(2, db.getSupportCount(itemset));
+        itemset.add(movieList.get(0));
+        assertEquals(1, db.getSupportCount(itemset));
+        itemset.add(movieList.get(1));
+        assertEquals(0, db.getSupportCount(itemset));
+        assertEquals(0, db.getSupportCount(
+                Collections.singleton(new Movie("m9", "Unknown"))));
+    }
+    
+    @Test
+    public void testSelectWithAttributePredicates() {
+        final List<User> users = new ArrayList<>();
+        final List<Rating> ratings = new ArrayList<>();
+        final String[] occupations = { "writer", "artist", "farmer" };
+        
+        for (int i = 0; i < 60; ++i) {
+            users.add(new User("u" + i,
+                               i % 2 == 0 ? User.Gender.FEMALE : 
+                                            User.Gender.MALE,
+                               18 + i % 7,
+                               occupations[i % 3],
+                               "0" + i % 5));
+            
+            // Every fourth user rates nothing.
+            if (i % 4 != 3) {
+                ratings.add(new Rating("u" + i, "m" + i % 4, 3.0f, i));
+            }
+        }
+        
+        final DefaultDatabase db = 
+                new DefaultDatabase(users, movieList, ratings);
+        final Predicate<User> agePredicate = new Predicate<User>() {
+            
+            @Override
+            public boolean test(final User user) {
+                return user.getAge() >= 20;
+            }
+        };
+        
+        final AttributePredicate femalePredicate = 
+                AttributePredicate.hasGender(User.Gender.FEMALE);
+        final AttributePredicate occupationPredicate = 
+                AttributePredicate.hasOccupation("writer", "artist");
+        final AttributePredicate ageRangePredicate = 
+                AttributePredicate.hasAgeBetween(20, 22);
+        
+        // Attribute predicates must select what a plain scan would select.
+        assertEquals(scan(db, users, femalePredicate, occupationPredicate),
+                     db.select(femalePredicate, occupationPredicate));
+        assertEquals(scan(db, users, ageRangePredicate, agePredicate),
+                     db.select(ageRangePredicate, agePredicate));
+        assertEquals(scan(db, users, AttributePredicate.hasZipCode("03")),
+                     db.select(AttributePredicate.hasZipCode("03")));
+        assertEquals(scan(db, users, AttributePredicate.hasAge(18, 24)),
+                     db.select(AttributePredicate.hasAge(18, 24)));
+        assertTrue(db.select(AttributePredicate.hasAge(99)).isEmpty());
+        assertEquals(db.size(), db.select().size());
+    }
+    
+    @Test
+    public void testView() {
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        final Predicate<User> predicate = new Predicate<User>() {
+            
+            @Override
+            public boolean test(final User user) {
+                return user.getAge() != 21;
+            }
+        };
+        
+        final Collection<Set<Movie>> view = db.view(predicate);
+        
+        assertEquals(db.select(predicate), new ArrayList<>(view));
+        assertEquals(3, view.size());
+        assertEquals(new ArrayList<>(db.select()), 
+                     new ArrayList<>(new CompressedDatabase(db).view()));
+        
+        // Splitting must neither lose nor duplicate transactions.
+        final Spliterator<Set<Movie>> spliterator = db.view().spliterator();
+        final Spliterator<Set<Movie>> prefix = spliterator.trySplit();
+        final List<Set<Movie>> list = new ArrayList<>();
+        final Consumer<Set<Movie>> consumer = new Consumer<Set<Movie>>() {
+            
+            @Override
+            public void accept(final Set<Movie> transaction) {
+                list.add(transaction);
+            }
+        };
+        
+        assertNotNull(prefix);
+        prefix.forEachRemaining(consumer);
+        
+        while (spliterator.tryAdvance(consumer)) {}
+        
+        assertEquals(db.select(), list);
+        assertEquals(4L, StreamSupport.stream(db.view().spliterator(), true)
+                                      .count());
+    }
+    
+    private static List<Set<Movie>> scan(final DefaultDatabase db,
+                                         final List<User> users,
+                                         final Predicate<User>... predicates) {
+        final List<Set<Movie>> ret = new ArrayList<>();
+        
+        outer:
+        for (int userCode = 0; userCode < users.size(); ++userCode) {
+            if (db.getTransaction(userCode).isEmpty()) {
+                continue;
+            }
+            
+            for (final Predicate<User> predicate : predicates) {
+                if (!predicate.test(users.get(userCode))) {
+                    continue outer;
+                }
+            }
+            
+            ret.add(db.getTransaction(userCode));
+        }
+        
+        return ret;
+    }
+    
+    @Test
+    public void testIgnoresUnknownReferences() {
+        final DefaultDatabase expected = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        
+        ratingList.add(new Rating("u1", "m9", 1.0f, 7L));
+        ratingList.add(new Rating("u9", "m1", 1.0f, 8L));
+        
+        final DefaultDatabase db = 
+                new DefaultDatabase(userList, movieList, ratingList);
+        
+        assertEquals(6, db.getRatingTable().size());
+        assertEquals(expected.select(), db.select());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnDuplicateUserId() {
+        userList.add(new User("u2", null, 30, null, null));
+        new DefaultDatabase(userList, movieList, ratingList);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnDuplicateMovieId() {
+        movieList.add(new Movie("m0", "Another movie"));
+        new DefaultDatabase(userList, movieList, ratingList);
+    }
+}
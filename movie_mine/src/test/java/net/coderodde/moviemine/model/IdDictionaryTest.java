@@ -0,0 +1,32 @@
+package net.coderodde.moviemine.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IdDictionaryTest {
+    
+    @Test
+    public void testEncode() {
+        final IdDictionary dictionary = new IdDictionary();
+        
+        assertEquals(0, dictionary.encode("42"));
+        assertEquals(1, dictionary.encode("7"));
+        assertEquals(0, dictionary.encode("42"));
+        assertEquals(2, dictionary.encode("1"));
+        assertEquals(3, dictionary.size());
+    }
+    
+    @Test
+    public void testGetCodeAndGetId() {
+        final IdDictionary dictionary = new IdDictionary(2);
+        
+        dictionary.encode("a");
+        dictionary.encode("b");
+        
+        assertEquals(1, dictionary.getCode("b"));
+        assertEquals(IdDictionary.NO_CODE, dictionary.getCode("c"));
+        assertEquals("a", dictionary.getId(0));
+        assertEquals("b", dictionary.getId(1));
+        assertEquals(2, dictionary.size());
+    }
+}